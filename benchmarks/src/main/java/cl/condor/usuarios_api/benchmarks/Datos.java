@@ -0,0 +1,30 @@
+package cl.condor.usuarios_api.benchmarks;
+
+import cl.condor.usuarios_api.model.Usuario;
+
+import java.math.BigDecimal;
+
+/** Datos de ejemplo compartidos por los benchmarks. */
+final class Datos {
+
+    private Datos() {
+    }
+
+    static Usuario usuario(int id) {
+        return Usuario.builder()
+                .id(id)
+                .nombre("Usuario de prueba " + id)
+                .correo("usuario" + id + "@condor.cl")
+                .contrasena("{bcrypt}$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW")
+                .rutasRecorridas(37)
+                .kmRecorridos(new BigDecimal("412.75"))
+                .preguntaSeguridad1("¿Color favorito?")
+                .respuestaSeguridad1("{bcrypt}$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW")
+                .preguntaSeguridad2("¿Comida favorita?")
+                .respuestaSeguridad2("{bcrypt}$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW")
+                .idRol(1)
+                .idRegion(13)
+                .idEstado(1)
+                .build();
+    }
+}
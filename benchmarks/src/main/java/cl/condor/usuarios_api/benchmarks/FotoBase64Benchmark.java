@@ -0,0 +1,107 @@
+package cl.condor.usuarios_api.benchmarks;
+
+import cl.condor.usuarios_api.dto.FotoProcesada;
+import cl.condor.usuarios_api.service.ProcesadorFotos;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subida de foto en Base64 (PUT /{id}/foto con JSON o texto): decodificación en
+ * streaming y procesamiento completo (hash y miniaturas) para fotos de 100 KB a 5 MB.
+ * "soloDecodificar" separa el costo del Base64 del de ImageIO.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FotoBase64Benchmark {
+
+    // Tamaño aproximado del JPEG antes de codificar, en KB (el máximo aceptado es 5 MB)
+    @Param({"100", "1000", "5000"})
+    public int kb;
+
+    private ProcesadorFotos procesador;
+    private byte[] cuerpoBase64;
+
+    @Setup
+    public void preparar() throws IOException {
+        procesador = new ProcesadorFotos();
+        byte[] jpeg = jpegDeTamano(kb * 1000);
+        String base64 = "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(jpeg);
+        cuerpoBase64 = base64.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public FotoProcesada procesarBase64() {
+        return procesador.procesarBase64(new ByteArrayInputStream(cuerpoBase64));
+    }
+
+    @Benchmark
+    public byte[] soloDecodificar() throws IOException {
+        int coma = indiceComa(cuerpoBase64);
+        try (InputStream in = Base64.getDecoder().wrap(
+                new ByteArrayInputStream(cuerpoBase64, coma + 1, cuerpoBase64.length - coma - 1))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static int indiceComa(byte[] datos) {
+        for (int i = 0; i < datos.length; i++) {
+            if (datos[i] == ',') return i;
+        }
+        return -1;
+    }
+
+    // Ruido aleatorio para que el JPEG no comprima; se ajusta el lado hasta quedar bajo el objetivo
+    private static byte[] jpegDeTamano(int objetivo) throws IOException {
+        int lado = 256;
+        byte[] jpeg = jpeg(lado);
+        for (int i = 0; i < 4; i++) {
+            lado = Math.max(16, (int) (lado * Math.sqrt((double) objetivo / jpeg.length)));
+            jpeg = jpeg(lado);
+        }
+        while (jpeg.length > objetivo) {
+            lado = (int) (lado * 0.97);
+            jpeg = jpeg(lado);
+        }
+        return jpeg;
+    }
+
+    private static byte[] jpeg(int lado) throws IOException {
+        BufferedImage imagen = new BufferedImage(lado, lado, BufferedImage.TYPE_INT_RGB);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int y = 0; y < lado; y++) {
+            for (int x = 0; x < lado; x++) {
+                imagen.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(salida)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.9f);
+            writer.write(null, new IIOImage(imagen, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return salida.toByteArray();
+    }
+}
@@ -0,0 +1,54 @@
+package cl.condor.usuarios_api.benchmarks;
+
+import cl.condor.usuarios_api.dto.UsuarioDTO;
+import cl.condor.usuarios_api.model.Usuario;
+import cl.condor.usuarios_api.service.PasswordHashingService;
+import cl.condor.usuarios_api.service.UsuarioService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UsuarioService.mapToDTO: se ejecuta en cada GET de perfil, en los listados y en la
+ * exportación, así que su costo se multiplica por el número de filas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapeoUsuarioBenchmark {
+
+    private UsuarioService usuarioService;
+    private PasswordHashingService passwordHasher;
+    private Usuario conFoto;
+    private Usuario sinFoto;
+
+    @Setup
+    public void preparar() {
+        // mapToDTO no usa repositorios ni el pool; el servicio se arma sin contexto de Spring
+        passwordHasher = new PasswordHashingService(new BCryptPasswordEncoder(4), 1, 1, new SimpleMeterRegistry());
+        usuarioService = new UsuarioService(passwordHasher);
+        conFoto = Datos.usuario(1);
+        conFoto.setFotoHash("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+        sinFoto = Datos.usuario(2);
+    }
+
+    @TearDown
+    public void cerrar() {
+        passwordHasher.cerrar();
+    }
+
+    @Benchmark
+    public UsuarioDTO conFoto() {
+        return usuarioService.mapToDTO(conFoto);
+    }
+
+    @Benchmark
+    public UsuarioDTO sinFoto() {
+        return usuarioService.mapToDTO(sinFoto);
+    }
+}
@@ -0,0 +1,55 @@
+package cl.condor.usuarios_api.benchmarks;
+
+import cl.condor.usuarios_api.config.PasswordConfig;
+import cl.condor.usuarios_api.service.PasswordHashingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verificación de contraseña del login según el coste BCrypt (usuarios.password.bcrypt-cost).
+ * Cada punto de coste duplica el tiempo; sirve para elegir el coste y para dimensionar
+ * el pool (usuarios.password.pool-size) frente a los logins por segundo esperados.
+ *
+ * "directo" mide solo el encoder; "enPool" agrega el paso por PasswordHashingService
+ * (cola, cambio de hilo y métricas), que es lo que paga un login real.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordBenchmark {
+
+    @Param({"10", "11", "12"})
+    public int coste;
+
+    private PasswordEncoder encoder;
+    private PasswordHashingService passwordHasher;
+    private String hash;
+
+    @Setup
+    public void preparar() {
+        encoder = new PasswordConfig().passwordEncoder("bcrypt", coste);
+        passwordHasher = new PasswordHashingService(encoder, 1, 100, new SimpleMeterRegistry());
+        hash = encoder.encode("clave-de-prueba");
+    }
+
+    @TearDown
+    public void cerrar() {
+        passwordHasher.cerrar();
+    }
+
+    @Benchmark
+    public boolean directo() {
+        return encoder.matches("clave-de-prueba", hash);
+    }
+
+    @Benchmark
+    public boolean enPool() {
+        return passwordHasher.matchesAsync("clave-de-prueba", hash).join();
+    }
+}
@@ -0,0 +1,35 @@
+package cl.condor.usuarios_api.benchmarks;
+
+import cl.condor.usuarios_api.service.UsuarioService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Normalización de las respuestas de seguridad en recuperarContrasena (trim + minúsculas),
+ * la forma en que se hashean al registrar y se comparan al recuperar.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RespuestasBenchmark {
+
+    @Param({"azul", "  Pastel de Choclo  ", "TORRES DEL PAINE, PATAGONIA CHILENA"})
+    public String respuesta;
+
+    @Benchmark
+    public String normalizar() {
+        return UsuarioService.normalizarRespuesta(respuesta);
+    }
+
+    @Benchmark
+    public void normalizarAmbas(Blackhole bh) {
+        // recuperarContrasena normaliza las dos respuestas por petición
+        bh.consume(UsuarioService.normalizarRespuesta(respuesta));
+        bh.consume(UsuarioService.normalizarRespuesta(respuesta));
+    }
+}
@@ -0,0 +1,52 @@
+package cl.condor.usuarios_api.benchmarks;
+
+import cl.condor.usuarios_api.dto.UsuarioDTO;
+import cl.condor.usuarios_api.model.Usuario;
+import cl.condor.usuarios_api.service.PasswordHashingService;
+import cl.condor.usuarios_api.service.UsuarioService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización JSON de la entidad Usuario frente a UsuarioDTO. La entidad arrastra
+ * contraseña, preguntas y respuestas (hashes largos); el DTO solo lo que ve el cliente.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializacionBenchmark {
+
+    private ObjectMapper mapper;
+    private Usuario usuario;
+    private UsuarioDTO dto;
+
+    @Setup
+    public void preparar() {
+        // Mismos módulos que registra Spring Boot (jsr310, jdk8, parameter names)
+        mapper = new ObjectMapper().findAndRegisterModules();
+        usuario = Datos.usuario(1);
+        usuario.setFotoHash("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+        PasswordHashingService passwordHasher =
+                new PasswordHashingService(new BCryptPasswordEncoder(4), 1, 1, new SimpleMeterRegistry());
+        dto = new UsuarioService(passwordHasher).mapToDTO(usuario);
+        passwordHasher.cerrar();
+    }
+
+    @Benchmark
+    public byte[] entidad() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(usuario);
+    }
+
+    @Benchmark
+    public byte[] dto() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(dto);
+    }
+}
@@ -0,0 +1,22 @@
+package cl.condor.usuarios_api.carga;
+
+/** Convenciones compartidas entre el sembrado y los escenarios: los usuarios se derivan de su número. */
+final class DatosCarga {
+
+    // Todos los usuarios sembrados comparten contraseña y respuestas (se hashean una sola vez)
+    static final String CLAVE = "Clave-de-carga-1";
+    static final String RESPUESTA1 = "azul";
+    static final String RESPUESTA2 = "pastel de choclo";
+
+    private DatosCarga() {
+    }
+
+    static int usuarios() {
+        return Integer.getInteger("carga.usuarios", 10_000);
+    }
+
+    /** Usuario n (1..usuarios): id n en una tabla recién creada. */
+    static String correo(int n) {
+        return "usuario" + n + "@carga.cl";
+    }
+}
@@ -0,0 +1,79 @@
+package cl.condor.usuarios_api.carga;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escenarios de la mezcla de tráfico, con su peso relativo y el estado HTTP que
+ * cuenta como éxito. Cada petición se arma para el usuario sembrado número n.
+ */
+enum Escenario {
+
+    LOGIN(25, 200) {
+        @Override
+        HttpRequest peticion(String base, int n, byte[] foto) {
+            return json(base + "/login", "{\"correo\":\"" + DatosCarga.correo(n) + "\",\"password\":\""
+                    + DatosCarga.CLAVE + "\"}");
+        }
+    },
+    GET_BY_ID(30, 200) {
+        @Override
+        HttpRequest peticion(String base, int n, byte[] foto) {
+            return HttpRequest.newBuilder(URI.create(base + "/" + n)).GET().build();
+        }
+    },
+    GET_BY_CORREO(20, 200) {
+        @Override
+        HttpRequest peticion(String base, int n, byte[] foto) {
+            return HttpRequest.newBuilder(URI.create(base + "/buscar?correo="
+                    + URLEncoder.encode(DatosCarga.correo(n), StandardCharsets.UTF_8))).GET().build();
+        }
+    },
+    PATCH_NOMBRE(10, 204) {
+        @Override
+        HttpRequest peticion(String base, int n, byte[] foto) {
+            return HttpRequest.newBuilder(URI.create(base + "/" + n + "/nombre?nombre=Usuario+" + n))
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody()).build();
+        }
+    },
+    FOTO(5, 200) {
+        @Override
+        HttpRequest peticion(String base, int n, byte[] foto) {
+            return HttpRequest.newBuilder(URI.create(base + "/" + n + "/foto"))
+                    .header("Content-Type", "image/jpeg")
+                    .PUT(HttpRequest.BodyPublishers.ofByteArray(foto)).build();
+        }
+    },
+    // La nueva contraseña es la misma: el usuario sigue sirviendo para LOGIN
+    RECUPERACION(10, 200) {
+        @Override
+        HttpRequest peticion(String base, int n, byte[] foto) {
+            return json(base + "/recuperar", "{\"correo\":\"" + DatosCarga.correo(n)
+                    + "\",\"respuestaSeguridad1\":\"" + DatosCarga.RESPUESTA1
+                    + "\",\"respuestaSeguridad2\":\"" + DatosCarga.RESPUESTA2
+                    + "\",\"nuevaPassword\":\"" + DatosCarga.CLAVE + "\"}");
+        }
+    };
+
+    final int peso;
+    final int estadoEsperado;
+
+    Escenario(int peso, int estadoEsperado) {
+        this.peso = peso;
+        this.estadoEsperado = estadoEsperado;
+    }
+
+    abstract HttpRequest peticion(String base, int n, byte[] foto);
+
+    String nombre() {
+        return name().toLowerCase().replace('_', '-');
+    }
+
+    private static HttpRequest json(String url, String cuerpo) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo)).build();
+    }
+}
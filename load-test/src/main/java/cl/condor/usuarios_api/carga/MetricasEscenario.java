@@ -0,0 +1,39 @@
+package cl.condor.usuarios_api.carga;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Latencias (en microsegundos, hasta 1 minuto) y conteo de errores de un escenario. */
+final class MetricasEscenario {
+
+    private final Histogram latencias = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+    private final LongAdder errores = new LongAdder();
+
+    void registrar(long nanos, boolean ok) {
+        latencias.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), latencias.getHighestTrackableValue()));
+        if (!ok) errores.increment();
+    }
+
+    void agregarA(Histogram total) {
+        total.add(latencias);
+    }
+
+    long peticiones() {
+        return latencias.getTotalCount();
+    }
+
+    long errores() {
+        return errores.sum();
+    }
+
+    double percentilMs(double percentil) {
+        return latencias.getValueAtPercentile(percentil) / 1000.0;
+    }
+
+    double maximoMs() {
+        return latencias.getMaxValue() / 1000.0;
+    }
+}
@@ -0,0 +1,239 @@
+package cl.condor.usuarios_api.carga;
+
+import cl.condor.usuarios_api.UsuariosApiApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prueba de carga de usuarios-api: levanta la API en este mismo proceso con el perfil
+ * "carga" (H2 en modo MySQL, sembrada por {@link SembradorCarga}), la somete a una
+ * mezcla de escenarios (login, GET por id y por correo, PATCH, foto, recuperación)
+ * con N usuarios virtuales en lazo cerrado y reporta p50/p99/throughput por escenario.
+ *
+ * Termina con código 1 si se superan los umbrales, para usarla antes de un release.
+ * Cliente y servidor comparten la máquina: los números sirven para comparar versiones
+ * en el mismo equipo, no como capacidad absoluta.
+ *
+ * Con carga.modo=virtual se agrega el perfil "virtual" de la API (Tomcat con hilos
+ * virtuales, tope de peticiones en curso): correrla una vez en cada modo con los mismos
+ * parámetros compara ambos modos (throughput, p50/p99 y errores por escenario).
+ *
+ * Parámetros (-D):
+ *   carga.modo (plataforma)      plataforma | virtual
+ *   carga.usuarios (10000)       usuarios sembrados
+ *   carga.concurrencia (32)      usuarios virtuales simultáneos
+ *   carga.calentamiento (15s)    tiempo inicial que no se mide
+ *   carga.duracion (60s)         tiempo medido
+ *   carga.max-p99-ms (0 = sin umbral) p99 máximo por escenario; carga.max-p99-ms.login, etc. por escenario
+ *   carga.max-errores (0.01)     fracción máxima de respuestas con estado inesperado
+ *   carga.min-throughput (0)     peticiones por segundo mínimas en total
+ *   carga.reporte (target/carga-resultado-{modo}.json)
+ */
+public final class PruebaCarga {
+
+    private static final String API = "/api/v1/usuarios";
+    private static final List<String> MODOS = List.of("plataforma", "virtual");
+
+    private PruebaCarga() {
+    }
+
+    record FilaReporte(String escenario, long peticiones, long errores, double porSegundo,
+                       double p50Ms, double p99Ms, double maxMs) {}
+
+    public static void main(String[] args) throws Exception {
+        int concurrencia = Integer.getInteger("carga.concurrencia", 32);
+        Duration calentamiento = duracion("carga.calentamiento", "15s");
+        Duration medicion = duracion("carga.duracion", "60s");
+        String modo = System.getProperty("carga.modo", "plataforma");
+        if (!MODOS.contains(modo)) {
+            throw new IllegalArgumentException("carga.modo debe ser uno de " + MODOS + ": " + modo);
+        }
+
+        SpringApplicationBuilder aplicacion = new SpringApplicationBuilder(UsuariosApiApplication.class);
+        ConfigurableApplicationContext ctx = (modo.equals("virtual")
+                ? aplicacion.profiles("carga", "virtual")
+                : aplicacion.profiles("carga"))
+                .run(args);
+        int codigo;
+        try {
+            String base = "http://localhost:" + ctx.getEnvironment().getProperty("local.server.port") + API;
+            Map<Escenario, MetricasEscenario> metricas = ejecutar(base, concurrencia, calentamiento, medicion);
+            List<FilaReporte> reporte = reporte(metricas, medicion);
+
+            imprimir(reporte, modo, concurrencia, medicion, System.out);
+            Path archivo = Path.of(System.getProperty("carga.reporte", "target/carga-resultado-" + modo + ".json"));
+            guardar(reporte, modo, concurrencia, archivo);
+            List<String> fallas = verificarUmbrales(reporte);
+            fallas.forEach(f -> System.out.println("UMBRAL SUPERADO: " + f));
+            codigo = fallas.isEmpty() ? 0 : 1;
+        } finally {
+            ctx.close();
+        }
+        System.exit(codigo);
+    }
+
+    static Map<Escenario, MetricasEscenario> ejecutar(String base, int concurrencia, Duration calentamiento,
+                                                      Duration medicion) throws Exception {
+        int usuarios = DatosCarga.usuarios();
+        byte[] foto = fotoDePrueba();
+        Map<Escenario, MetricasEscenario> metricas = new EnumMap<>(Escenario.class);
+        for (Escenario e : Escenario.values()) {
+            metricas.put(e, new MetricasEscenario());
+        }
+        int pesoTotal = 0;
+        for (Escenario e : Escenario.values()) pesoTotal += e.peso;
+        int pesos = pesoTotal;
+
+        long inicioMedicion = System.nanoTime() + calentamiento.toNanos();
+        long fin = inicioMedicion + medicion.toNanos();
+
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient cliente = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(5))
+                     .executor(hilos)
+                     .build()) {
+            List<Future<?>> usuariosVirtuales = new ArrayList<>(concurrencia);
+            for (int i = 0; i < concurrencia; i++) {
+                usuariosVirtuales.add(hilos.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long inicio;
+                    while ((inicio = System.nanoTime()) < fin) {
+                        Escenario escenario = elegir(random.nextInt(pesos));
+                        int n = 1 + random.nextInt(usuarios);
+                        boolean ok;
+                        try {
+                            HttpResponse<Void> respuesta = cliente.send(escenario.peticion(base, n, foto),
+                                    HttpResponse.BodyHandlers.discarding());
+                            ok = respuesta.statusCode() == escenario.estadoEsperado;
+                        } catch (IOException e) {
+                            ok = false;
+                        }
+                        if (inicio >= inicioMedicion) {
+                            metricas.get(escenario).registrar(System.nanoTime() - inicio, ok);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (var usuario : usuariosVirtuales) {
+                usuario.get();
+            }
+        }
+        return metricas;
+    }
+
+    private static Escenario elegir(int valor) {
+        for (Escenario e : Escenario.values()) {
+            if (valor < e.peso) return e;
+            valor -= e.peso;
+        }
+        throw new IllegalStateException();
+    }
+
+    static List<FilaReporte> reporte(Map<Escenario, MetricasEscenario> metricas, Duration medicion) {
+        double segundos = medicion.toMillis() / 1000.0;
+        List<FilaReporte> filas = new ArrayList<>();
+        Histogram total = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+        long erroresTotal = 0;
+        for (var entrada : metricas.entrySet()) {
+            MetricasEscenario m = entrada.getValue();
+            m.agregarA(total);
+            erroresTotal += m.errores();
+            filas.add(new FilaReporte(entrada.getKey().nombre(), m.peticiones(), m.errores(),
+                    m.peticiones() / segundos, m.percentilMs(50), m.percentilMs(99), m.maximoMs()));
+        }
+        filas.add(new FilaReporte("total", total.getTotalCount(), erroresTotal, total.getTotalCount() / segundos,
+                total.getValueAtPercentile(50) / 1000.0, total.getValueAtPercentile(99) / 1000.0,
+                total.getMaxValue() / 1000.0));
+        return filas;
+    }
+
+    private static void imprimir(List<FilaReporte> filas, String modo, int concurrencia, Duration medicion,
+                                 PrintStream salida) {
+        salida.printf(Locale.ROOT, "%nmodo=%s usuarios=%d concurrencia=%d duracion=%ds%n",
+                modo, DatosCarga.usuarios(), concurrencia, medicion.toSeconds());
+        salida.printf(Locale.ROOT, "%-14s %10s %8s %9s %9s %9s %9s%n",
+                "escenario", "peticiones", "errores", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (FilaReporte f : filas) {
+            salida.printf(Locale.ROOT, "%-14s %10d %8d %9.1f %9.1f %9.1f %9.1f%n",
+                    f.escenario(), f.peticiones(), f.errores(), f.porSegundo(), f.p50Ms(), f.p99Ms(), f.maxMs());
+        }
+    }
+
+    private static void guardar(List<FilaReporte> filas, String modo, int concurrencia, Path archivo) throws IOException {
+        if (archivo.getParent() != null) Files.createDirectories(archivo.getParent());
+        Map<String, Object> contenido = new LinkedHashMap<>();
+        contenido.put("modo", modo);
+        contenido.put("usuarios", DatosCarga.usuarios());
+        contenido.put("concurrencia", concurrencia);
+        contenido.put("escenarios", filas);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(archivo.toFile(), contenido);
+    }
+
+    static List<String> verificarUmbrales(List<FilaReporte> filas) {
+        List<String> fallas = new ArrayList<>();
+        double maxErrores = Double.parseDouble(System.getProperty("carga.max-errores", "0.01"));
+        double minThroughput = Double.parseDouble(System.getProperty("carga.min-throughput", "0"));
+        for (FilaReporte f : filas) {
+            double maxP99 = Double.parseDouble(System.getProperty("carga.max-p99-ms." + f.escenario(),
+                    System.getProperty("carga.max-p99-ms", "0")));
+            if (maxP99 > 0 && f.p99Ms() > maxP99) {
+                fallas.add(String.format(Locale.ROOT, "%s p99 %.1f ms > %.1f ms", f.escenario(), f.p99Ms(), maxP99));
+            }
+            if (f.peticiones() > 0 && (double) f.errores() / f.peticiones() > maxErrores) {
+                fallas.add(String.format(Locale.ROOT, "%s errores %d de %d", f.escenario(), f.errores(), f.peticiones()));
+            }
+            if (f.escenario().equals("total") && f.porSegundo() < minThroughput) {
+                fallas.add(String.format(Locale.ROOT, "throughput %.1f req/s < %.1f", f.porSegundo(), minThroughput));
+            }
+        }
+        return fallas;
+    }
+
+    private static Duration duracion(String propiedad, String defecto) {
+        return DurationStyle.detectAndParse(System.getProperty(propiedad, defecto));
+    }
+
+    // JPEG de ruido de ~200 KB (no comprime): genera hash y miniaturas como una foto real
+    private static byte[] fotoDePrueba() throws IOException {
+        int lado = 320;
+        BufferedImage imagen = new BufferedImage(lado, lado, BufferedImage.TYPE_INT_RGB);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int y = 0; y < lado; y++) {
+            for (int x = 0; x < lado; x++) {
+                imagen.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(imagen, "jpg", salida);
+        return salida.toByteArray();
+    }
+}
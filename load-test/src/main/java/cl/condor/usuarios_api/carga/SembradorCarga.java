@@ -0,0 +1,84 @@
+package cl.condor.usuarios_api.carga;
+
+import lombok.extern.slf4j.Slf4j;
+import net.datafaker.Faker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Siembra la BD de la prueba de carga antes de que la API reciba tráfico (los
+ * ApplicationRunner corren antes de ApplicationReadyEvent, así el filtro de correos
+ * se construye ya con estos usuarios).
+ *
+ * Contraseña y respuestas se hashean una vez y se reutilizan: hashear N contraseñas
+ * con el coste de producción tomaría más que la prueba misma.
+ */
+@Slf4j
+@Component
+@Profile("carga")
+public class SembradorCarga implements ApplicationRunner {
+
+    static final String SQL_USUARIO = """
+            INSERT INTO usuario (nombre, correo, contrasena, rutas_recorridas, km_recorridos,
+                                 pregunta_seguridad1, respuesta_seguridad1, pregunta_seguridad2, respuesta_seguridad2,
+                                 id_rol, id_region, id_estado)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final int TAMANO_LOTE = 1_000;
+
+    private static final List<String> REGIONES = List.of(
+            "Arica y Parinacota", "Tarapacá", "Antofagasta", "Atacama", "Coquimbo", "Valparaíso",
+            "Metropolitana", "O'Higgins", "Maule", "Ñuble", "Biobío", "La Araucanía", "Los Ríos",
+            "Los Lagos", "Aysén", "Magallanes");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int total = DatosCarga.usuarios();
+        long inicio = System.nanoTime();
+
+        for (String region : REGIONES) {
+            jdbcTemplate.update("INSERT INTO region (nombre) VALUES (?)", region);
+        }
+        jdbcTemplate.update("INSERT INTO rol (nombre) VALUES ('Usuario'), ('Administrador')");
+        jdbcTemplate.update("INSERT INTO estado (nombre) VALUES ('Activo'), ('Inactivo')");
+
+        String clave = passwordEncoder.encode(DatosCarga.CLAVE);
+        String respuesta1 = passwordEncoder.encode(DatosCarga.RESPUESTA1);
+        String respuesta2 = passwordEncoder.encode(DatosCarga.RESPUESTA2);
+
+        Faker faker = new Faker(Locale.forLanguageTag("es"), new Random(42));
+        Random random = new Random(42);
+        List<Object[]> lote = new ArrayList<>(TAMANO_LOTE);
+        for (int n = 1; n <= total; n++) {
+            lote.add(new Object[]{
+                    faker.name().fullName(), DatosCarga.correo(n), clave,
+                    random.nextInt(200),
+                    BigDecimal.valueOf(random.nextDouble() * 2_000).setScale(2, RoundingMode.HALF_UP),
+                    "¿Color favorito?", respuesta1, "¿Comida favorita?", respuesta2,
+                    1, 1 + random.nextInt(REGIONES.size()), 1});
+            if (lote.size() == TAMANO_LOTE || n == total) {
+                jdbcTemplate.batchUpdate(SQL_USUARIO, lote);
+                lote.clear();
+            }
+        }
+        log.info("Sembrados {} usuarios en {} ms", total, (System.nanoTime() - inicio) / 1_000_000);
+    }
+}
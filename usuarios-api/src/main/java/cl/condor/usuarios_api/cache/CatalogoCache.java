@@ -0,0 +1,59 @@
+package cl.condor.usuarios_api.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Mantiene el {@link CatalogoSnapshot} vigente de un catálogo.
+ * La carga es perezosa (o explícita al arrancar) y se rehace completa después
+ * de cada escritura confirmada; las lecturas no tocan la BD.
+ */
+public class CatalogoCache<T> {
+
+    private final Supplier<List<T>> cargador;
+    private final ToIntFunction<T> id;
+    private final Function<List<T>, byte[]> serializador;
+    private final AtomicLong versiones = new AtomicLong();
+
+    private volatile CatalogoSnapshot<T> snapshot;
+
+    public CatalogoCache(Supplier<List<T>> cargador, ToIntFunction<T> id, Function<List<T>, byte[]> serializador) {
+        this.cargador = cargador;
+        this.id = id;
+        this.serializador = serializador;
+    }
+
+    public CatalogoSnapshot<T> snapshot() {
+        CatalogoSnapshot<T> actual = snapshot;
+        return actual != null ? actual : recargar();
+    }
+
+    public CatalogoSnapshot<T> recargar() {
+        CatalogoSnapshot<T> nuevo = CatalogoSnapshot.de(cargador.get(), id, versiones.incrementAndGet(), serializador);
+        snapshot = nuevo;
+        return nuevo;
+    }
+
+    /**
+     * Recarga cuando la transacción actual haga commit (si hay rollback el
+     * snapshot no cambia). Fuera de una transacción recarga de inmediato.
+     */
+    public void recargarTrasCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recargar();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recargar();
+            }
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package cl.condor.usuarios_api.cache;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Copia inmutable de un catálogo (regiones, roles, estados) indexada por id.
+ *
+ * Los ids se guardan en un int[] ordenado y la búsqueda es binaria, sin
+ * boxing ni HashMap. La instancia nunca se modifica: al cambiar el catálogo
+ * se construye una nueva y se reemplaza la referencia (copy-on-write), así
+ * las lecturas concurrentes no necesitan sincronización.
+ *
+ * Cada versión guarda además el JSON ya serializado y su ETag, para que los
+ * GET del catálogo no vuelvan a serializar la misma lista en cada petición.
+ */
+public final class CatalogoSnapshot<T> {
+
+    private final int[] ids;
+    private final List<T> elementos;
+    private final long version;
+    private final byte[] json;
+    private final String etag;
+    private final Instant modificado;
+
+    private CatalogoSnapshot(int[] ids, List<T> elementos, long version, byte[] json, Instant modificado) {
+        this.ids = ids;
+        this.elementos = elementos;
+        this.version = version;
+        this.json = json;
+        this.etag = calcularEtag(json);
+        this.modificado = modificado;
+    }
+
+    /**
+     * @param serializador convierte la lista ordenada a JSON; se invoca una sola vez por versión
+     */
+    public static <T> CatalogoSnapshot<T> de(List<T> fuente, ToIntFunction<T> id, long version,
+                                             Function<List<T>, byte[]> serializador) {
+        List<T> ordenados = fuente.stream()
+                .sorted(Comparator.comparingInt(id))
+                .toList();
+        int[] ids = new int[ordenados.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = id.applyAsInt(ordenados.get(i));
+        }
+        return new CatalogoSnapshot<>(ids, ordenados, version, serializador.apply(ordenados), Instant.now());
+    }
+
+    // ETag fuerte a partir del contenido: igual entre reinicios e instancias mientras el catálogo no cambie
+    private static String calcularEtag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Lista inmutable, ordenada por id. */
+    public List<T> todos() {
+        return elementos;
+    }
+
+    /** null si no existe. */
+    public T buscar(Integer id) {
+        if (id == null) return null;
+        int pos = Arrays.binarySearch(ids, id);
+        return pos >= 0 ? elementos.get(pos) : null;
+    }
+
+    public boolean contiene(Integer id) {
+        return id != null && Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /** Se incrementa con cada recarga del catálogo. */
+    public long getVersion() {
+        return version;
+    }
+
+    /** JSON de {@link #todos()}; no modificar el arreglo. */
+    public byte[] getJson() {
+        return json;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public Instant getModificado() {
+        return modificado;
+    }
+}
@@ -0,0 +1,85 @@
+package cl.condor.usuarios_api.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sobre cadenas: "no está" es seguro, "puede estar" admite
+ * falsos positivos con la probabilidad elegida al dimensionarlo. No admite
+ * borrados. Seguro para escrituras y lecturas concurrentes (los bits solo se encienden).
+ */
+final class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long totalBits;
+    private final int funciones;
+
+    private FiltroBloom(long totalBits, int funciones) {
+        this.totalBits = totalBits;
+        this.funciones = funciones;
+        this.bits = new AtomicLongArray((int) ((totalBits + 63) / 64));
+    }
+
+    /**
+     * m = -n·ln(p) / ln(2)², k = (m/n)·ln(2). Con p = 1% son ~9,6 bits y 7 funciones
+     * por elemento: un millón de correos ocupa ~1,2 MB.
+     */
+    static FiltroBloom para(long elementos, double probabilidadFalsoPositivo) {
+        long n = Math.max(elementos, 1);
+        long m = (long) Math.ceil(-n * Math.log(probabilidadFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        m = Math.max(64, Math.min(m, Integer.MAX_VALUE));
+        int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        return new FiltroBloom(m, k);
+    }
+
+    void agregar(String valor) {
+        long h = hash(valor);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 1; i <= funciones; i++) {
+            long bit = indice(h1 + i * h2);
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long actual;
+            while (((actual = bits.get(palabra)) & mascara) == 0
+                    && !bits.compareAndSet(palabra, actual, actual | mascara)) {
+                // otro hilo cambió la palabra: reintentar
+            }
+        }
+    }
+
+    boolean puedeContener(String valor) {
+        long h = hash(valor);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 1; i <= funciones; i++) {
+            long bit = indice(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    long tamanoBytes() {
+        return (long) bits.length() * Long.BYTES;
+    }
+
+    // Doble hashing (Kirsch-Mitzenmacher): k posiciones a partir de dos hashes de 32 bits
+    private long indice(int combinado) {
+        return (combinado & 0x7fffffffL) % totalBits;
+    }
+
+    // FNV-1a de 64 bits sobre UTF-8 con el mezclador final de MurmurHash3
+    private static long hash(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : valor.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
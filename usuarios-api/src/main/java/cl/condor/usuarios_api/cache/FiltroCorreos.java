@@ -0,0 +1,275 @@
+package cl.condor.usuarios_api.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché negativa de correos: un filtro de Bloom con los correos (normalizados)
+ * registrados. Si el filtro dice que un correo no está, es seguro que no existe y
+ * login, /preguntas y /buscar responden sin consultar la BD; es lo que ocurre con
+ * los bots que prueban listas de correos ajenos.
+ *
+ * Se construye al arrancar en segundo plano (mientras tanto todo pasa a la BD).
+ * Los correos nuevos de esta instancia se agregan antes de escribirlos. En cada refresco
+ * se incorpora lo hecho por otras instancias:
+ *
+ * - Altas: filas con id mayor al último conocido menos solapamiento-ids. Un id se asigna
+ *   al insertar, no al hacer commit: un lote de 500 filas (RegistroMasivoService) u otra
+ *   instancia puede confirmar ids menores a otros que ya se leyeron.
+ * - Cambios de correo: filas con correo_cambiado (reloj de la BD) posterior a la última
+ *   marca leída menos 'solapamiento', por el mismo motivo.
+ *
+ * Una transacción que tarde más que los solapamientos en confirmar se ve recién en la
+ * reconstrucción completa (reconstruir-cada), que además limpia los correos que ya no existen.
+ */
+@Slf4j
+@Component
+public class FiltroCorreos {
+
+    // Lectura por páginas de la PK: consultas cortas y memoria acotada sin importar el tamaño de la tabla
+    static final String SQL_PAGINA = "SELECT id_usuario, correo FROM usuario WHERE id_usuario > ? ORDER BY id_usuario LIMIT ?";
+    static final String SQL_CONTAR = "SELECT COUNT(*) FROM usuario";
+    // Keyset por (correo_cambiado, id_usuario): varias filas pueden compartir la marca
+    static final String SQL_CAMBIOS = """
+            SELECT id_usuario, correo, correo_cambiado FROM usuario
+            WHERE (correo_cambiado, id_usuario) > (?, ?)
+            ORDER BY correo_cambiado, id_usuario LIMIT ?
+            """;
+    static final String SQL_MARCA = "SELECT MAX(correo_cambiado) FROM usuario";
+    // Marca inicial cuando ningún correo ha cambiado aún (NULL en toda la tabla)
+    static final Timestamp SIN_MARCA = Timestamp.valueOf("1970-01-02 00:00:00");
+    static final int TAMANO_PAGINA = 10_000;
+
+    // Los correos agregados en esta ventana antes de una reconstrucción se vuelven a
+    // aplicar al filtro nuevo: cubre escrituras que aún no habían hecho commit al leer la tabla
+    private static final long VENTANA_RECIENTES_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    record Fila(int id, String correo) {}
+
+    record Cambio(int id, String correo, Timestamp cambiado) {}
+
+    private record Reciente(String correo, long nanos) {}
+
+    private static final RowMapper<Fila> MAPEO_FILA = (rs, n) -> new Fila(rs.getInt(1), rs.getString(2));
+    private static final RowMapper<Cambio> MAPEO_CAMBIO = (rs, n) ->
+            new Cambio(rs.getInt(1), rs.getString(2), rs.getTimestamp(3));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean habilitado;
+    private final long capacidadMinima;
+    private final double probabilidadFalsoPositivo;
+    private final Duration reconstruirCada;
+    private final Duration refresco;
+    private final int solapamientoIds;
+    private final Duration solapamiento;
+    private final Counter descartes;
+    private final ConcurrentLinkedDeque<Reciente> recientes = new ConcurrentLinkedDeque<>();
+    private final ScheduledExecutorService scheduler;
+
+    // null hasta la primera construcción: mientras tanto puedeExistir() responde siempre true
+    private volatile FiltroBloom filtro;
+    private volatile boolean reconstruyendo;
+    private volatile long inicioReconstruccion;
+    // Solo los escribe el hilo del scheduler (construcción y refrescos)
+    private volatile int ultimoIdConocido;
+    private volatile Timestamp ultimaMarca;
+
+    @Autowired
+    public FiltroCorreos(JdbcTemplate jdbcTemplate,
+                         @Value("${usuarios.filtro-correos.habilitado:true}") boolean habilitado,
+                         @Value("${usuarios.filtro-correos.capacidad:1000000}") long capacidadMinima,
+                         @Value("${usuarios.filtro-correos.probabilidad-falso-positivo:0.01}") double probabilidadFalsoPositivo,
+                         @Value("${usuarios.filtro-correos.reconstruir-cada:1h}") Duration reconstruirCada,
+                         @Value("${usuarios.filtro-correos.refresco:5s}") Duration refresco,
+                         @Value("${usuarios.filtro-correos.solapamiento-ids:5000}") int solapamientoIds,
+                         @Value("${usuarios.filtro-correos.solapamiento:2m}") Duration solapamiento,
+                         MeterRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.habilitado = habilitado;
+        this.capacidadMinima = capacidadMinima;
+        this.probabilidadFalsoPositivo = probabilidadFalsoPositivo;
+        this.reconstruirCada = reconstruirCada;
+        this.refresco = refresco;
+        this.solapamientoIds = solapamientoIds;
+        this.solapamiento = solapamiento;
+
+        this.descartes = Counter.builder("usuarios.filtro-correos.descartes")
+                .description("Búsquedas por correo resueltas como inexistentes sin ir a la BD")
+                .register(registry);
+        Gauge.builder("usuarios.filtro-correos.bytes", this, f -> f.filtro != null ? f.filtro.tamanoBytes() : 0)
+                .description("Memoria ocupada por el filtro de correos")
+                .register(registry);
+
+        this.scheduler = habilitado ? Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "filtro-correos");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!habilitado) return;
+        scheduler.execute(this::reconstruirSeguro);
+        long cadaMs = reconstruirCada.toMillis();
+        if (cadaMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::reconstruirSeguro, cadaMs, cadaMs, TimeUnit.MILLISECONDS);
+        }
+        long refrescoMs = refresco.toMillis();
+        if (refrescoMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::refrescarSeguro, refrescoMs, refrescoMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    /**
+     * false solo si es seguro que el correo (ya normalizado) no está registrado.
+     * true si puede existir y hay que confirmarlo en la BD.
+     */
+    public boolean puedeExistir(String correo) {
+        FiltroBloom actual = filtro;
+        if (actual == null || correo == null || actual.puedeContener(correo)) return true;
+        descartes.increment();
+        return false;
+    }
+
+    /** Registra un correo (normalizado) antes de escribirlo en la BD. */
+    public void agregar(String correo) {
+        if (!habilitado || correo == null) return;
+        long ahora = System.nanoTime();
+        // Primero en recientes y después en el filtro: así una reconstrucción en curso no lo pierde
+        recientes.addLast(new Reciente(correo, ahora));
+        FiltroBloom actual = filtro;
+        if (actual != null) actual.agregar(correo);
+        podarRecientes(ahora);
+    }
+
+    private void reconstruirSeguro() {
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            // Se conserva el filtro anterior (o ninguno, y todo sigue yendo a la BD)
+            log.warn("No se pudo construir el filtro de correos: {}", e.getMessage());
+        }
+    }
+
+    private void refrescarSeguro() {
+        try {
+            refrescar();
+        } catch (RuntimeException e) {
+            log.debug("Refresco del filtro de correos fallido, se reintentará: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Agrega al filtro vigente las altas (releyendo los últimos solapamiento-ids ids) y
+     * los correos cambiados desde la última marca menos el solapamiento.
+     */
+    void refrescar() {
+        FiltroBloom actual = filtro;
+        if (actual == null) return;
+        int conocido = ultimoIdConocido;
+        ultimoIdConocido = Math.max(conocido, leerDesde(Math.max(0, conocido - solapamientoIds), actual));
+        ultimaMarca = leerCambios(ultimaMarca, actual);
+    }
+
+    void reconstruir() {
+        long inicio = System.nanoTime();
+        inicioReconstruccion = inicio;
+        reconstruyendo = true;
+        try {
+            // Antes de leer la tabla: los cambios posteriores los toma el próximo refresco
+            Timestamp marca = jdbcTemplate.queryForObject(SQL_MARCA, Timestamp.class);
+            Long total = jdbcTemplate.queryForObject(SQL_CONTAR, Long.class);
+            // Holgura x2 para que las altas hasta la próxima reconstrucción no degraden el filtro
+            FiltroBloom nuevo = FiltroBloom.para(Math.max(capacidadMinima, 2 * (total == null ? 0 : total)),
+                    probabilidadFalsoPositivo);
+
+            int ultimoId = leerDesde(0, nuevo);
+
+            // Antes y después del cambio: lo agregado entre ambos momentos fue al filtro anterior
+            aplicarRecientes(nuevo, inicio);
+            filtro = nuevo;
+            ultimoIdConocido = ultimoId;
+            ultimaMarca = marca;
+            aplicarRecientes(nuevo, inicio);
+
+            log.info("Filtro de correos construido: {} correos, {} KB, {} ms",
+                    total, nuevo.tamanoBytes() / 1024, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        } finally {
+            reconstruyendo = false;
+        }
+    }
+
+    // Recorre por páginas las filas con id > desde; devuelve el último id leído
+    private int leerDesde(int desde, FiltroBloom destino) {
+        int ultimoId = desde;
+        List<Fila> pagina;
+        do {
+            pagina = jdbcTemplate.query(SQL_PAGINA, MAPEO_FILA, ultimoId, TAMANO_PAGINA);
+            for (Fila fila : pagina) {
+                if (fila.correo() != null) destino.agregar(fila.correo());
+                ultimoId = fila.id();
+            }
+        } while (pagina.size() == TAMANO_PAGINA);
+        return ultimoId;
+    }
+
+    // Recorre por páginas los cambios de correo desde marca - solapamiento; devuelve la marca más alta vista
+    private Timestamp leerCambios(Timestamp marca, FiltroBloom destino) {
+        Timestamp desde = marca == null ? SIN_MARCA : Timestamp.from(marca.toInstant().minus(solapamiento));
+        Timestamp maxima = marca;
+        int desdeId = 0;
+        List<Cambio> pagina;
+        do {
+            pagina = jdbcTemplate.query(SQL_CAMBIOS, MAPEO_CAMBIO, desde, desdeId, TAMANO_PAGINA);
+            for (Cambio cambio : pagina) {
+                if (cambio.correo() != null) destino.agregar(cambio.correo());
+                desde = cambio.cambiado();
+                desdeId = cambio.id();
+                if (maxima == null || cambio.cambiado().after(maxima)) maxima = cambio.cambiado();
+            }
+        } while (pagina.size() == TAMANO_PAGINA);
+        return maxima;
+    }
+
+    private void aplicarRecientes(FiltroBloom destino, long inicio) {
+        long desde = inicio - VENTANA_RECIENTES_NANOS;
+        for (Reciente r : recientes) {
+            if (r.nanos() - desde >= 0) destino.agregar(r.correo());
+        }
+    }
+
+    private void podarRecientes(long ahora) {
+        // Durante una reconstrucción se conserva todo lo posterior a su inicio menos la ventana
+        long referencia = reconstruyendo && inicioReconstruccion - ahora < 0 ? inicioReconstruccion : ahora;
+        long limite = referencia - VENTANA_RECIENTES_NANOS;
+        Reciente primero;
+        while ((primero = recientes.peekFirst()) != null && primero.nanos() - limite < 0) {
+            // Por identidad de valor y no pollFirst(): otro hilo pudo haberlo quitado ya
+            recientes.removeFirstOccurrence(primero);
+        }
+    }
+}
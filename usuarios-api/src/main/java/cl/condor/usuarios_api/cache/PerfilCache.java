@@ -0,0 +1,132 @@
+package cl.condor.usuarios_api.cache;
+
+import cl.condor.usuarios_api.dto.UsuarioDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caché en memoria de perfiles ({@link UsuarioDTO}) para GET /{id} y GET /buscar.
+ *
+ * Los perfiles se guardan por id; el correo es un índice aparte (correo → id) que
+ * se comprueba contra el correo del perfil, así un cambio de correo nunca devuelve
+ * el perfil por la dirección antigua. Tamaño máximo y TTL acotan la memoria y el
+ * tiempo que un dato puede quedar desactualizado si otra instancia lo modifica.
+ *
+ * Las escrituras de este servicio invalidan el id al momento y de nuevo tras el
+ * commit. Una carga que empezó antes de una invalidación de ese mismo id no se
+ * guarda, para no reinstalar el valor anterior: cada invalidación deja en
+ * 'invalidaciones' un número de secuencia para su id, y la carga compara contra
+ * el número vigente al empezar. Invalidar un id no afecta las cargas de los demás.
+ */
+@Component
+public class PerfilCache {
+
+    private final Cache<Integer, UsuarioDTO> porId;
+    private final Cache<String, Integer> idPorCorreo;
+    // id → secuencia de su última invalidación. Basta recordarla mientras una carga
+    // iniciada antes pueda seguir en curso; después de un TTL ya no importa
+    private final Cache<Integer, Long> invalidaciones;
+    private final AtomicLong secuencia = new AtomicLong();
+
+    @Autowired
+    public PerfilCache(@Value("${usuarios.perfiles.cache.max-size:10000}") long maxSize,
+                       @Value("${usuarios.perfiles.cache.ttl:5m}") Duration ttl,
+                       MeterRegistry registry) {
+        this.porId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idPorCorreo = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.invalidaciones = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size... a través del actuator
+        CaffeineCacheMetrics.monitor(registry, porId, "usuarios.perfiles");
+        CaffeineCacheMetrics.monitor(registry, idPorCorreo, "usuarios.perfiles.correo");
+    }
+
+    /** Perfil por id; si no está se carga con {@code cargar} (que devuelve null si no existe). */
+    public UsuarioDTO porId(Integer id, Function<Integer, UsuarioDTO> cargar) {
+        UsuarioDTO perfil = porId.getIfPresent(id);
+        if (perfil != null) return perfil;
+
+        long antes = secuencia.get();
+        perfil = cargar.apply(id);
+        guardar(perfil, null, antes);
+        return perfil;
+    }
+
+    /** Perfil por correo ya normalizado; mismo contrato que {@link #porId}. */
+    public UsuarioDTO porCorreo(String correo, Function<String, UsuarioDTO> cargar) {
+        Integer id = idPorCorreo.getIfPresent(correo);
+        if (id != null) {
+            UsuarioDTO perfil = porId.getIfPresent(id);
+            if (perfil != null && correo.equals(perfil.getCorreo())) return perfil;
+            idPorCorreo.invalidate(correo);
+        }
+
+        long antes = secuencia.get();
+        UsuarioDTO perfil = cargar.apply(correo);
+        guardar(perfil, correo, antes);
+        return perfil;
+    }
+
+    // compute bloquea solo esta clave: la comprobación y el put no se intercalan con invalidarAhora(id)
+    private void guardar(UsuarioDTO perfil, String correo, long antes) {
+        if (perfil == null) return;
+        Integer id = perfil.getId();
+        boolean[] guardado = new boolean[1];
+        porId.asMap().compute(id, (k, actual) -> {
+            Long invalidado = invalidaciones.getIfPresent(k);
+            if (invalidado != null && invalidado > antes) return actual;
+            guardado[0] = true;
+            return perfil;
+        });
+        if (guardado[0] && correo != null) idPorCorreo.put(correo, id);
+    }
+
+    /**
+     * Invalida el perfil ahora y otra vez cuando la transacción actual haga commit,
+     * para que una lectura entre ambos momentos no deje en caché el dato anterior.
+     */
+    public void invalidar(Integer id) {
+        invalidarAhora(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidarAhora(id);
+                }
+            });
+        }
+    }
+
+    public void invalidarTodos(Collection<Integer> ids) {
+        ids.forEach(this::invalidarAhora);
+    }
+
+    // La entrada del índice por correo queda huérfana y se descarta en la próxima búsqueda
+    private void invalidarAhora(Integer id) {
+        porId.asMap().compute(id, (k, actual) -> {
+            invalidaciones.put(k, secuencia.incrementAndGet());
+            return null;
+        });
+    }
+}
@@ -0,0 +1,66 @@
+package cl.condor.usuarios_api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Modo calibración (usuarios.password.calibrar=true): al arrancar mide cuánto tarda
+ * BCrypt en este host para cada coste y reporta el mayor coste que no supera la
+ * latencia objetivo. El valor sugerido se configura en usuarios.password.bcrypt-cost.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "usuarios.password.calibrar", havingValue = "true")
+public class CalibracionPasswordRunner implements ApplicationRunner {
+
+    private static final int COSTE_MINIMO = 4;
+    private static final int COSTE_MAXIMO = 16;
+    private static final int MUESTRAS = 3;
+
+    @Value("${usuarios.password.calibracion.objetivo-ms:100}")
+    private long objetivoMs = 100;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int sugerido = calibrar();
+        log.info("Calibración BCrypt: coste sugerido {} para un objetivo de {} ms (usuarios.password.bcrypt-cost={})",
+                sugerido, objetivoMs, sugerido);
+    }
+
+    /**
+     * Recorre los costes de menor a mayor (cada uno duplica el tiempo) y se detiene
+     * en el primero que supera el objetivo.
+     */
+    public int calibrar() {
+        int sugerido = COSTE_MINIMO;
+        for (int coste = COSTE_MINIMO; coste <= COSTE_MAXIMO; coste++) {
+            long medianaMs = medirMedianaMs(coste);
+            log.info("BCrypt coste {}: {} ms", coste, medianaMs);
+            if (medianaMs > objetivoMs) {
+                break;
+            }
+            sugerido = coste;
+        }
+        return sugerido;
+    }
+
+    private static long medirMedianaMs(int coste) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(coste);
+        String hash = encoder.encode("calibracion");
+        long[] tiempos = new long[MUESTRAS];
+        for (int i = 0; i < MUESTRAS; i++) {
+            long inicio = System.nanoTime();
+            encoder.matches("calibracion", hash);
+            tiempos[i] = (System.nanoTime() - inicio) / 1_000_000;
+        }
+        Arrays.sort(tiempos);
+        return tiempos[MUESTRAS / 2];
+    }
+}
@@ -0,0 +1,47 @@
+package cl.condor.usuarios_api.config;
+
+import cl.condor.usuarios_api.service.GeneradorUsuarios;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Perfil "generador": llena la BD con usuarios sintéticos y termina el proceso.
+ *
+ *   java -jar usuarios-api-exec.jar --spring.profiles.active=generador --usuarios.generador.cantidad=1000000
+ *
+ * Ver application-generador.properties para hilos, tamaño de lote y fotos.
+ */
+@Slf4j
+@Component
+@Profile("generador")
+public class GeneradorUsuariosRunner implements ApplicationRunner {
+
+    @Autowired
+    private GeneradorUsuarios generadorUsuarios;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Value("${usuarios.generador.cantidad:100000}")
+    private int cantidad = 100000;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int codigo = 0;
+        try {
+            generadorUsuarios.generar(cantidad);
+        } catch (RuntimeException e) {
+            log.error("No se pudo generar el set de datos", e);
+            codigo = 1;
+        }
+        int salida = codigo;
+        System.exit(SpringApplication.exit(context, () -> salida));
+    }
+}
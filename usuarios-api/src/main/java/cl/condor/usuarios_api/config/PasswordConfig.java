@@ -1,10 +1,16 @@
 package cl.condor.usuarios_api.config;
 
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
 
 
 // marca la clase como de tipo configuracion
@@ -13,8 +19,20 @@ public class PasswordConfig {
     // define un bean para que spring lo maneje
     @Bean
     // función de tipo bean para manejarla en cualquier lugar
-    // que retorne un codificador de contraseñas con BCrypt (coste 12)
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    // que retorne un codificador de contraseñas "delegante": los hashes nuevos llevan
+    // el prefijo {id} del algoritmo (por defecto {bcrypt} con el coste configurado)
+    // y los hashes antiguos sin prefijo se siguen verificando como BCrypt.
+    // Cambiar el id o el coste no obliga a resetear contraseñas: se re-hashean en el login.
+    public PasswordEncoder passwordEncoder(@Value("${usuarios.password.encoder-id:bcrypt}") String idParaCodificar,
+                                           @Value("${usuarios.password.bcrypt-cost:12}") int costeBcrypt) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(costeBcrypt);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(idParaCodificar, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegating;
     }
 }
@@ -0,0 +1,93 @@
+package cl.condor.usuarios_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Al arrancar compara el pool de Hikari con cuántas peticiones pueden estar en curso
+ * (usuarios.concurrencia.max-peticiones o, sin tope, los hilos de Tomcat) y avisa si
+ * el pool queda corto: las peticiones sobrantes esperarían una conexión hasta el
+ * connection-timeout. Una petición no ocupa conexión todo el tiempo (caché de perfiles,
+ * BCrypt, escritura de la respuesta); usuarios.pool.peticiones-por-conexion ajusta
+ * cuántas se admiten por conexión. Solo avisa, no impide el arranque.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication
+public class ValidadorPoolConexiones {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${usuarios.concurrencia.max-peticiones:0}")
+    private int maxPeticiones = 0;
+
+    @Value("${server.tomcat.threads.max:200}")
+    private int hilosTomcat = 200;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean hilosVirtuales = false;
+
+    @Value("${usuarios.pool.peticiones-por-conexion:1}")
+    private double peticionesPorConexion = 1;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void validar() {
+        Integer pool = tamanoPool();
+        if (pool == null) {
+            log.debug("El DataSource no es Hikari: no se valida el tamaño del pool");
+            return;
+        }
+        String aviso = validar(pool);
+        if (aviso != null) {
+            log.warn(aviso);
+        } else {
+            log.info("Pool de conexiones: {} para hasta {} peticiones en curso", pool, concurrencia());
+        }
+    }
+
+    /** Mensaje de advertencia, o null si el pool alcanza para la concurrencia configurada. */
+    String validar(int pool) {
+        Integer concurrencia = concurrencia();
+        if (concurrencia == null) {
+            return "Hilos virtuales sin tope de peticiones (usuarios.concurrencia.max-peticiones=0): "
+                    + "cualquier cantidad de peticiones competirá por " + pool + " conexiones";
+        }
+        if (pool * peticionesPorConexion < concurrencia) {
+            return String.format("Pool de conexiones (%d) chico para %d peticiones en curso con %s por conexión: "
+                            + "subir spring.datasource.hikari.maximum-pool-size o bajar %s",
+                    pool, concurrencia, formatear(peticionesPorConexion),
+                    maxPeticiones > 0 ? "usuarios.concurrencia.max-peticiones" : "server.tomcat.threads.max");
+        }
+        return null;
+    }
+
+    // null = sin tope (hilos virtuales sin max-peticiones)
+    private Integer concurrencia() {
+        if (maxPeticiones > 0) return maxPeticiones;
+        return hilosVirtuales ? null : hilosTomcat;
+    }
+
+    private Integer tamanoPool() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize()
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static String formatear(double valor) {
+        return valor == Math.rint(valor) ? String.valueOf((long) valor) : String.valueOf(valor);
+    }
+}
@@ -0,0 +1,55 @@
+package cl.condor.usuarios_api.controller;
+
+import cl.condor.usuarios_api.cache.CatalogoSnapshot;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+/**
+ * Utilidades de peticiones condicionales (If-None-Match) compartidas por los controladores.
+ */
+final class CacheHttp {
+
+    private CacheHttp() {
+    }
+
+    /**
+     * Comparación de If-None-Match según RFC 9110: acepta listas separadas por
+     * coma, el comodín "*" y etiquetas débiles (W/).
+     */
+    static boolean etagCoincide(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) valor = valor.substring(2);
+            if (valor.equals("*") || valor.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * GET de un catálogo: 204 si está vacío, 304 si el cliente ya tiene la versión
+     * vigente, o 200 con el JSON ya serializado. Cache-Control public permite que
+     * una CDN también lo guarde.
+     */
+    static ResponseEntity<byte[]> catalogo(CatalogoSnapshot<?> snapshot, String ifNoneMatch, Duration maxAge) {
+        if (snapshot.size() == 0) return ResponseEntity.noContent().build();
+
+        CacheControl cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+        if (etagCoincide(ifNoneMatch, snapshot.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.getEtag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .lastModified(snapshot.getModificado())
+                .cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.getJson());
+    }
+}
@@ -3,12 +3,18 @@ package cl.condor.usuarios_api.controller;
 import cl.condor.usuarios_api.model.Estado;
 import cl.condor.usuarios_api.service.EstadoService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.Duration;
 
 @Tag(
         name = "Estados",
@@ -26,15 +32,22 @@ public class EstadoController {
     @Autowired
     private EstadoService estadoService;
 
+    @Value("${usuarios.catalogos.max-age:1h}")
+    private Duration maxAge;
+
     @Operation(
             summary = "Listar todos los estados",
-            description = "Obtiene la lista completa de estados disponibles. Si no hay registros, devuelve HTTP 204 No Content."
+            description = """
+                Obtiene la lista completa de estados disponibles. Si no hay registros, devuelve HTTP 204 No Content.
+                La respuesta incluye ETag y Cache-Control: con If-None-Match devuelve HTTP 304 si el catálogo no cambió.
+                """
     )
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = Estado.class))))
     @GetMapping
-    public ResponseEntity<List<Estado>> getAll() {
-        List<Estado> lista = estadoService.findAll();
-        if (lista.isEmpty()) return ResponseEntity.noContent().build();
-        return ResponseEntity.ok(lista);
+    public ResponseEntity<byte[]> getAll(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return CacheHttp.catalogo(estadoService.snapshot(), ifNoneMatch, maxAge);
     }
 
     @Operation(
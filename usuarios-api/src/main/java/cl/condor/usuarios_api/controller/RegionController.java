@@ -3,12 +3,18 @@ package cl.condor.usuarios_api.controller;
 import cl.condor.usuarios_api.model.Region;
 import cl.condor.usuarios_api.service.RegionService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.Duration;
 
 @Tag(
         name = "Regiones",
@@ -26,15 +32,22 @@ public class RegionController {
     @Autowired
     private RegionService regionService;
 
+    @Value("${usuarios.catalogos.max-age:1h}")
+    private Duration maxAge;
+
     @Operation(
             summary = "Listar todas las regiones",
-            description = "Devuelve la lista completa de regiones disponibles. Si no existen registros, devuelve HTTP 204 No Content."
+            description = """
+                Devuelve la lista completa de regiones disponibles. Si no existen registros, devuelve HTTP 204 No Content.
+                La respuesta incluye ETag y Cache-Control: con If-None-Match devuelve HTTP 304 si el catálogo no cambió.
+                """
     )
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = Region.class))))
     @GetMapping
-    public ResponseEntity<List<Region>> getAll() {
-        List<Region> lista = regionService.findAll();
-        if (lista.isEmpty()) return ResponseEntity.noContent().build();
-        return ResponseEntity.ok(lista);
+    public ResponseEntity<byte[]> getAll(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return CacheHttp.catalogo(regionService.snapshot(), ifNoneMatch, maxAge);
     }
 
     @Operation(
@@ -1,19 +1,43 @@
 package cl.condor.usuarios_api.controller;
 
+import cl.condor.usuarios_api.dto.FotoProcesada;
 import cl.condor.usuarios_api.dto.LoginDTO;
+import cl.condor.usuarios_api.dto.LookupDTO;
+import cl.condor.usuarios_api.dto.LookupResultadoDTO;
+import cl.condor.usuarios_api.dto.PaginaUsuariosDTO;
 import cl.condor.usuarios_api.dto.PreguntasResponseDTO; // IMPORTANTE: DTO Nuevo
 import cl.condor.usuarios_api.dto.RecuperacionDTO;      // IMPORTANTE: DTO Nuevo
+import cl.condor.usuarios_api.dto.RefreshDTO;
+import cl.condor.usuarios_api.dto.TokenDTO;
 import cl.condor.usuarios_api.dto.UsuarioDTO;
+import cl.condor.usuarios_api.exception.DemasiadosIntentosException;
+import cl.condor.usuarios_api.exception.ServicioSaturadoException;
+import cl.condor.usuarios_api.model.FotoPerfil;
 import cl.condor.usuarios_api.model.Usuario;
+import cl.condor.usuarios_api.security.LimitadorIntentos;
+import cl.condor.usuarios_api.service.FotoPerfilService;
+import cl.condor.usuarios_api.service.ProcesadorFotos;
+import cl.condor.usuarios_api.service.RegistroMasivoService;
 import cl.condor.usuarios_api.service.UsuarioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Tag(
         name = "Usuarios",
@@ -29,25 +53,44 @@ public class UsuarioController {
     @Autowired
     private UsuarioService usuarioService;
 
+    @Autowired
+    private RegistroMasivoService registroMasivoService;
+
+    @Autowired
+    private FotoPerfilService fotoPerfilService;
+
+    @Autowired
+    private ProcesadorFotos procesadorFotos;
+
+    @Autowired
+    private LimitadorIntentos limitadorIntentos;
+
     // ==================================================================
     //  ENDPOINTS EXISTENTES (GET, POST, PATCH) - SE MANTIENEN IGUAL
     // ==================================================================
 
-    @Operation(summary = "Listar todos los usuarios")
+    @Operation(
+            summary = "Listar usuarios (paginado por cursor)",
+            description = """
+                Devuelve una página de usuarios ordenada por ID, sin foto ni datos de seguridad.
+                Para la siguiente página se envía como 'cursor' el valor 'next' de la respuesta.
+                'size' es opcional (por defecto 50, máximo 200).
+                Si no hay registros desde el cursor, devuelve HTTP 204 No Content.
+                """
+    )
     @GetMapping
-    public ResponseEntity<List<Usuario>> getAll() {
-        List<Usuario> lista = usuarioService.findAll();
-        if (lista.isEmpty()) return ResponseEntity.noContent().build();
-        return ResponseEntity.ok(lista);
+    public ResponseEntity<PaginaUsuariosDTO> getAll(@RequestParam(required = false) Integer cursor,
+                                                    @RequestParam(required = false) Integer size) {
+        PaginaUsuariosDTO pagina = usuarioService.findPagina(cursor, size);
+        if (pagina.getUsuarios().isEmpty()) return ResponseEntity.noContent().build();
+        return ResponseEntity.ok(pagina);
     }
 
     @Operation(summary = "Buscar usuario por ID")
     @GetMapping("/{id}")
     public ResponseEntity<UsuarioDTO> getById(@PathVariable Integer id) {
         try {
-            Usuario usuario = usuarioService.findById(id);
-            UsuarioDTO usuarioDTO = usuarioService.mapToDTO(usuario);
-            return ResponseEntity.ok(usuarioDTO);
+            return ResponseEntity.ok(usuarioService.findPerfilById(id));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -57,16 +100,31 @@ public class UsuarioController {
     @GetMapping("/buscar")
     public ResponseEntity<UsuarioDTO> getByCorreo(@RequestParam String correo) {
         try {
-            Usuario usuario = usuarioService.findByCorreo(correo); 
-            if (usuario == null) return ResponseEntity.notFound().build();
-            
-            UsuarioDTO usuarioDTO = usuarioService.mapToDTO(usuario);
-            return ResponseEntity.ok(usuarioDTO);
+            return ResponseEntity.ok(usuarioService.findPerfilByCorreo(correo));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @Operation(
+            summary = "Buscar varios usuarios por ID y/o correo",
+            description = """
+                Pensado para otros microservicios (rankings, salidas grupales): en vez de un GET por usuario,
+                se envían los ids y/o correos y se resuelven con una sola consulta.
+                Devuelve los usuarios encontrados indexados por id, sin foto ni datos de seguridad,
+                y la lista de ids/correos que no existen. Máximo usuarios.lookup.max-items por solicitud.
+                """
+    )
+    @PostMapping("/lookup")
+    public ResponseEntity<?> lookup(@RequestBody LookupDTO solicitud) {
+        try {
+            LookupResultadoDTO resultado = usuarioService.buscarVarios(solicitud);
+            return ResponseEntity.ok(resultado);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @Operation(
             summary = "Crear un nuevo usuario (Registro)",
             description = """
@@ -80,80 +138,284 @@ public class UsuarioController {
         try {
             Usuario saved = usuarioService.save(usuario);
             return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        } catch (ServicioSaturadoException e) {
+            return servicioSaturado(e);
         } catch (RuntimeException e) {
             // Capturamos errores de validación (ej: faltan preguntas de seguridad)
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
-    @Operation(summary = "Actualizar solo el nombre de un usuario")
+    @Operation(
+            summary = "Registro masivo de usuarios",
+            description = """
+                Recibe una lista de usuarios con los mismos campos que el registro individual
+                (máximo usuarios.registro-masivo.max-items por solicitud).
+                Responde 200 con el resultado de cada elemento: id si se creó o el motivo del rechazo.
+                Los elementos válidos se crean aunque otros fallen.
+                """
+    )
+    @PostMapping("/lote")
+    public ResponseEntity<?> createLote(@RequestBody List<Usuario> usuarios) {
+        try {
+            return ResponseEntity.ok(registroMasivoService.registrar(usuarios));
+        } catch (ServicioSaturadoException e) {
+            return servicioSaturado(e);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @Operation(
+            summary = "Actualizar solo el nombre de un usuario",
+            description = "Responde HTTP 204 sin cuerpo; 404 si el usuario no existe."
+    )
     @PatchMapping("/{id}/nombre")
-    public ResponseEntity<Usuario> updateNombre(@PathVariable Integer id, @RequestParam String nombre) {
+    public ResponseEntity<Void> updateNombre(@PathVariable Integer id, @RequestParam String nombre) {
         try {
-            Usuario actualizado = usuarioService.updateNombre(id, nombre);
-            return ResponseEntity.ok(actualizado);
+            usuarioService.updateNombre(id, nombre);
+            return ResponseEntity.noContent().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
-    @Operation(summary = "Actualizar solo el correo de un usuario")
+    @Operation(
+            summary = "Actualizar solo el correo de un usuario",
+            description = "Responde HTTP 204 sin cuerpo; 404 si el usuario no existe y 409 si el correo ya está registrado."
+    )
     @PatchMapping("/{id}/correo")
-    public ResponseEntity<Usuario> updateCorreo(@PathVariable Integer id, @RequestParam String correo) {
+    public ResponseEntity<Void> updateCorreo(@PathVariable Integer id, @RequestParam String correo) {
         try {
-            Usuario actualizado = usuarioService.updateCorreo(id, correo);
-            return ResponseEntity.ok(actualizado);
+            usuarioService.updateCorreo(id, correo);
+            return ResponseEntity.noContent().build();
         } catch (RuntimeException e) {
+            if ("El correo ya está registrado".equals(e.getMessage())) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
             return ResponseEntity.notFound().build();
         }
     }
 
-    @Operation(summary = "Actualizar solo la región de un usuario")
+    @Operation(
+            summary = "Actualizar solo la región de un usuario",
+            description = "Responde HTTP 204 sin cuerpo; 404 si el usuario no existe y 400 si la región no existe."
+    )
     @PatchMapping("/{id}/region")
-    public ResponseEntity<Usuario> updateRegion(@PathVariable Integer id, @RequestParam Integer idRegion) {
+    public ResponseEntity<Void> updateRegion(@PathVariable Integer id, @RequestParam Integer idRegion) {
         try {
-            Usuario actualizado = usuarioService.updateRegion(id, idRegion);
-            return ResponseEntity.ok(actualizado);
+            usuarioService.updateRegion(id, idRegion);
+            return ResponseEntity.noContent().build();
         } catch (RuntimeException e) {
-            if(e.getMessage().equals("Region no encontrado")) {
+            if ("Región no encontrada".equals(e.getMessage())) {
+                return ResponseEntity.badRequest().build();
+            }
+            if ("Usuario no encontrado".equals(e.getMessage())) {
                 return ResponseEntity.notFound().build();
             }
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @Operation(
+            summary = "Registrar rutas y kilómetros recorridos",
+            description = """
+                Suma 'rutas' y 'km' a los totales del usuario de forma atómica, sin leer el valor actual.
+                Responde 204 si quedó escrito, 202 si quedó en cola (write-behind activado),
+                404 si el usuario no existe y 400 si los incrementos son negativos o ambos cero.
+                """
+    )
+    @PostMapping("/{id}/recorridos")
+    public ResponseEntity<String> registrarRecorrido(@PathVariable Integer id,
+                                                     @RequestParam(required = false) Integer rutas,
+                                                     @RequestParam(required = false) BigDecimal km) {
+        try {
+            boolean escrito = usuarioService.registrarRecorrido(id, rutas, km);
+            return escrito ? ResponseEntity.noContent().build() : ResponseEntity.accepted().build();
+        } catch (RuntimeException e) {
+            if ("Usuario no encontrado".equals(e.getMessage())) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @Operation(
+            summary = "Fijar el total de rutas recorridas",
+            description = "Reemplaza el valor absoluto. Para sumar rutas desde varios dispositivos usar POST /{id}/recorridos."
+    )
     @PatchMapping("/{id}/rutasRecorridas")
-    public ResponseEntity<Usuario> updateRutasRecorridas(@PathVariable Integer id, @RequestParam Integer nuevasRutas) {
+    public ResponseEntity<Void> updateRutasRecorridas(@PathVariable Integer id, @RequestParam Integer nuevasRutas) {
         try {
-            Usuario actualizado = usuarioService.updateRutasRecorridas(id, nuevasRutas);
-            return ResponseEntity.ok(actualizado);
+            usuarioService.updateRutasRecorridas(id, nuevasRutas);
+            return ResponseEntity.noContent().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
-    @Operation(summary = "Login de usuario")
+    @Operation(
+            summary = "Login de usuario",
+            description = """
+                Si las credenciales son válidas devuelve un token de acceso (corta duración) y uno de refresco.
+                El token de acceso se envía como 'Authorization: Bearer ...' en las siguientes peticiones.
+                La verificación de la contraseña es asíncrona. Si el servidor está saturado responde HTTP 503 con Retry-After.
+                Si la IP o el correo superan su límite de intentos responde HTTP 429 con Retry-After.
+                """
+    )
     @PostMapping("/login")
-    public ResponseEntity<Void> login(@RequestBody LoginDTO loginDTO) {
+    public CompletableFuture<ResponseEntity<TokenDTO>> login(@RequestBody LoginDTO loginDTO, HttpServletRequest request) {
         try {
-            usuarioService.login(loginDTO);
-            return ResponseEntity.ok().build();
-        }catch (RuntimeException e) {
-            if(e.getMessage().equals("Credenciales invalidas")) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-            }
-            return  ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            limitadorIntentos.verificarLogin(request.getRemoteAddr(), loginDTO.getCorreo());
+            return usuarioService.login(loginDTO)
+                    .thenApply(ResponseEntity::ok)
+                    .exceptionally(e -> errorLogin(e instanceof CompletionException ? e.getCause() : e));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(errorLogin(e));
+        }
+    }
+
+    @Operation(
+            summary = "Renovar tokens",
+            description = "Canjea un refresh token vigente por un nuevo par de tokens, sin volver a enviar la contraseña."
+    )
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenDTO> refresh(@RequestBody RefreshDTO refreshDTO) {
+        try {
+            return ResponseEntity.ok(usuarioService.refrescarToken(refreshDTO.getRefreshToken()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    private <T> ResponseEntity<T> errorLogin(Throwable e) {
+        if (e instanceof ServicioSaturadoException saturado) {
+            return servicioSaturado(saturado);
         }
+        if (e instanceof DemasiadosIntentosException excedido) {
+            return demasiadosIntentos(excedido);
+        }
+        if ("Credenciales invalidas".equals(e.getMessage())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+
+    // 503 + Retry-After cuando el pool de BCrypt no acepta más trabajo
+    private static <T> ResponseEntity<T> servicioSaturado(ServicioSaturadoException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSegundos()))
+                .build();
+    }
+
+    // 404 si el usuario no existe (mismo mensaje que los PATCH); cualquier otro error es la foto: 400
+    private static <T> ResponseEntity<T> errorFoto(RuntimeException e) {
+        if ("Usuario no encontrado".equals(e.getMessage())) return ResponseEntity.notFound().build();
+        return ResponseEntity.badRequest().build();
+    }
+
+    // 429 + Retry-After cuando la IP o el correo superan su límite de intentos
+    private static <T> ResponseEntity<T> demasiadosIntentos(DemasiadosIntentosException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSegundos()))
+                .build();
     }
 
-    @Operation(summary = "Actualizar foto de perfil (Base64)")
+    @Operation(
+            summary = "Actualizar foto de perfil (Base64)",
+            description = "Acepta Base64 con o sin prefijo data-URI. Se decodifica en streaming, con tamaño máximo configurable."
+    )
     @PatchMapping("/{id}/foto")
-    public ResponseEntity<Usuario> updateFotoPerfil(@PathVariable Integer id, @RequestBody String fotoBase64) {
+    public ResponseEntity<UsuarioDTO> updateFotoPerfil(@PathVariable Integer id, InputStream fotoBase64) {
         try {
-            Usuario actualizado = usuarioService.updateFoto(id, fotoBase64);
+            FotoProcesada foto = procesadorFotos.procesarBase64(fotoBase64);
+            UsuarioDTO actualizado = usuarioService.updateFoto(id, foto);
             return ResponseEntity.ok(actualizado);
         } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().build(); 
+            return errorFoto(e);
+        }
+    }
+
+    @Operation(
+            summary = "Subir foto de perfil (multipart)",
+            description = "Sube la foto como archivo en el campo 'foto'. Se generan miniaturas de 64 y 256 px."
+    )
+    @PutMapping(value = "/{id}/foto", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<UsuarioDTO> subirFotoMultipart(@PathVariable Integer id, @RequestParam("foto") MultipartFile archivo) {
+        try (InputStream in = archivo.getInputStream()) {
+            FotoProcesada foto = procesadorFotos.procesarBinario(in);
+            return ResponseEntity.ok(usuarioService.updateFoto(id, foto));
+        } catch (RuntimeException e) {
+            return errorFoto(e);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(
+            summary = "Subir foto de perfil (binario)",
+            description = "Sube los bytes de la imagen directamente como cuerpo (application/octet-stream o image/*)."
+    )
+    @PutMapping(value = "/{id}/foto", consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, "image/*"})
+    public ResponseEntity<UsuarioDTO> subirFotoBinaria(@PathVariable Integer id, InputStream contenido) {
+        try {
+            FotoProcesada foto = procesadorFotos.procesarBinario(contenido);
+            return ResponseEntity.ok(usuarioService.updateFoto(id, foto));
+        } catch (RuntimeException e) {
+            return errorFoto(e);
+        }
+    }
+
+    @Operation(
+            summary = "Descargar foto de perfil",
+            description = """
+                Devuelve la foto en binario con su Content-Type y un ETag (hash del contenido).
+                Con 'tamano=64' o 'tamano=256' devuelve la miniatura JPEG cuadrada (recomendado para listas y perfiles).
+                Si el cliente envía If-None-Match con el ETag vigente, responde HTTP 304 sin cuerpo.
+                Si el usuario no tiene foto, responde HTTP 404.
+                """
+    )
+    @GetMapping("/{id}/foto")
+    public ResponseEntity<byte[]> getFoto(@PathVariable Integer id,
+                                          @RequestParam(required = false) Integer tamano,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (tamano != null && tamano != ProcesadorFotos.MINIATURA_PEQUENA && tamano != ProcesadorFotos.MINIATURA_MEDIANA) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<String> hash = fotoPerfilService.obtenerHash(id);
+        if (hash.isEmpty()) return ResponseEntity.notFound().build();
+
+        // La miniatura y el original tienen ETags distintos, ambos derivados del mismo hash
+        String etagOriginal = "\"" + hash.get() + "\"";
+        String etagMiniatura = tamano != null ? "\"" + hash.get() + "-" + tamano + "\"" : null;
+        if (CacheHttp.etagCoincide(ifNoneMatch, etagOriginal)
+                || (etagMiniatura != null && CacheHttp.etagCoincide(ifNoneMatch, etagMiniatura))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etagMiniatura != null ? etagMiniatura : etagOriginal)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+
+        try {
+            if (tamano != null) {
+                Optional<byte[]> miniatura = fotoPerfilService.obtenerMiniatura(id, tamano);
+                if (miniatura.isPresent()) {
+                    return ResponseEntity.ok()
+                            .eTag(etagMiniatura)
+                            .cacheControl(CacheControl.noCache())
+                            .contentType(MediaType.IMAGE_JPEG)
+                            .body(miniatura.get());
+                }
+                // Foto sin miniaturas (formato no soportado): se entrega el original
+            }
+            FotoPerfil foto = fotoPerfilService.obtener(id);
+            return ResponseEntity.ok()
+                    .eTag("\"" + foto.getHash() + "\"")
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.parseMediaType(foto.getTipoContenido()))
+                    .body(foto.getContenido());
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
         }
     }
 
@@ -163,13 +425,19 @@ public class UsuarioController {
 
     @Operation(
             summary = "Obtener preguntas de seguridad",
-            description = "Dado un correo, devuelve las 2 preguntas que el usuario configuró para poder mostrarlas en el Frontend."
+            description = """
+                Dado un correo, devuelve las 2 preguntas que el usuario configuró para poder mostrarlas en el Frontend.
+                Comparte el límite de intentos de la recuperación (HTTP 429 con Retry-After).
+                """
     )
     @GetMapping("/preguntas")
-    public ResponseEntity<?> obtenerPreguntas(@RequestParam String correo) {
+    public ResponseEntity<?> obtenerPreguntas(@RequestParam String correo, HttpServletRequest request) {
         try {
+            limitadorIntentos.verificarRecuperacion(request.getRemoteAddr(), correo);
             PreguntasResponseDTO response = usuarioService.obtenerPreguntasSeguridad(correo);
             return ResponseEntity.ok(response);
+        } catch (DemasiadosIntentosException e) {
+            return demasiadosIntentos(e);
         } catch (RuntimeException e) {
             // Retorna 404 si el usuario no existe o 400 si no tiene preguntas configuradas
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
@@ -181,17 +449,31 @@ public class UsuarioController {
             description = """
                 Recibe correo, las 2 respuestas de seguridad y la nueva contraseña.
                 Si las respuestas coinciden (case-insensitive), actualiza la password.
+                Las respuestas se verifican contra su hash en el pool de BCrypt, sin ocupar el hilo de la petición.
+                Si la IP o el correo superan su límite de intentos responde HTTP 429 con Retry-After.
                 """
     )
     @PostMapping("/recuperar")
-    public ResponseEntity<?> recuperarContrasena(@RequestBody RecuperacionDTO recuperacionDTO) {
+    public CompletableFuture<ResponseEntity<?>> recuperarContrasena(@RequestBody RecuperacionDTO recuperacionDTO, HttpServletRequest request) {
         try {
-            usuarioService.recuperarContrasena(recuperacionDTO);
-            // Devolvemos un mensaje simple o un JSON 200 OK
-            return ResponseEntity.ok("Contraseña restablecida con éxito.");
+            limitadorIntentos.verificarRecuperacion(request.getRemoteAddr(), recuperacionDTO.getCorreo());
+            return usuarioService.recuperarContrasena(recuperacionDTO)
+                    // Devolvemos un mensaje simple o un JSON 200 OK
+                    .<ResponseEntity<?>>thenApply(v -> ResponseEntity.ok("Contraseña restablecida con éxito."))
+                    .exceptionally(e -> errorRecuperacion(e instanceof CompletionException ? e.getCause() : e));
         } catch (RuntimeException e) {
-            // Si las respuestas son incorrectas, devolvemos 400 Bad Request con el mensaje del error
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            return CompletableFuture.completedFuture(errorRecuperacion(e));
+        }
+    }
+
+    private ResponseEntity<?> errorRecuperacion(Throwable e) {
+        if (e instanceof ServicioSaturadoException saturado) {
+            return servicioSaturado(saturado);
+        }
+        if (e instanceof DemasiadosIntentosException excedido) {
+            return demasiadosIntentos(excedido);
         }
+        // Si las respuestas son incorrectas, devolvemos 400 Bad Request con el mensaje del error
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
     }
 }
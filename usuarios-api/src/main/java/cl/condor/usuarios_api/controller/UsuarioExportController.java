@@ -0,0 +1,46 @@
+package cl.condor.usuarios_api.controller;
+
+import cl.condor.usuarios_api.service.UsuarioExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Tag(
+        name = "Exportación de Usuarios",
+        description = """
+            Exportación masiva de usuarios para procesos de analítica.
+            Entrega NDJSON (un usuario por línea) en streaming, sin foto ni datos de seguridad.
+            """
+)
+@RestController
+@RequestMapping("/api/v1/usuarios/export")
+public class UsuarioExportController {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private UsuarioExportService usuarioExportService;
+
+    @Operation(
+            summary = "Exportar usuarios como NDJSON",
+            description = """
+                Devuelve todos los usuarios como JSON delimitado por saltos de línea.
+                Filtros opcionales: idRegion, idRol, idEstado.
+                La respuesta se escribe a medida que se lee la BD, sin cargar la tabla en memoria.
+                """
+    )
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(required = false) Integer idRegion,
+                                                          @RequestParam(required = false) Integer idRol,
+                                                          @RequestParam(required = false) Integer idEstado) {
+        StreamingResponseBody body = out -> usuarioExportService.exportar(idRegion, idRol, idEstado, out);
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .header("Content-Disposition", "attachment; filename=\"usuarios.ndjson\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,18 @@
+package cl.condor.usuarios_api.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Foto ya leída y procesada (hash, tipo y miniaturas), lista para guardarse.
+ * Las miniaturas son null si la imagen no se pudo decodificar con ImageIO.
+ */
+@Data
+@Builder
+public class FotoProcesada {
+    private byte[] contenido;
+    private String tipoContenido;
+    private String hash;
+    private byte[] miniatura64;
+    private byte[] miniatura256;
+}
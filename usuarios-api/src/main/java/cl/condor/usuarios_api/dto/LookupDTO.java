@@ -0,0 +1,18 @@
+package cl.condor.usuarios_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Petición de búsqueda masiva (POST /lookup). Se puede enviar ids, correos o ambos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LookupDTO {
+    private List<Integer> ids;
+    private List<String> correos;
+}
@@ -0,0 +1,23 @@
+package cl.condor.usuarios_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de la búsqueda masiva: los usuarios encontrados indexados por id
+ * y los ids/correos pedidos que no existen (no se considera un error).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LookupResultadoDTO {
+    private Map<Integer, UsuarioResumenDTO> usuarios;
+    private List<Integer> idsNoEncontrados;
+    private List<String> correosNoEncontrados;
+}
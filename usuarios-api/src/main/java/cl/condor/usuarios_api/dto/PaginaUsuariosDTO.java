@@ -0,0 +1,18 @@
+package cl.condor.usuarios_api.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Página del listado de usuarios paginado por cursor (keyset sobre id_usuario).
+ * "next" es el cursor a enviar en la siguiente petición; es null en la última página.
+ */
+@Data
+@Builder
+public class PaginaUsuariosDTO {
+    private List<UsuarioResumenDTO> usuarios;
+    private Integer size;
+    private Integer next;
+}
@@ -0,0 +1,12 @@
+package cl.condor.usuarios_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshDTO {
+    private String refreshToken;
+}
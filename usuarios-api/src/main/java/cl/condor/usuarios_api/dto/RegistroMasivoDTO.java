@@ -0,0 +1,18 @@
+package cl.condor.usuarios_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistroMasivoDTO {
+    private int creados;
+    private int rechazados;
+    private List<ResultadoRegistroDTO> resultados;
+}
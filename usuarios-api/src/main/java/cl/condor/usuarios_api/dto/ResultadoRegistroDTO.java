@@ -0,0 +1,20 @@
+package cl.condor.usuarios_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de un elemento del alta masiva. indice es la posición en la lista enviada.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoRegistroDTO {
+    private int indice;
+    private String correo;
+    private Integer id;      // null si no se creó
+    private String error;    // null si se creó
+}
@@ -0,0 +1,18 @@
+package cl.condor.usuarios_api.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Respuesta del login/refresh: token de acceso de corta duración y token de refresco.
+ * El cliente envía el de acceso como "Authorization: Bearer ..." en cada petición.
+ */
+@Data
+@Builder
+public class TokenDTO {
+    private String accessToken;
+    private String refreshToken;
+    private String tipo;
+    // Segundos de vida del accessToken
+    private Long expiraEn;
+}
@@ -16,7 +16,10 @@ public class UsuarioDTO {
     // Datos Personales
     private String nombre;
     private String correo;
-    private byte[] fotoPerfil; // Se enviará como Base64 en el JSON
+    // La foto se descarga aparte (GET /api/v1/usuarios/{id}/foto); aquí solo va
+    // la URL y el hash, que permite al cliente saber si su copia local sigue vigente
+    private String fotoUrl;
+    private String fotoHash;
 
     // Datos de Actividad
     private Integer rutasRecorridas;
@@ -0,0 +1,31 @@
+package cl.condor.usuarios_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección liviana de Usuario para listados.
+ * Se construye directamente desde la query (JPQL "SELECT new"), por lo que
+ * nunca toca la foto de perfil, la contraseña ni las respuestas de seguridad.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsuarioResumenDTO {
+
+    private Integer id;
+    private String nombre;
+    private String correo;
+
+    private Integer rutasRecorridas;
+    private BigDecimal kmRecorridos;
+
+    private Integer idRol;
+    private Integer idRegion;
+    private Integer idEstado;
+}
@@ -0,0 +1,18 @@
+package cl.condor.usuarios_api.exception;
+
+import lombok.Getter;
+
+/**
+ * Se lanza cuando una IP o un correo supera su límite de intentos (login,
+ * recuperación de contraseña). Los controladores la traducen a HTTP 429 con Retry-After.
+ */
+@Getter
+public class DemasiadosIntentosException extends RuntimeException {
+
+    private final long retryAfterSegundos;
+
+    public DemasiadosIntentosException(String mensaje, long retryAfterSegundos) {
+        super(mensaje);
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+}
@@ -0,0 +1,18 @@
+package cl.condor.usuarios_api.exception;
+
+import lombok.Getter;
+
+/**
+ * Se lanza cuando un recurso acotado (por ejemplo el pool de BCrypt) no acepta
+ * más trabajo. Los controladores la traducen a HTTP 503 con Retry-After.
+ */
+@Getter
+public class ServicioSaturadoException extends RuntimeException {
+
+    private final long retryAfterSegundos;
+
+    public ServicioSaturadoException(String mensaje, long retryAfterSegundos) {
+        super(mensaje);
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+}
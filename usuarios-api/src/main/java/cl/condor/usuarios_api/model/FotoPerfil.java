@@ -0,0 +1,42 @@
+package cl.condor.usuarios_api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Foto de perfil guardada fuera de la fila de usuario, para que las lecturas
+ * de perfil y los listados nunca arrastren el blob.
+ * La PK es el mismo id_usuario (relación 1 a 1).
+ */
+@Entity
+@Table(name = "foto_perfil")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class FotoPerfil {
+
+    @Id
+    @Column(name = "id_usuario")
+    private Integer idUsuario;
+
+    @Lob
+    @Column(name = "contenido", nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] contenido;
+
+    @Column(name = "tipo_contenido", nullable = false, length = 50)
+    private String tipoContenido;
+
+    // SHA-256 en hexadecimal del contenido, se usa como ETag
+    @Column(name = "hash", nullable = false, length = 64)
+    private String hash;
+
+    @Column(name = "tamano", nullable = false)
+    private Integer tamano;
+
+    // Miniaturas JPEG cuadradas generadas al subir la foto (null si no se pudo decodificar)
+    @Lob
+    @Column(name = "miniatura_64", columnDefinition = "MEDIUMBLOB")
+    private byte[] miniatura64;
+
+    @Lob
+    @Column(name = "miniatura_256", columnDefinition = "MEDIUMBLOB")
+    private byte[] miniatura256;
+}
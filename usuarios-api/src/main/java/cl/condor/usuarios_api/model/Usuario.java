@@ -4,9 +4,17 @@ import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "usuario")
+@Table(name = "usuario", indexes = {
+        // correo se guarda normalizado (trim + minúsculas), ver UsuarioService.normalizarCorreo
+        @Index(name = "ux_usuario_correo", columnList = "correo", unique = true),
+        @Index(name = "ix_usuario_region", columnList = "id_region"),
+        @Index(name = "ix_usuario_rol", columnList = "id_rol"),
+        @Index(name = "ix_usuario_estado", columnList = "id_estado"),
+        @Index(name = "ix_usuario_correo_cambiado", columnList = "correo_cambiado")
+})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Usuario {
 
@@ -21,13 +29,16 @@ public class Usuario {
     @Column(name = "correo", nullable = false, length = 150)
     private String correo;
 
+    // Último cambio de correo (reloj de la BD); solo lo escribe actualizarCorreo y lo lee FiltroCorreos
+    @Column(name = "correo_cambiado", insertable = false, updatable = false, columnDefinition = "TIMESTAMP(6)")
+    private LocalDateTime correoCambiado;
+
     @Column(name = "contrasena", nullable = false, length = 255)
     private String contrasena;
 
-    @Lob
-    @Basic(fetch = FetchType.LAZY)
-    @Column(name = "foto_perfil", columnDefinition = "LONGBLOB")
-    private byte[] fotoPerfil;
+    // Hash (SHA-256) de la foto guardada en la tabla foto_perfil; null si no tiene foto
+    @Column(name = "foto_hash", length = 64)
+    private String fotoHash;
 
     @Column(name = "rutas_recorridas", nullable = false)
     private Integer rutasRecorridas = 0;
@@ -0,0 +1,44 @@
+package cl.condor.usuarios_api.repository;
+
+import cl.condor.usuarios_api.model.FotoPerfil;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FotoPerfilRepository extends JpaRepository<FotoPerfil, Integer> {
+
+    // Solo el hash, para responder 304 sin leer el blob
+    @Query("SELECT f.hash FROM FotoPerfil f WHERE f.idUsuario = :idUsuario")
+    Optional<String> findHashByIdUsuario(@Param("idUsuario") Integer idUsuario);
+
+    // Cada miniatura se lee por separado para no cargar el original ni la otra miniatura
+    @Query("SELECT f.miniatura64 FROM FotoPerfil f WHERE f.idUsuario = :idUsuario")
+    Optional<byte[]> findMiniatura64ByIdUsuario(@Param("idUsuario") Integer idUsuario);
+
+    @Query("SELECT f.miniatura256 FROM FotoPerfil f WHERE f.idUsuario = :idUsuario")
+    Optional<byte[]> findMiniatura256ByIdUsuario(@Param("idUsuario") Integer idUsuario);
+
+    // Alta o reemplazo en una sola sentencia. save() con el id ya asignado haría merge():
+    // un SELECT previo que trae los tres blobs de la foto anterior solo para descartarlos.
+    // VALUES(col) y no el alias de fila de MySQL 8.0.19+: H2 (perfil carga) solo entiende el primero
+    @Modifying
+    @Query(value = """
+            INSERT INTO foto_perfil (id_usuario, contenido, tipo_contenido, hash, tamano, miniatura_64, miniatura_256)
+            VALUES (:idUsuario, :contenido, :tipoContenido, :hash, :tamano, :miniatura64, :miniatura256)
+            ON DUPLICATE KEY UPDATE contenido = VALUES(contenido), tipo_contenido = VALUES(tipo_contenido),
+                hash = VALUES(hash), tamano = VALUES(tamano),
+                miniatura_64 = VALUES(miniatura_64), miniatura_256 = VALUES(miniatura_256)
+            """, nativeQuery = true)
+    int guardar(@Param("idUsuario") Integer idUsuario,
+                @Param("contenido") byte[] contenido,
+                @Param("tipoContenido") String tipoContenido,
+                @Param("hash") String hash,
+                @Param("tamano") int tamano,
+                @Param("miniatura64") byte[] miniatura64,
+                @Param("miniatura256") byte[] miniatura256);
+}
@@ -1,13 +1,134 @@
 package cl.condor.usuarios_api.repository;
 
+import cl.condor.usuarios_api.dto.UsuarioResumenDTO;
 import cl.condor.usuarios_api.model.Usuario;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Integer> {
     // 1.28.0 - Spring creara la query automaticamente
     Optional<Usuario> findByCorreo(String correo);
+
+    // Alta masiva: qué correos (ya normalizados) del lote existen, en una sola consulta
+    @Query("SELECT u.correo FROM Usuario u WHERE u.correo IN :correos")
+    List<String> findCorreosExistentes(@Param("correos") Collection<String> correos);
+
+    // Paginación por cursor: usa la PK (id_usuario > cursor) en vez de OFFSET,
+    // así cada página cuesta lo mismo sin importar qué tan adelante esté.
+    // Pageable solo se usa para el LIMIT (siempre página 0).
+    @Query("""
+            SELECT new cl.condor.usuarios_api.dto.UsuarioResumenDTO(
+                u.id, u.nombre, u.correo, u.rutasRecorridas, u.kmRecorridos,
+                u.idRol, u.idRegion, u.idEstado)
+            FROM Usuario u
+            WHERE u.id > :cursor
+            ORDER BY u.id ASC
+            """)
+    List<UsuarioResumenDTO> findResumenDesde(@Param("cursor") Integer cursor, Pageable limite);
+
+    // Búsqueda masiva (POST /lookup): un solo IN sobre la misma proyección sin foto.
+    // Hay una variante por criterio para no enviar nunca una lista vacía al IN.
+    @Query("""
+            SELECT new cl.condor.usuarios_api.dto.UsuarioResumenDTO(
+                u.id, u.nombre, u.correo, u.rutasRecorridas, u.kmRecorridos,
+                u.idRol, u.idRegion, u.idEstado)
+            FROM Usuario u
+            WHERE u.id IN :ids
+            """)
+    List<UsuarioResumenDTO> findResumenPorIds(@Param("ids") Collection<Integer> ids);
+
+    @Query("""
+            SELECT new cl.condor.usuarios_api.dto.UsuarioResumenDTO(
+                u.id, u.nombre, u.correo, u.rutasRecorridas, u.kmRecorridos,
+                u.idRol, u.idRegion, u.idEstado)
+            FROM Usuario u
+            WHERE u.correo IN :correos
+            """)
+    List<UsuarioResumenDTO> findResumenPorCorreos(@Param("correos") Collection<String> correos);
+
+    @Query("""
+            SELECT new cl.condor.usuarios_api.dto.UsuarioResumenDTO(
+                u.id, u.nombre, u.correo, u.rutasRecorridas, u.kmRecorridos,
+                u.idRol, u.idRegion, u.idEstado)
+            FROM Usuario u
+            WHERE u.id IN :ids OR u.correo IN :correos
+            """)
+    List<UsuarioResumenDTO> findResumenPorIdsOCorreos(@Param("ids") Collection<Integer> ids,
+                                                      @Param("correos") Collection<String> correos);
+
+    // Exportación completa como Stream (forward-only). Con MySQL, un fetch size de
+    // Integer.MIN_VALUE hace que el driver entregue fila a fila en vez de cargar
+    // todo el resultado en memoria. Debe consumirse dentro de una transacción.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT new cl.condor.usuarios_api.dto.UsuarioResumenDTO(
+                u.id, u.nombre, u.correo, u.rutasRecorridas, u.kmRecorridos,
+                u.idRol, u.idRegion, u.idEstado)
+            FROM Usuario u
+            WHERE (:idRegion IS NULL OR u.idRegion = :idRegion)
+              AND (:idRol IS NULL OR u.idRol = :idRol)
+              AND (:idEstado IS NULL OR u.idEstado = :idEstado)
+            ORDER BY u.id ASC
+            """)
+    Stream<UsuarioResumenDTO> streamResumen(@Param("idRegion") Integer idRegion,
+                                            @Param("idRol") Integer idRol,
+                                            @Param("idEstado") Integer idEstado);
+
+    // Actualizaciones parciales de los PATCH: un solo UPDATE de la columna afectada,
+    // sin SELECT previo. Devuelven las filas afectadas (0 = el usuario no existe).
+    @Modifying
+    @Query("UPDATE Usuario u SET u.nombre = :nombre WHERE u.id = :id")
+    int actualizarNombre(@Param("id") Integer id, @Param("nombre") String nombre);
+
+    // correoCambiado con el reloj de la BD: FiltroCorreos de otras instancias lo usa de marca
+    @Modifying
+    @Query("UPDATE Usuario u SET u.correo = :correo, u.correoCambiado = CURRENT_TIMESTAMP WHERE u.id = :id")
+    int actualizarCorreo(@Param("id") Integer id, @Param("correo") String correo);
+
+    @Modifying
+    @Query("UPDATE Usuario u SET u.fotoHash = :fotoHash WHERE u.id = :id")
+    int actualizarFotoHash(@Param("id") Integer id, @Param("fotoHash") String fotoHash);
+
+    @Modifying
+    @Query("UPDATE Usuario u SET u.idRegion = :idRegion WHERE u.id = :id")
+    int actualizarRegion(@Param("id") Integer id, @Param("idRegion") Integer idRegion);
+
+    @Modifying
+    @Query("UPDATE Usuario u SET u.rutasRecorridas = :rutas WHERE u.id = :id")
+    int actualizarRutasRecorridas(@Param("id") Integer id, @Param("rutas") Integer rutas);
+
+    // Incremento atómico: la suma la hace MySQL sobre el valor actual de la fila,
+    // así dos dispositivos que terminan rutas a la vez no se pisan.
+    @Modifying
+    @Query("""
+            UPDATE Usuario u
+            SET u.rutasRecorridas = u.rutasRecorridas + :rutas, u.kmRecorridos = u.kmRecorridos + :km
+            WHERE u.id = :id
+            """)
+    int incrementarRecorridos(@Param("id") Integer id, @Param("rutas") int rutas, @Param("km") BigDecimal km);
+
+    // Re-hash tras un login exitoso. Solo actualiza si el hash no cambió entretanto
+    // (por ejemplo, por una recuperación de contraseña concurrente).
+    @Transactional
+    @Modifying
+    @Query("UPDATE Usuario u SET u.contrasena = :nuevo WHERE u.id = :id AND u.contrasena = :anterior")
+    int actualizarContrasena(@Param("id") Integer id, @Param("anterior") String anterior, @Param("nuevo") String nuevo);
 }
@@ -0,0 +1,80 @@
+package cl.condor.usuarios_api.security;
+
+import cl.condor.usuarios_api.exception.DemasiadosIntentosException;
+import cl.condor.usuarios_api.service.UsuarioService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Límites de intentos para los endpoints públicos que cuestan BCrypt o permiten
+ * adivinar datos: login (por IP y por correo) y recuperación de contraseña,
+ * que incluye /preguntas (por IP y por correo).
+ *
+ * El límite por IP frena a un cliente que prueba muchos correos; el límite por
+ * correo frena a muchos clientes probando contra la misma cuenta. Se consume
+ * antes de tocar la BD o el pool de hashing.
+ */
+@Component
+public class LimitadorIntentos {
+
+    private final boolean habilitado;
+    private final LimiteTasa loginPorIp;
+    private final LimiteTasa loginPorCorreo;
+    private final LimiteTasa recuperacionPorIp;
+    private final LimiteTasa recuperacionPorCorreo;
+
+    @Autowired
+    public LimitadorIntentos(@Value("${usuarios.limites.habilitado:true}") boolean habilitado,
+                             @Value("${usuarios.limites.max-claves:100000}") long maxClaves,
+                             @Value("${usuarios.limites.login-ip.intentos:30}") int loginIpIntentos,
+                             @Value("${usuarios.limites.login-ip.ventana:1m}") Duration loginIpVentana,
+                             @Value("${usuarios.limites.login-correo.intentos:10}") int loginCorreoIntentos,
+                             @Value("${usuarios.limites.login-correo.ventana:5m}") Duration loginCorreoVentana,
+                             @Value("${usuarios.limites.recuperacion-ip.intentos:10}") int recuperacionIpIntentos,
+                             @Value("${usuarios.limites.recuperacion-ip.ventana:1m}") Duration recuperacionIpVentana,
+                             @Value("${usuarios.limites.recuperacion-correo.intentos:5}") int recuperacionCorreoIntentos,
+                             @Value("${usuarios.limites.recuperacion-correo.ventana:15m}") Duration recuperacionCorreoVentana,
+                             MeterRegistry registry) {
+        this.habilitado = habilitado;
+        this.loginPorIp = new LimiteTasa("login-ip", loginIpIntentos, loginIpVentana,
+                maxClaves, System::nanoTime, registry);
+        this.loginPorCorreo = new LimiteTasa("login-correo", loginCorreoIntentos, loginCorreoVentana,
+                maxClaves, System::nanoTime, registry);
+        this.recuperacionPorIp = new LimiteTasa("recuperacion-ip", recuperacionIpIntentos, recuperacionIpVentana,
+                maxClaves, System::nanoTime, registry);
+        this.recuperacionPorCorreo = new LimiteTasa("recuperacion-correo", recuperacionCorreoIntentos,
+                recuperacionCorreoVentana, maxClaves, System::nanoTime, registry);
+    }
+
+    public void verificarLogin(String ip, String correo) {
+        verificar(loginPorIp, loginPorCorreo, ip, correo);
+    }
+
+    public void verificarRecuperacion(String ip, String correo) {
+        verificar(recuperacionPorIp, recuperacionPorCorreo, ip, correo);
+    }
+
+    private void verificar(LimiteTasa porIp, LimiteTasa porCorreo, String ip, String correo) {
+        if (!habilitado) return;
+        if (ip != null) {
+            rechazarSiExcede(porIp.consumir(ip));
+        }
+        String normalizado = UsuarioService.normalizarCorreo(correo);
+        if (normalizado != null && !normalizado.isEmpty()) {
+            rechazarSiExcede(porCorreo.consumir(normalizado));
+        }
+    }
+
+    private static void rechazarSiExcede(long esperaNanos) {
+        if (esperaNanos > 0) {
+            // Retry-After se expresa en segundos enteros: se redondea hacia arriba
+            long segundos = Math.max(1, (esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            throw new DemasiadosIntentosException("Demasiados intentos, intente más tarde", segundos);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package cl.condor.usuarios_api.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tope de peticiones en curso. Con hilos de plataforma el tope lo pone el pool de
+ * Tomcat; con hilos virtuales (perfil "virtual") no hay tope y miles de peticiones
+ * terminarían esperando una conexión de Hikari hasta su connection-timeout. Este
+ * filtro las hace esperar en un semáforo (barato para un hilo virtual) y, si no
+ * obtienen lugar en usuarios.concurrencia.espera, responde 503 con Retry-After.
+ *
+ * Una petición asíncrona (login, recuperación, exportación) libera su lugar al
+ * soltar el hilo, no al terminar: esperar al pool de BCrypt no ocupa cupo.
+ * Desactivado con max-peticiones=0. Las rutas /actuator no se limitan.
+ */
+@Component
+public class LimiteConcurrenciaFilter extends OncePerRequestFilter {
+
+    private final Semaphore lugares;
+    private final int maxPeticiones;
+    private final long esperaNanos;
+    private final long retryAfterSegundos;
+    private final Counter rechazos;
+
+    @Autowired
+    public LimiteConcurrenciaFilter(@Value("${usuarios.concurrencia.max-peticiones:0}") int maxPeticiones,
+                                    @Value("${usuarios.concurrencia.espera:1s}") Duration espera,
+                                    @Value("${usuarios.concurrencia.retry-after-segundos:1}") long retryAfterSegundos,
+                                    MeterRegistry registry) {
+        this.maxPeticiones = maxPeticiones;
+        this.lugares = maxPeticiones > 0 ? new Semaphore(maxPeticiones) : null;
+        this.esperaNanos = espera.toNanos();
+        this.retryAfterSegundos = retryAfterSegundos;
+        this.rechazos = Counter.builder("usuarios.concurrencia.rechazos")
+                .description("Peticiones rechazadas con 503 por superar el tope de peticiones en curso")
+                .register(registry);
+        Gauge.builder("usuarios.concurrencia.en-curso", this,
+                        f -> f.lugares != null ? f.maxPeticiones - f.lugares.availablePermits() : 0)
+                .description("Peticiones ocupando un lugar del tope")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (lugares == null) return true;
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        return ruta.startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean obtenido;
+        try {
+            obtenido = lugares.tryAcquire(esperaNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            obtenido = false;
+        }
+        if (!obtenido) {
+            rechazos.increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSegundos));
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            lugares.release();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package cl.condor.usuarios_api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket por clave (IP o correo) implementado como GCRA: cada clave guarda
+ * solo su "hora teórica de llegada" en un AtomicLong y cada intento es un
+ * compareAndSet, sin locks ni hilos de recarga.
+ *
+ * Admite hasta 'intentos' seguidos y luego uno cada ventana/intentos. Las claves
+ * viven en una caché acotada (max-claves) que descarta las inactivas; una clave
+ * descartada vuelve con el cubo lleno, igual que si hubiera esperado la ventana.
+ */
+public class LimiteTasa {
+
+    private final String nombre;
+    private final long intervaloNanos;
+    private final long ventanaNanos;
+    private final LongSupplier reloj;
+    private final Cache<String, AtomicLong> claves;
+    private final Counter rechazos;
+
+    public LimiteTasa(String nombre, int intentos, Duration ventana, long maxClaves,
+                      LongSupplier reloj, MeterRegistry registry) {
+        this.nombre = nombre;
+        this.ventanaNanos = ventana.toNanos();
+        this.intervaloNanos = ventanaNanos / Math.max(intentos, 1);
+        this.reloj = reloj;
+        // Una clave sin intentos durante una ventana ya tiene el cubo lleno: se puede olvidar
+        this.claves = Caffeine.newBuilder()
+                .maximumSize(maxClaves)
+                .expireAfterAccess(ventana)
+                .build();
+        this.rechazos = Counter.builder("usuarios.limites.rechazos")
+                .tag("limite", nombre)
+                .description("Intentos rechazados por superar el límite")
+                .register(registry);
+        Gauge.builder("usuarios.limites.claves", claves, Cache::estimatedSize)
+                .tag("limite", nombre)
+                .description("Claves (IPs o correos) con estado en memoria")
+                .register(registry);
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Consume un intento de la clave.
+     * @return 0 si se permite; si no, los nanosegundos hasta que vuelva a haber cupo
+     */
+    public long consumir(String clave) {
+        AtomicLong llegadaTeorica = claves.get(clave, k -> new AtomicLong(Long.MIN_VALUE));
+        long ahora = reloj.getAsLong();
+        while (true) {
+            long actual = llegadaTeorica.get();
+            long base = actual == Long.MIN_VALUE || actual - ahora < 0 ? ahora : actual;
+            long siguiente = base + intervaloNanos;
+            long exceso = siguiente - ahora - ventanaNanos;
+            if (exceso > 0) {
+                rechazos.increment();
+                return exceso;
+            }
+            if (llegadaTeorica.compareAndSet(actual, siguiente)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package cl.condor.usuarios_api.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Valida el token "Authorization: Bearer ..." de cada petición (solo firma HMAC y
+ * expiración, sin acceso a BD ni BCrypt) y deja el id del usuario como atributo
+ * del request para los controladores.
+ *
+ * Un token inválido o expirado siempre responde 401. La ausencia de token solo
+ * se rechaza si usuarios.token.requerido=true y la ruta no es pública.
+ */
+@Component
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String ATRIBUTO_ID_USUARIO = "usuarios.idUsuario";
+    public static final String ATRIBUTO_CORREO = "usuarios.correo";
+
+    private static final String PREFIJO_BEARER = "Bearer ";
+    private static final AntPathMatcher MATCHER = new AntPathMatcher();
+
+    // Rutas que no requieren token aunque usuarios.token.requerido=true
+    private static final List<String> RUTAS_PUBLICAS = List.of(
+            "POST /api/v1/usuarios",
+            "POST /api/v1/usuarios/login",
+            "POST /api/v1/usuarios/refresh",
+            "GET /api/v1/usuarios/preguntas",
+            "POST /api/v1/usuarios/recuperar",
+            "GET /api/v1/regiones/**",
+            "GET /api/v1/roles/**",
+            "GET /api/v1/estados/**",
+            "* /doc/**",
+            "* /v3/api-docs/**",
+            "* /actuator/**");
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Value("${usuarios.token.requerido:false}")
+    private boolean requerido;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String autorizacion = request.getHeader(HttpHeaders.AUTHORIZATION);
+
+        if (autorizacion != null && autorizacion.startsWith(PREFIJO_BEARER)) {
+            try {
+                TokenClaims claims = tokenService.validar(autorizacion.substring(PREFIJO_BEARER.length()).trim(),
+                        TokenService.TIPO_ACCESO);
+                request.setAttribute(ATRIBUTO_ID_USUARIO, claims.getIdUsuario());
+                request.setAttribute(ATRIBUTO_CORREO, claims.getCorreo());
+            } catch (RuntimeException e) {
+                rechazar(response, e.getMessage());
+                return;
+            }
+        } else if (requerido && !esPublica(request)) {
+            rechazar(response, "Token requerido");
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    static boolean esPublica(HttpServletRequest request) {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        for (String regla : RUTAS_PUBLICAS) {
+            int espacio = regla.indexOf(' ');
+            String metodo = regla.substring(0, espacio);
+            String patron = regla.substring(espacio + 1);
+            boolean metodoCoincide = metodo.equals("*") || metodo.equals(request.getMethod());
+            if (metodoCoincide && MATCHER.match(patron, ruta)) {
+                return true;
+            }
+        }
+        // Las preflight CORS nunca llevan credenciales
+        return HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    private static void rechazar(HttpServletResponse response, String mensaje) throws IOException {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(mensaje);
+    }
+}
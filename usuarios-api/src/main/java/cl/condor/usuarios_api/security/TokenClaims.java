@@ -0,0 +1,17 @@
+package cl.condor.usuarios_api.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Datos contenidos en un token ya validado (firma y expiración).
+ */
+@Getter
+@AllArgsConstructor
+public class TokenClaims {
+    private final Integer idUsuario;
+    private final String correo;
+    private final Integer idRol;
+    private final String tipo;
+    private final long expiraEpochSegundos;
+}
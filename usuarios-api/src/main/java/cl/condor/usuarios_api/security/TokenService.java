@@ -0,0 +1,167 @@
+package cl.condor.usuarios_api.security;
+
+import cl.condor.usuarios_api.dto.TokenDTO;
+import cl.condor.usuarios_api.model.Usuario;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Emite y valida tokens JWT firmados con HMAC-SHA256 y una clave local.
+ * Validar un token cuesta una firma HMAC (microsegundos), en lugar de
+ * repetir la verificación BCrypt de la contraseña en cada petición.
+ */
+@Slf4j
+@Service
+public class TokenService {
+
+    public static final String TIPO_ACCESO = "access";
+    public static final String TIPO_REFRESCO = "refresh";
+
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final String CABECERA = base64Url("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ObjectMapper objectMapper;
+    private final Mac macPrototipo;
+    private final Duration duracionAcceso;
+    private final Duration duracionRefresco;
+    private final Clock clock;
+
+    @Autowired
+    public TokenService(ObjectMapper objectMapper,
+                        @Value("${usuarios.token.secreto:}") String secretoBase64,
+                        @Value("${usuarios.token.access-ttl:15m}") Duration duracionAcceso,
+                        @Value("${usuarios.token.refresh-ttl:7d}") Duration duracionRefresco) {
+        this(objectMapper, secretoBase64, duracionAcceso, duracionRefresco, Clock.systemUTC());
+    }
+
+    TokenService(ObjectMapper objectMapper, String secretoBase64, Duration duracionAcceso,
+                 Duration duracionRefresco, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.duracionAcceso = duracionAcceso;
+        this.duracionRefresco = duracionRefresco;
+        this.clock = clock;
+
+        byte[] clave;
+        if (secretoBase64 == null || secretoBase64.isBlank()) {
+            // Sin clave configurada los tokens no sobreviven a un reinicio ni sirven entre instancias
+            log.warn("usuarios.token.secreto no está configurado; se usa una clave aleatoria temporal");
+            clave = new byte[32];
+            new SecureRandom().nextBytes(clave);
+        } else {
+            clave = Base64.getDecoder().decode(secretoBase64);
+            if (clave.length < 32) {
+                throw new IllegalStateException("usuarios.token.secreto debe tener al menos 256 bits");
+            }
+        }
+        try {
+            this.macPrototipo = Mac.getInstance(ALGORITMO);
+            this.macPrototipo.init(new SecretKeySpec(clave, ALGORITMO));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo inicializar HMAC-SHA256", e);
+        }
+    }
+
+    public TokenDTO emitir(Usuario usuario) {
+        return TokenDTO.builder()
+                .accessToken(firmar(usuario, TIPO_ACCESO, duracionAcceso))
+                .refreshToken(firmar(usuario, TIPO_REFRESCO, duracionRefresco))
+                .tipo("Bearer")
+                .expiraEn(duracionAcceso.toSeconds())
+                .build();
+    }
+
+    /**
+     * Valida firma, tipo y expiración.
+     * @throws RuntimeException "Token invalido" o "Token expirado"
+     */
+    public TokenClaims validar(String token, String tipoEsperado) {
+        if (token == null) throw new RuntimeException("Token invalido");
+        int punto1 = token.indexOf('.');
+        int punto2 = token.indexOf('.', punto1 + 1);
+        if (punto1 <= 0 || punto2 <= punto1 || token.indexOf('.', punto2 + 1) >= 0) {
+            throw new RuntimeException("Token invalido");
+        }
+
+        String contenido = token.substring(0, punto2);
+        byte[] firmaRecibida;
+        try {
+            firmaRecibida = DECODER.decode(token.substring(punto2 + 1));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Token invalido");
+        }
+        // Comparación en tiempo constante
+        if (!MessageDigest.isEqual(hmac(contenido), firmaRecibida)
+                || !CABECERA.equals(token.substring(0, punto1))) {
+            throw new RuntimeException("Token invalido");
+        }
+
+        JsonNode payload;
+        try {
+            payload = objectMapper.readTree(DECODER.decode(token.substring(punto1 + 1, punto2)));
+        } catch (Exception e) {
+            throw new RuntimeException("Token invalido");
+        }
+        if (!tipoEsperado.equals(payload.path("typ").asText())) {
+            throw new RuntimeException("Token invalido");
+        }
+        long exp = payload.path("exp").asLong();
+        if (clock.instant().getEpochSecond() >= exp) {
+            throw new RuntimeException("Token expirado");
+        }
+        return new TokenClaims(
+                payload.path("sub").asInt(),
+                payload.path("correo").asText(null),
+                payload.hasNonNull("rol") ? payload.get("rol").asInt() : null,
+                tipoEsperado,
+                exp);
+    }
+
+    private String firmar(Usuario usuario, String tipo, Duration duracion) {
+        long ahora = clock.instant().getEpochSecond();
+        ObjectNode payload = objectMapper.createObjectNode()
+                .put("sub", String.valueOf(usuario.getId()))
+                .put("correo", usuario.getCorreo())
+                .put("typ", tipo)
+                .put("iat", ahora)
+                .put("exp", ahora + duracion.toSeconds());
+        if (usuario.getIdRol() != null) payload.put("rol", usuario.getIdRol());
+
+        String contenido;
+        try {
+            contenido = CABECERA + "." + base64Url(objectMapper.writeValueAsBytes(payload));
+        } catch (Exception e) {
+            throw new RuntimeException("No se pudo generar el token");
+        }
+        return contenido + "." + base64Url(hmac(contenido));
+    }
+
+    // Mac no es thread-safe: se clona el prototipo ya inicializado (más barato que init)
+    private byte[] hmac(String contenido) {
+        try {
+            Mac mac = (Mac) macPrototipo.clone();
+            return mac.doFinal(contenido.getBytes(StandardCharsets.US_ASCII));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String base64Url(byte[] datos) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(datos);
+    }
+}
@@ -0,0 +1,180 @@
+package cl.condor.usuarios_api.service;
+
+import cl.condor.usuarios_api.cache.PerfilCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind opcional para los incrementos de rutas y km.
+ *
+ * Los incrementos de un mismo usuario se suman en memoria y cada flush-ms se
+ * escriben con UPDATEs en lote (uno por usuario, ordenados por id para que dos
+ * instancias no se bloqueen en orden inverso). Así una ráfaga de sincronizaciones
+ * tras una salida grupal toma cada fila una vez por intervalo en lugar de una
+ * vez por petición.
+ *
+ * Los incrementos pendientes se pierden si el proceso muere sin un cierre
+ * ordenado (en el cierre normal se hace un último flush).
+ */
+@Slf4j
+@Component
+public class AcumuladorRecorridos {
+
+    static final String SQL_INCREMENTO = """
+            UPDATE usuario
+            SET rutas_recorridas = rutas_recorridas + ?, km_recorridos = km_recorridos + ?
+            WHERE id_usuario = ?
+            """;
+
+    private static final int TAMANO_LOTE = 500;
+
+    /** Incremento acumulado de un usuario; inmutable para poder combinarse con merge(). */
+    record Delta(int rutas, BigDecimal km) {
+        Delta sumar(Delta otro) {
+            return new Delta(rutas + otro.rutas, km.add(otro.km));
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PerfilCache perfilCache;
+    private final boolean habilitado;
+    private final int maxPendientes;
+    private final ConcurrentHashMap<Integer, Delta> pendientes = new ConcurrentHashMap<>();
+    private final Counter descartados;
+    private final ScheduledExecutorService scheduler;
+
+    @Autowired
+    public AcumuladorRecorridos(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${usuarios.recorridos.write-behind:false}") boolean habilitado,
+                                @Value("${usuarios.recorridos.flush-ms:250}") long flushMs,
+                                @Value("${usuarios.recorridos.max-pendientes:100000}") int maxPendientes,
+                                PerfilCache perfilCache,
+                                MeterRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.perfilCache = perfilCache;
+        this.habilitado = habilitado;
+        this.maxPendientes = maxPendientes;
+
+        Gauge.builder("usuarios.recorridos.pendientes", pendientes, Map::size)
+                .description("Usuarios con incrementos aún no escritos")
+                .register(registry);
+        this.descartados = Counter.builder("usuarios.recorridos.descartados")
+                .description("Incrementos de usuarios inexistentes descartados en el flush")
+                .register(registry);
+
+        if (habilitado) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "recorridos-flush");
+                t.setDaemon(true);
+                return t;
+            });
+            scheduler.scheduleWithFixedDelay(this::flushSeguro, flushMs, flushMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Encola el incremento. Devuelve false (y no encola nada) si el write-behind
+     * está desactivado o hay demasiados usuarios pendientes; en ese caso quien
+     * llama debe aplicarlo directamente en la BD.
+     */
+    public boolean acumular(Integer idUsuario, int rutas, BigDecimal km) {
+        if (!habilitado || (pendientes.size() >= maxPendientes && !pendientes.containsKey(idUsuario))) {
+            return false;
+        }
+        pendientes.merge(idUsuario, new Delta(rutas, km), Delta::sumar);
+        return true;
+    }
+
+    int cantidadPendientes() {
+        return pendientes.size();
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushSeguro();
+    }
+
+    // Una excepción no capturada cancelaría las siguientes ejecuciones programadas
+    private void flushSeguro() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Flush de recorridos fallido, se reintentará: {}", e.getMessage());
+        }
+    }
+
+    /** Escribe lo acumulado hasta ahora. Si falla, los incrementos vuelven a la cola. */
+    void flush() {
+        if (pendientes.isEmpty()) return;
+
+        // remove() retira el delta de forma atómica: lo que llegue después queda para el próximo flush
+        TreeMap<Integer, Delta> lote = new TreeMap<>();
+        for (Integer id : pendientes.keySet()) {
+            Delta delta = pendientes.remove(id);
+            if (delta != null) lote.put(id, delta);
+        }
+        if (lote.isEmpty()) return;
+
+        List<Object[]> parametros = new ArrayList<>(lote.size());
+        lote.forEach((id, d) -> parametros.add(new Object[]{d.rutas(), d.km(), id}));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < parametros.size(); i += TAMANO_LOTE) {
+                    List<Object[]> parte = parametros.subList(i, Math.min(i + TAMANO_LOTE, parametros.size()));
+                    int[] filas = jdbcTemplate.batchUpdate(SQL_INCREMENTO, parte);
+                    contarDescartados(filas);
+                }
+            });
+        } catch (RuntimeException e) {
+            lote.forEach((id, d) -> pendientes.merge(id, d, Delta::sumar));
+            throw e;
+        }
+        // Ya confirmado: los perfiles en caché de estos usuarios tienen totales viejos
+        perfilCache.invalidarTodos(lote.keySet());
+    }
+
+    private void contarDescartados(int[] filas) {
+        if (filas == null) return;
+        for (int f : filas) {
+            // 0 = el usuario no existe (los drivers con batch reescrito informan SUCCESS_NO_INFO)
+            if (f == 0) descartados.increment();
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package cl.condor.usuarios_api.service;
 
+import cl.condor.usuarios_api.cache.CatalogoCache;
+import cl.condor.usuarios_api.cache.CatalogoSnapshot;
 import cl.condor.usuarios_api.model.Estado;
 import cl.condor.usuarios_api.repository.EstadoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -9,22 +14,55 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 @Service
-@Transactional
 public class EstadoService {
 
     @Autowired
     private EstadoRepository estadoRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final CatalogoCache<Estado> cache = new CatalogoCache<>(
+            () -> estadoRepository.findAll(), Estado::getId, this::serializar);
+
+    @PostConstruct
+    void cargar() {
+        cache.recargar();
+    }
+
     public List<Estado> findAll() {
-        return estadoRepository.findAll();
+        return cache.snapshot().todos();
     }
 
     public Estado findById(Integer id) {
-        return estadoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Estado no encontrado"));
+        Estado estado = cache.snapshot().buscar(id);
+        if (estado == null) {
+            throw new RuntimeException("Estado no encontrado");
+        }
+        return estado;
     }
 
+    /** Catálogo completo con su JSON y ETag, para servirlo con caché HTTP. */
+    public CatalogoSnapshot<Estado> snapshot() {
+        return cache.snapshot();
+    }
+
+    public boolean existe(Integer id) {
+        return cache.snapshot().contiene(id);
+    }
+
+    @Transactional
     public Estado save(Estado estado) {
-        return estadoRepository.save(estado);
+        Estado guardado = estadoRepository.save(estado);
+        cache.recargarTrasCommit();
+        return guardado;
+    }
+
+    private byte[] serializar(List<Estado> lista) {
+        try {
+            return objectMapper.writeValueAsBytes(lista);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("No se pudo serializar el catálogo", e);
+        }
     }
 }
@@ -0,0 +1,54 @@
+package cl.condor.usuarios_api.service;
+
+import cl.condor.usuarios_api.dto.FotoProcesada;
+import cl.condor.usuarios_api.model.FotoPerfil;
+import cl.condor.usuarios_api.repository.FotoPerfilRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Service
+@Transactional
+public class FotoPerfilService {
+
+    @Autowired
+    private FotoPerfilRepository fotoPerfilRepository;
+
+    /**
+     * Guarda (o reemplaza) la foto de un usuario junto a sus miniaturas, sin leer la anterior.
+     * @return hash SHA-256 del contenido, que se guarda también en la fila del usuario
+     */
+    public String guardar(Integer idUsuario, FotoProcesada foto) {
+        fotoPerfilRepository.guardar(idUsuario, foto.getContenido(), foto.getTipoContenido(), foto.getHash(),
+                foto.getContenido().length, foto.getMiniatura64(), foto.getMiniatura256());
+        return foto.getHash();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<String> obtenerHash(Integer idUsuario) {
+        return fotoPerfilRepository.findHashByIdUsuario(idUsuario);
+    }
+
+    @Transactional(readOnly = true)
+    public FotoPerfil obtener(Integer idUsuario) {
+        return fotoPerfilRepository.findById(idUsuario)
+                .orElseThrow(() -> new RuntimeException("Foto no encontrada"));
+    }
+
+    /**
+     * Miniatura JPEG del tamaño pedido (64 o 256).
+     * Vacío si la foto se guardó sin miniaturas (formato no soportado por ImageIO).
+     */
+    @Transactional(readOnly = true)
+    public Optional<byte[]> obtenerMiniatura(Integer idUsuario, int tamano) {
+        if (tamano == ProcesadorFotos.MINIATURA_PEQUENA) {
+            return fotoPerfilRepository.findMiniatura64ByIdUsuario(idUsuario);
+        }
+        if (tamano == ProcesadorFotos.MINIATURA_MEDIANA) {
+            return fotoPerfilRepository.findMiniatura256ByIdUsuario(idUsuario);
+        }
+        throw new RuntimeException("Tamaño de miniatura no soportado: " + tamano);
+    }
+}
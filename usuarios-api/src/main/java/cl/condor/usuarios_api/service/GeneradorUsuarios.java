@@ -0,0 +1,326 @@
+package cl.condor.usuarios_api.service;
+
+import cl.condor.usuarios_api.dto.FotoProcesada;
+import lombok.extern.slf4j.Slf4j;
+import net.datafaker.Faker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Generador de usuarios sintéticos (perfil "generador") para medir índices, paginación
+ * y cachés con tablas de millones de filas.
+ *
+ * - Varios hilos; cada uno toma rangos de ids consecutivos (a partir del máximo actual)
+ *   y los inserta con un batch JDBC por rango y transacción (multi-fila con
+ *   rewriteBatchedStatements=true). Los ids explícitos evitan leer claves generadas:
+ *   pensado para una BD de pruebas sin altas concurrentes.
+ * - La contraseña se hashea una sola vez y se reutiliza; las respuestas de seguridad
+ *   salen de un conjunto pequeño hasheado al inicio (mismo algoritmo que producción).
+ * - Nombres y respuestas con datafaker en español; región según la población de cada
+ *   región (si el catálogo tiene los nombres conocidos); rol y estado mayormente el primero.
+ * - Opcionalmente una fracción de usuarios recibe una foto (avatares generados y
+ *   procesados una vez, con sus miniaturas).
+ */
+@Slf4j
+@Service
+@Profile("generador")
+public class GeneradorUsuarios {
+
+    static final String SQL_USUARIO = """
+            INSERT INTO usuario (id_usuario, nombre, correo, contrasena, foto_hash, rutas_recorridas, km_recorridos,
+                pregunta_seguridad1, respuesta_seguridad1, pregunta_seguridad2, respuesta_seguridad2,
+                id_rol, id_region, id_estado)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    static final String SQL_FOTO = """
+            INSERT INTO foto_perfil (id_usuario, contenido, tipo_contenido, hash, tamano, miniatura_64, miniatura_256)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // Respuestas distintas por pregunta que se hashean al inicio
+    private static final int RESPUESTAS_POR_PREGUNTA = 8;
+    private static final int AVATARES = 16;
+    private static final List<String> DOMINIOS = List.of("gmail.com", "hotmail.com", "outlook.com", "yahoo.com", "condor.cl");
+
+    // Población aproximada por región (%), para repartir usuarios de forma realista
+    private static final Map<String, Integer> PESO_REGION = Map.ofEntries(
+            Map.entry("Arica y Parinacota", 1), Map.entry("Tarapacá", 2), Map.entry("Antofagasta", 3),
+            Map.entry("Atacama", 2), Map.entry("Coquimbo", 4), Map.entry("Valparaíso", 10),
+            Map.entry("Metropolitana", 40), Map.entry("O'Higgins", 5), Map.entry("Maule", 6),
+            Map.entry("Ñuble", 3), Map.entry("Biobío", 9), Map.entry("La Araucanía", 5),
+            Map.entry("Los Ríos", 2), Map.entry("Los Lagos", 5), Map.entry("Aysén", 1), Map.entry("Magallanes", 1));
+
+    private record Pregunta(String texto, Function<Faker, String> respuesta) {}
+
+    private static final List<Pregunta> PREGUNTAS = List.of(
+            new Pregunta("¿Cuál es tu color favorito?", f -> f.color().name()),
+            new Pregunta("¿Cuál es tu comida favorita?", f -> f.food().dish()),
+            new Pregunta("¿En qué ciudad naciste?", f -> f.address().city()),
+            new Pregunta("¿Cómo se llamaba tu primera mascota?", f -> f.name().firstName()));
+
+    record RespuestaHasheada(String pregunta, String hash) {}
+
+    private record Catalogos(List<Integer> regiones, List<Integer> pesosRegion, int pesoTotalRegion,
+                             List<Integer> roles, List<Integer> estados) {}
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PasswordHashingService passwordHasher;
+
+    @Autowired
+    private ProcesadorFotos procesadorFotos;
+
+    @Value("${usuarios.generador.hilos:0}")
+    private int hilos = 0;
+
+    @Value("${usuarios.generador.lote:1000}")
+    private int lote = 1000;
+
+    @Value("${usuarios.generador.fraccion-con-foto:0.0}")
+    private double fraccionConFoto = 0.0;
+
+    @Value("${usuarios.generador.clave:Condor-2024}")
+    private String clave = "Condor-2024";
+
+    @Value("${usuarios.generador.semilla:42}")
+    private long semilla = 42;
+
+    /** Inserta {@code cantidad} usuarios; devuelve cuántos se insertaron. */
+    public long generar(int cantidad) {
+        long inicio = System.nanoTime();
+        Catalogos catalogos = prepararCatalogos();
+
+        // 1 + preguntas x respuestas hashes, en paralelo en el pool de BCrypt
+        Faker faker = new Faker(Locale.forLanguageTag("es"), new Random(semilla));
+        List<String> secretos = new ArrayList<>();
+        secretos.add(clave);
+        List<String> preguntas = new ArrayList<>();
+        for (Pregunta p : PREGUNTAS) {
+            for (int i = 0; i < RESPUESTAS_POR_PREGUNTA; i++) {
+                preguntas.add(p.texto());
+                secretos.add(UsuarioService.normalizarRespuesta(p.respuesta().apply(faker)));
+            }
+        }
+        List<String> hashes = passwordHasher.encodeTodos(secretos);
+        String hashClave = hashes.get(0);
+        List<RespuestaHasheada> respuestas = new ArrayList<>(preguntas.size());
+        for (int i = 0; i < preguntas.size(); i++) {
+            respuestas.add(new RespuestaHasheada(preguntas.get(i), hashes.get(i + 1)));
+        }
+        List<FotoProcesada> avatares = fraccionConFoto > 0 ? avatares(semilla) : List.of();
+
+        Integer maximo = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id_usuario), 0) FROM usuario", Integer.class);
+        int primerId = (maximo == null ? 0 : maximo) + 1;
+        int rangos = (cantidad + lote - 1) / lote;
+        AtomicInteger siguienteRango = new AtomicInteger();
+        AtomicLong insertados = new AtomicLong();
+        int trabajadores = Math.max(1, Math.min(rangos,
+                hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors()));
+
+        log.info("Generando {} usuarios desde el id {} con {} hilos (lotes de {})", cantidad, primerId, trabajadores, lote);
+        ExecutorService executor = Executors.newFixedThreadPool(trabajadores);
+        try {
+            List<Future<?>> futuros = new ArrayList<>(trabajadores);
+            for (int t = 0; t < trabajadores; t++) {
+                long semillaHilo = semilla + t + 1;
+                futuros.add(executor.submit(() -> {
+                    Faker fakerHilo = new Faker(Locale.forLanguageTag("es"), new Random(semillaHilo));
+                    Random random = new Random(semillaHilo);
+                    int rango;
+                    while ((rango = siguienteRango.getAndIncrement()) < rangos) {
+                        int desde = rango * lote;
+                        int hasta = Math.min(desde + lote, cantidad);
+                        insertarRango(primerId + desde, hasta - desde, fakerHilo, random, catalogos,
+                                hashClave, respuestas, avatares);
+                        reportarAvance(insertados.addAndGet(hasta - desde), hasta - desde, cantidad, inicio);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futuros) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Generación interrumpida");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Falló la generación de usuarios: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long ms = Math.max(1, (System.nanoTime() - inicio) / 1_000_000);
+        log.info("Generados {} usuarios en {} s ({} filas/s)", insertados.get(), ms / 1000, insertados.get() * 1000 / ms);
+        return insertados.get();
+    }
+
+    private void insertarRango(int primerId, int filas, Faker faker, Random random, Catalogos catalogos,
+                               String hashClave, List<RespuestaHasheada> respuestas, List<FotoProcesada> avatares) {
+        List<Object[]> usuarios = new ArrayList<>(filas);
+        List<Object[]> fotos = new ArrayList<>();
+        for (int k = 0; k < filas; k++) {
+            int id = primerId + k;
+            String nombre = faker.name().firstName();
+            String apellido = faker.name().lastName();
+            String correo = sinAcentos(nombre + "." + apellido).replaceAll("[^a-z0-9.]", "")
+                    + "." + id + "@" + DOMINIOS.get(random.nextInt(DOMINIOS.size()));
+
+            // Dos preguntas distintas: índices en bloques distintos del conjunto hasheado
+            int bloque1 = random.nextInt(PREGUNTAS.size());
+            int bloque2 = (bloque1 + 1 + random.nextInt(PREGUNTAS.size() - 1)) % PREGUNTAS.size();
+            RespuestaHasheada r1 = respuestas.get(bloque1 * RESPUESTAS_POR_PREGUNTA + random.nextInt(RESPUESTAS_POR_PREGUNTA));
+            RespuestaHasheada r2 = respuestas.get(bloque2 * RESPUESTAS_POR_PREGUNTA + random.nextInt(RESPUESTAS_POR_PREGUNTA));
+
+            // Muchos usuarios con pocas rutas y unos pocos con muchas
+            int rutas = (int) Math.min(2_000, -Math.log(1 - random.nextDouble()) * 15);
+            BigDecimal km = BigDecimal.valueOf(rutas * (4 + random.nextDouble() * 16)).setScale(2, RoundingMode.HALF_UP);
+
+            FotoProcesada foto = null;
+            if (!avatares.isEmpty() && random.nextDouble() < fraccionConFoto) {
+                foto = avatares.get(random.nextInt(avatares.size()));
+                fotos.add(new Object[]{id, foto.getContenido(), foto.getTipoContenido(), foto.getHash(),
+                        foto.getContenido().length, foto.getMiniatura64(), foto.getMiniatura256()});
+            }
+
+            usuarios.add(new Object[]{id, nombre + " " + apellido, correo, hashClave,
+                    foto != null ? foto.getHash() : null, rutas, km,
+                    r1.pregunta(), r1.hash(), r2.pregunta(), r2.hash(),
+                    mayormentePrimero(catalogos.roles(), 95, random),
+                    region(catalogos, random),
+                    mayormentePrimero(catalogos.estados(), 90, random)});
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(SQL_USUARIO, usuarios);
+            if (!fotos.isEmpty()) jdbcTemplate.batchUpdate(SQL_FOTO, fotos);
+        });
+    }
+
+    private static void reportarAvance(long insertados, int recienInsertados, int cantidad, long inicio) {
+        // Cada ~10%: el rango que cruza el umbral lo informa
+        long paso = Math.max(1, cantidad / 10);
+        if (insertados / paso != (insertados - recienInsertados) / paso) {
+            long ms = Math.max(1, (System.nanoTime() - inicio) / 1_000_000);
+            log.info("{} / {} usuarios ({} filas/s)", insertados, cantidad, insertados * 1000 / ms);
+        }
+    }
+
+    // Crea los catálogos si están vacíos y carga sus ids
+    private Catalogos prepararCatalogos() {
+        if (contar("region") == 0) {
+            for (String region : PESO_REGION.keySet().stream().sorted().toList()) {
+                jdbcTemplate.update("INSERT INTO region (nombre) VALUES (?)", region);
+            }
+        }
+        if (contar("rol") == 0) {
+            for (String rol : List.of("Usuario", "Guía", "Administrador")) {
+                jdbcTemplate.update("INSERT INTO rol (nombre) VALUES (?)", rol);
+            }
+        }
+        if (contar("estado") == 0) {
+            for (String estado : List.of("Activo", "Inactivo", "Suspendido")) {
+                jdbcTemplate.update("INSERT INTO estado (nombre) VALUES (?)", estado);
+            }
+        }
+
+        List<Integer> regiones = new ArrayList<>();
+        List<Integer> pesos = new ArrayList<>();
+        int[] total = {0};
+        jdbcTemplate.query("SELECT id_region, nombre FROM region ORDER BY id_region", rs -> {
+            int peso = PESO_REGION.getOrDefault(rs.getString(2), 1);
+            regiones.add(rs.getInt(1));
+            pesos.add(peso);
+            total[0] += peso;
+        });
+        List<Integer> roles = jdbcTemplate.queryForList("SELECT id_rol FROM rol ORDER BY id_rol", Integer.class);
+        List<Integer> estados = jdbcTemplate.queryForList("SELECT id_estado FROM estado ORDER BY id_estado", Integer.class);
+        return new Catalogos(regiones, pesos, total[0], roles, estados);
+    }
+
+    private int contar(String tabla) {
+        Integer n = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tabla, Integer.class);
+        return n == null ? 0 : n;
+    }
+
+    private static Integer region(Catalogos catalogos, Random random) {
+        if (catalogos.regiones().isEmpty()) return null;
+        int valor = random.nextInt(catalogos.pesoTotalRegion());
+        for (int i = 0; i < catalogos.regiones().size(); i++) {
+            valor -= catalogos.pesosRegion().get(i);
+            if (valor < 0) return catalogos.regiones().get(i);
+        }
+        return catalogos.regiones().get(0);
+    }
+
+    private static Integer mayormentePrimero(List<Integer> ids, int porcentaje, Random random) {
+        if (ids.isEmpty()) return null;
+        if (ids.size() == 1 || random.nextInt(100) < porcentaje) return ids.get(0);
+        return ids.get(1 + random.nextInt(ids.size() - 1));
+    }
+
+    private static String sinAcentos(String texto) {
+        return Normalizer.normalize(texto, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    // Avatares simples (fondo y círculo de colores), procesados como una subida real
+    private List<FotoProcesada> avatares(long semilla) {
+        Random random = new Random(semilla);
+        List<FotoProcesada> avatares = new ArrayList<>(AVATARES);
+        for (int i = 0; i < AVATARES; i++) {
+            BufferedImage imagen = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = imagen.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g.setColor(new Color(random.nextInt(0x1000000)));
+                g.fillRect(0, 0, 256, 256);
+                g.setColor(new Color(random.nextInt(0x1000000)));
+                g.fillOval(48, 48, 160, 160);
+            } finally {
+                g.dispose();
+            }
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            try {
+                ImageIO.write(imagen, "jpg", salida);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            avatares.add(procesadorFotos.procesarBinario(new ByteArrayInputStream(salida.toByteArray())));
+        }
+        return avatares;
+    }
+}
@@ -0,0 +1,143 @@
+package cl.condor.usuarios_api.service;
+
+import cl.condor.usuarios_api.exception.DemasiadosIntentosException;
+import cl.condor.usuarios_api.exception.ServicioSaturadoException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Latencia de las operaciones de UsuarioService, expuesta por el actuator
+ * (/actuator/prometheus):
+ *
+ * - usuarios.operacion{operacion, resultado}: un timer por método y resultado
+ *   (success, not-found, invalid, rejected, error), con histograma y p50/p95/p99.
+ * - usuarios.login.fase{fase=busqueda|verificacion}: el login separado en la búsqueda
+ *   en BD y la verificación BCrypt (incluye la espera en el pool de hashing).
+ * - usuarios.foto.tamano: distribución del tamaño de las fotos guardadas, en bytes.
+ *
+ * Los errores de negocio del servicio son RuntimeException con mensaje en español;
+ * el resultado se deduce de ese mensaje.
+ */
+@Component
+public class MetricasUsuarios {
+
+    public static final String EXITO = "success";
+    public static final String NO_ENCONTRADO = "not-found";
+    public static final String INVALIDO = "invalid";
+    public static final String RECHAZADO = "rejected";
+    public static final String ERROR = "error";
+
+    private final MeterRegistry registry;
+    // Builder + registro por llamada es caro en el camino caliente: un timer por combinación de tags
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final DistributionSummary tamanoFoto;
+
+    public MetricasUsuarios(MeterRegistry registry) {
+        this.registry = registry;
+        this.tamanoFoto = DistributionSummary.builder("usuarios.foto.tamano")
+                .description("Tamaño de las fotos de perfil guardadas")
+                .baseUnit("bytes")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1024.0)
+                .maximumExpectedValue(16.0 * 1024 * 1024)
+                .register(registry);
+    }
+
+    /** Mide una operación síncrona; si lanza, el resultado se toma de la excepción. */
+    public <T> T medir(String operacion, Supplier<T> accion) {
+        long inicio = System.nanoTime();
+        try {
+            T valor = accion.get();
+            registrar(operacion, EXITO, inicio);
+            return valor;
+        } catch (RuntimeException e) {
+            registrar(operacion, resultado(e), inicio);
+            throw e;
+        }
+    }
+
+    /**
+     * Mide una operación asíncrona hasta que el future termina (incluye la parte que
+     * corre en el pool de hashing). Un fallo antes de devolver el future también se mide.
+     */
+    public <T> CompletableFuture<T> medirAsync(String operacion, Supplier<CompletableFuture<T>> accion) {
+        long inicio = System.nanoTime();
+        CompletableFuture<T> futuro;
+        try {
+            futuro = accion.get();
+        } catch (RuntimeException e) {
+            registrar(operacion, resultado(e), inicio);
+            throw e;
+        }
+        return futuro.whenComplete((valor, error) ->
+                registrar(operacion, error == null ? EXITO : resultado(error), inicio));
+    }
+
+    public <T> T medirFase(String fase, Supplier<T> accion) {
+        long inicio = System.nanoTime();
+        try {
+            return accion.get();
+        } finally {
+            registrarFase(fase, inicio);
+        }
+    }
+
+    public <T> CompletableFuture<T> medirFaseAsync(String fase, CompletableFuture<T> futuro) {
+        long inicio = System.nanoTime();
+        return futuro.whenComplete((valor, error) -> registrarFase(fase, inicio));
+    }
+
+    public void registrarTamanoFoto(long bytes) {
+        tamanoFoto.record(bytes);
+    }
+
+    static String resultado(Throwable error) {
+        Throwable causa = error;
+        while (causa instanceof CompletionException && causa.getCause() != null) {
+            causa = causa.getCause();
+        }
+        if (causa instanceof ServicioSaturadoException || causa instanceof DemasiadosIntentosException) {
+            return RECHAZADO;
+        }
+        if (causa.getClass() != RuntimeException.class) {
+            return ERROR;
+        }
+        String mensaje = causa.getMessage() == null ? "" : causa.getMessage().toLowerCase(Locale.ROOT);
+        return mensaje.contains("no encontrado") ? NO_ENCONTRADO : INVALIDO;
+    }
+
+    private void registrar(String operacion, String resultado, long inicio) {
+        timers.computeIfAbsent(operacion + '|' + resultado, k -> timer("usuarios.operacion")
+                        .tag("operacion", operacion)
+                        .tag("resultado", resultado)
+                        .register(registry))
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    private void registrarFase(String fase, long inicio) {
+        timers.computeIfAbsent("login.fase|" + fase, k -> timer("usuarios.login.fase")
+                        .tag("fase", fase)
+                        .register(registry))
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer.Builder timer(String nombre) {
+        return Timer.builder(nombre)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,161 @@
+package cl.condor.usuarios_api.service;
+
+import cl.condor.usuarios_api.exception.ServicioSaturadoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Migración única de las respuestas de seguridad guardadas en texto plano a hash.
+ *
+ * Corre en segundo plano al arrancar: recorre la tabla por páginas de la PK (solo
+ * filas con alguna respuesta sin hashear), calcula los hashes de a uno en el pool
+ * de BCrypt (ocupa como máximo un hilo, el resto queda para los logins) y escribe
+ * cada página en un batch corto. El UPDATE es condicional sobre el valor leído, así
+ * que no pisa un cambio concurrente ni bloquea la tabla mientras hashea. Es
+ * idempotente: si se interrumpe, el siguiente arranque sigue con lo pendiente, y
+ * varias instancias a la vez solo repiten trabajo.
+ *
+ * Mientras dura, recuperarContrasena acepta ambos formatos.
+ */
+@Slf4j
+@Component
+public class MigracionRespuestasSeguridad {
+
+    // Misma regla que esHash(): pendiente es todo lo que no empieza con un prefijo de hash conocido
+    static final String SQL_PENDIENTES = """
+            SELECT id_usuario, respuesta_seguridad1, respuesta_seguridad2
+            FROM usuario
+            WHERE id_usuario > ?
+              AND respuesta_seguridad1 IS NOT NULL AND respuesta_seguridad2 IS NOT NULL
+              AND (NOT (%s) OR NOT (%s))
+            ORDER BY id_usuario
+            LIMIT ?
+            """.formatted(esHashSql("respuesta_seguridad1"), esHashSql("respuesta_seguridad2"));
+    static final String SQL_ACTUALIZAR = """
+            UPDATE usuario SET respuesta_seguridad1 = ?, respuesta_seguridad2 = ?
+            WHERE id_usuario = ? AND respuesta_seguridad1 = ? AND respuesta_seguridad2 = ?
+            """;
+
+    // Los prefijos no contienen % ni _, así que van literales en el LIKE
+    static String esHashSql(String columna) {
+        return PasswordHashingService.PREFIJOS_HASH.stream()
+                .map(prefijo -> columna + " LIKE '" + prefijo + "%'")
+                .collect(Collectors.joining(" OR "));
+    }
+
+    record Pendiente(int id, String respuesta1, String respuesta2) {}
+
+    private static final RowMapper<Pendiente> MAPEO = (rs, n) ->
+            new Pendiente(rs.getInt(1), rs.getString(2), rs.getString(3));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordHashingService passwordHasher;
+    private final boolean habilitada;
+    private final int tamanoPagina;
+    private final Counter migradas;
+
+    private volatile boolean detenida;
+    private volatile Thread hilo;
+
+    @Autowired
+    public MigracionRespuestasSeguridad(JdbcTemplate jdbcTemplate,
+                                        PasswordHashingService passwordHasher,
+                                        @Value("${usuarios.respuestas.migracion.habilitada:true}") boolean habilitada,
+                                        @Value("${usuarios.respuestas.migracion.tamano-pagina:200}") int tamanoPagina,
+                                        MeterRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordHasher = passwordHasher;
+        this.habilitada = habilitada;
+        this.tamanoPagina = tamanoPagina;
+        this.migradas = Counter.builder("usuarios.respuestas.migradas")
+                .description("Usuarios cuyas respuestas de seguridad se pasaron de texto plano a hash")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!habilitada) return;
+        Thread t = new Thread(this::migrarSeguro, "migracion-respuestas");
+        t.setDaemon(true);
+        hilo = t;
+        t.start();
+    }
+
+    @PreDestroy
+    public void detener() {
+        detenida = true;
+        Thread t = hilo;
+        if (t != null) t.interrupt();
+    }
+
+    private void migrarSeguro() {
+        try {
+            int total = migrar();
+            if (total > 0) log.info("Respuestas de seguridad migradas a hash: {} usuarios", total);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // Lo pendiente se retoma en el próximo arranque
+            log.warn("Migración de respuestas de seguridad interrumpida: {}", e.getMessage());
+        }
+    }
+
+    /** Recorre todas las filas pendientes; devuelve cuántas se actualizaron. */
+    int migrar() throws InterruptedException {
+        int total = 0;
+        int ultimoId = 0;
+        List<Pendiente> pagina;
+        do {
+            pagina = jdbcTemplate.query(SQL_PENDIENTES, MAPEO, ultimoId, tamanoPagina);
+            List<Object[]> cambios = new ArrayList<>(pagina.size());
+            for (Pendiente p : pagina) {
+                if (detenida) return total;
+                ultimoId = p.id();
+                String hash1 = hashearSiFalta(p.respuesta1());
+                String hash2 = hashearSiFalta(p.respuesta2());
+                if (hash1 != p.respuesta1() || hash2 != p.respuesta2()) {
+                    cambios.add(new Object[]{hash1, hash2, p.id(), p.respuesta1(), p.respuesta2()});
+                }
+            }
+            if (!cambios.isEmpty()) {
+                // Una transacción corta por página (autocommit del batch), nunca durante el hashing
+                int actualizadas = 0;
+                for (int filas : jdbcTemplate.batchUpdate(SQL_ACTUALIZAR, cambios)) {
+                    // SUCCESS_NO_INFO (-2) cuenta como actualizada
+                    if (filas != 0) actualizadas++;
+                }
+                migradas.increment(actualizadas);
+                total += actualizadas;
+            }
+        } while (pagina.size() == tamanoPagina);
+        return total;
+    }
+
+    // Devuelve la misma instancia si ya era hash, para detectar filas sin cambios
+    private String hashearSiFalta(String respuesta) throws InterruptedException {
+        if (PasswordHashingService.esHash(respuesta)) return respuesta;
+        String normalizada = UsuarioService.normalizarRespuesta(respuesta);
+        while (true) {
+            try {
+                return passwordHasher.encode(normalizada);
+            } catch (ServicioSaturadoException e) {
+                // Hay picos de login: se cede el pool y se reintenta después
+                TimeUnit.SECONDS.sleep(e.getRetryAfterSegundos());
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package cl.condor.usuarios_api.service;
+
+import cl.condor.usuarios_api.exception.ServicioSaturadoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta el hash y la verificación de contraseñas en un pool acotado, fuera
+ * de los hilos de Tomcat. Con BCrypt coste 12 cada operación consume ~250 ms
+ * de CPU; así una ráfaga de logins no deja sin hilos al resto de endpoints.
+ */
+@Service
+public class PasswordHashingService {
+
+    // Ids de los encoders de PasswordConfig y variantes de BCrypt sin prefijo.
+    // MigracionRespuestasSeguridad arma su filtro SQL con esta misma lista.
+    static final List<String> PREFIJOS_HASH = List.of("{bcrypt}", "{pbkdf2}", "$2a$", "$2b$", "$2y$");
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer tiempoEncode;
+    private final Timer tiempoMatches;
+    private final Timer tiempoEspera;
+    private final Counter rechazos;
+
+    // Hash de una contraseña aleatoria con la política vigente, para verificarFicticio()
+    private volatile String hashFicticio;
+
+    @Value("${usuarios.password.retry-after-segundos:1}")
+    private long retryAfterSegundos = 1;
+
+    @Autowired
+    public PasswordHashingService(PasswordEncoder encoder,
+                                  @Value("${usuarios.password.pool-size:0}") int poolSize,
+                                  @Value("${usuarios.password.queue-capacity:100}") int queueCapacity,
+                                  MeterRegistry registry) {
+        this(encoder, crearExecutor(poolSize, queueCapacity), registry);
+    }
+
+    public PasswordHashingService(PasswordEncoder encoder, ThreadPoolExecutor executor, MeterRegistry registry) {
+        this.encoder = encoder;
+        this.executor = executor;
+        // executor.queued, executor.active, executor.pool.size, etc. con name=bcrypt
+        new ExecutorServiceMetrics(executor, "bcrypt", Tags.empty()).bindTo(registry);
+        this.tiempoEncode = Timer.builder("usuarios.password.hash")
+                .tag("operacion", "encode")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.tiempoMatches = Timer.builder("usuarios.password.hash")
+                .tag("operacion", "matches")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.tiempoEspera = Timer.builder("usuarios.password.espera")
+                .description("Tiempo en cola antes de empezar el hash")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.rechazos = Counter.builder("usuarios.password.rechazos")
+                .description("Operaciones rechazadas por pool saturado")
+                .register(registry);
+    }
+
+    /**
+     * Pool exclusivo: tantos hilos como núcleos (es trabajo de CPU puro) y una cola
+     * acotada; si se llena se rechaza en vez de acumular logins.
+     * No se publica como bean para no reemplazar el executor de tareas de Spring.
+     */
+    static ThreadPoolExecutor crearExecutor(int poolSize, int queueCapacity) {
+        int hilos = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger contador = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "bcrypt-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        return new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), factory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        executor.shutdown();
+    }
+
+    public CompletableFuture<String> encodeAsync(String raw) {
+        return enviar(() -> encoder.encode(raw), tiempoEncode);
+    }
+
+    public CompletableFuture<Boolean> matchesAsync(String raw, String hash) {
+        return enviar(() -> encoder.matches(raw, hash), tiempoMatches);
+    }
+
+    /**
+     * Verificación contra un hash que no coincide con nada, para correos inexistentes:
+     * consume el mismo tiempo (y el mismo cupo del pool) que un login real, así la
+     * respuesta no revela si el correo está registrado. Siempre termina en false.
+     */
+    public CompletableFuture<Boolean> verificarFicticio(String raw) {
+        return enviar(() -> {
+            encoder.matches(raw == null ? "" : raw, hashFicticio());
+            return false;
+        }, tiempoMatches);
+    }
+
+    // Se genera en el primer uso (ya dentro del pool) y no en el arranque
+    private String hashFicticio() {
+        String hash = hashFicticio;
+        if (hash == null) {
+            hash = encoder.encode(UUID.randomUUID().toString());
+            hashFicticio = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * true si el valor guardado ya es un hash de este servicio (prefijo de un encoder
+     * registrado en PasswordConfig) o un BCrypt antiguo sin prefijo; false para texto
+     * plano, incluso si tiene forma {x}y (p. ej. una respuesta sin migrar).
+     */
+    public static boolean esHash(String valor) {
+        if (valor == null) return false;
+        for (String prefijo : PREFIJOS_HASH) {
+            if (valor.startsWith(prefijo) && valor.length() > prefijo.length()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * true si el hash usa un algoritmo distinto al configurado, no tiene prefijo {id}
+     * (hashes antiguos) o tiene un coste menor al actual.
+     */
+    public boolean necesitaRehash(String hash) {
+        return encoder.upgradeEncoding(hash);
+    }
+
+    /** Versión bloqueante: el hilo que llama espera, pero la CPU sigue acotada por el pool. */
+    public String encode(String raw) {
+        return esperar(encodeAsync(raw));
+    }
+
+    public boolean matches(String raw, String hash) {
+        return esperar(matchesAsync(raw, hash));
+    }
+
+    /**
+     * Hash de muchas contraseñas en paralelo (altas masivas). Se envían en tandas
+     * del tamaño del pool para usar todos los núcleos sin ocupar la cola, que
+     * queda disponible para los logins que lleguen mientras tanto.
+     */
+    public List<String> encodeTodos(List<String> raws) {
+        String[] hashes = new String[raws.size()];
+        int tanda = executor.getMaximumPoolSize();
+        for (int inicio = 0; inicio < raws.size(); inicio += tanda) {
+            int fin = Math.min(inicio + tanda, raws.size());
+            List<CompletableFuture<String>> futuros = new ArrayList<>(fin - inicio);
+            for (int i = inicio; i < fin; i++) {
+                futuros.add(encodeAsync(raws.get(i)));
+            }
+            for (int i = inicio; i < fin; i++) {
+                hashes[i] = esperar(futuros.get(i - inicio));
+            }
+        }
+        return Arrays.asList(hashes);
+    }
+
+    private <T> CompletableFuture<T> enviar(Supplier<T> tarea, Timer tiempo) {
+        long encolado = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                tiempoEspera.record(System.nanoTime() - encolado, TimeUnit.NANOSECONDS);
+                return tiempo.record(tarea);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rechazos.increment();
+            throw new ServicioSaturadoException("Servicio saturado, intente nuevamente", retryAfterSegundos);
+        }
+    }
+
+    private static <T> T esperar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package cl.condor.usuarios_api.service;
+
+import cl.condor.usuarios_api.dto.FotoProcesada;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Iterator;
+
+/**
+ * Lectura y procesamiento de fotos de perfil, fuera de cualquier transacción:
+ * una subida lenta o la generación de miniaturas no deben retener una conexión a la BD.
+ */
+@Slf4j
+@Component
+public class ProcesadorFotos {
+
+    public static final String TIPO_DESCONOCIDO = "application/octet-stream";
+    public static final int MINIATURA_PEQUENA = 64;
+    public static final int MINIATURA_MEDIANA = 256;
+
+    private static final int MAX_BYTES_DEFECTO = 5 * 1024 * 1024;
+    private static final long MAX_PIXELES_DEFECTO = 40_000_000L;
+    private static final int LARGO_MAXIMO_PREFIJO = 128;
+
+    // Tamaño máximo de la foto ya decodificada
+    @Value("${usuarios.foto.max-bytes:5242880}")
+    private int maxBytes = MAX_BYTES_DEFECTO;
+
+    // Imágenes con más píxeles que esto se guardan sin miniaturas (evita "bombas" de descompresión)
+    @Value("${usuarios.foto.max-pixeles:40000000}")
+    private long maxPixeles = MAX_PIXELES_DEFECTO;
+
+    /** Foto enviada en binario (multipart u octet-stream). */
+    public FotoProcesada procesarBinario(InputStream in) {
+        try {
+            return procesar(leerLimitado(in));
+        } catch (IOException e) {
+            throw new RuntimeException("No se pudo leer la foto: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Foto enviada como Base64, con o sin prefijo "data:image/...;base64,".
+     * Se decodifica mientras se lee, sin armar el String completo ni copias intermedias.
+     */
+    public FotoProcesada procesarBase64(InputStream in) {
+        try {
+            InputStream decodificado = Base64.getDecoder().wrap(new SinEspaciosInputStream(quitarPrefijoDataUri(in)));
+            return procesar(leerLimitado(decodificado));
+        } catch (IOException e) {
+            throw new RuntimeException("El string enviado no es un Base64 válido: " + e.getMessage());
+        }
+    }
+
+    private FotoProcesada procesar(byte[] contenido) {
+        if (contenido.length == 0) {
+            throw new RuntimeException("La foto no puede estar vacía");
+        }
+        FotoProcesada.FotoProcesadaBuilder foto = FotoProcesada.builder()
+                .contenido(contenido)
+                .tipoContenido(detectarTipo(contenido))
+                .hash(calcularHash(contenido));
+
+        BufferedImage imagen = decodificarReducida(contenido, MINIATURA_MEDIANA);
+        if (imagen != null) {
+            foto.miniatura64(miniaturaJpeg(imagen, MINIATURA_PEQUENA));
+            foto.miniatura256(miniaturaJpeg(imagen, MINIATURA_MEDIANA));
+        }
+        return foto.build();
+    }
+
+    private byte[] leerLimitado(InputStream in) throws IOException {
+        byte[] datos = in.readNBytes(maxBytes + 1);
+        if (datos.length > maxBytes) {
+            throw new RuntimeException("La foto supera el tamaño máximo de " + maxBytes + " bytes");
+        }
+        return datos;
+    }
+
+    // Si el cuerpo empieza con "data:...," se descarta ese prefijo; si no, se devuelve tal cual
+    private static InputStream quitarPrefijoDataUri(InputStream in) throws IOException {
+        PushbackInputStream pb = new PushbackInputStream(in, LARGO_MAXIMO_PREFIJO);
+        byte[] inicio = pb.readNBytes(LARGO_MAXIMO_PREFIJO);
+        String texto = new String(inicio, StandardCharsets.US_ASCII);
+        int coma = texto.indexOf(',');
+        if (texto.stripLeading().startsWith("data:") && coma >= 0) {
+            pb.unread(inicio, coma + 1, inicio.length - coma - 1);
+        } else {
+            pb.unread(inicio);
+        }
+        return pb;
+    }
+
+    /**
+     * Decodifica la imagen submuestreando en la lectura, para no expandir en memoria
+     * la resolución completa cuando solo se necesitan miniaturas.
+     * Devuelve null si ImageIO no reconoce el formato o la imagen es demasiado grande.
+     */
+    private BufferedImage decodificarReducida(byte[] contenido, int ladoObjetivo) {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(new ByteArrayInputStream(contenido))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int ancho = reader.getWidth(0);
+                int alto = reader.getHeight(0);
+                if ((long) ancho * alto > maxPixeles) {
+                    log.warn("Foto de {}x{} px supera el máximo, se guarda sin miniaturas", ancho, alto);
+                    return null;
+                }
+                // Se lee a ~2x el tamaño objetivo; el escalado final suaviza el resultado
+                int paso = Math.max(1, Math.min(ancho, alto) / (ladoObjetivo * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(paso, paso, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("No se pudo decodificar la foto para miniaturas: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Recorte cuadrado centrado, escalado a lado x lado y codificado como JPEG
+    private static byte[] miniaturaJpeg(BufferedImage origen, int lado) {
+        int corte = Math.min(origen.getWidth(), origen.getHeight());
+        int x = (origen.getWidth() - corte) / 2;
+        int y = (origen.getHeight() - corte) / 2;
+
+        BufferedImage destino = new BufferedImage(lado, lado, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = destino.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // Fondo blanco para imágenes con transparencia (JPEG no tiene canal alfa)
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, lado, lado);
+            g.drawImage(origen, 0, 0, lado, lado, x, y, x + corte, y + corte, null);
+        } finally {
+            g.dispose();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.85f);
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(destino, null, null), param);
+        } catch (IOException e) {
+            throw new RuntimeException("No se pudo generar la miniatura: " + e.getMessage());
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    public static String calcularHash(byte[] contenido) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(contenido));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 es obligatorio en toda JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Detección por "magic numbers" de los formatos que envía la app
+    public static String detectarTipo(byte[] c) {
+        if (c.length >= 3 && (c[0] & 0xFF) == 0xFF && (c[1] & 0xFF) == 0xD8 && (c[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (c.length >= 8 && (c[0] & 0xFF) == 0x89 && c[1] == 'P' && c[2] == 'N' && c[3] == 'G') {
+            return "image/png";
+        }
+        if (c.length >= 4 && c[0] == 'G' && c[1] == 'I' && c[2] == 'F' && c[3] == '8') {
+            return "image/gif";
+        }
+        if (c.length >= 12 && c[0] == 'R' && c[1] == 'I' && c[2] == 'F' && c[3] == 'F'
+                && c[8] == 'W' && c[9] == 'E' && c[10] == 'B' && c[11] == 'P') {
+            return "image/webp";
+        }
+        return TIPO_DESCONOCIDO;
+    }
+
+    // Descarta saltos de línea y espacios (Base64 "MIME" o pegado con formato)
+    private static final class SinEspaciosInputStream extends FilterInputStream {
+
+        SinEspaciosInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b;
+            do {
+                b = super.read();
+            } while (b == ' ' || b == '\n' || b == '\r' || b == '\t');
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int leidos;
+            do {
+                leidos = super.read(buf, off, len);
+                if (leidos <= 0) return leidos;
+                int escritos = off;
+                for (int i = off; i < off + leidos; i++) {
+                    byte b = buf[i];
+                    if (b != ' ' && b != '\n' && b != '\r' && b != '\t') buf[escritos++] = b;
+                }
+                leidos = escritos - off;
+            } while (leidos == 0);
+            return leidos;
+        }
+    }
+}
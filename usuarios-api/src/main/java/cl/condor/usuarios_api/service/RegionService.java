@@ -1,30 +1,72 @@
 package cl.condor.usuarios_api.service;
 
+import cl.condor.usuarios_api.cache.CatalogoCache;
+import cl.condor.usuarios_api.cache.CatalogoSnapshot;
 import cl.condor.usuarios_api.model.Region;
 import cl.condor.usuarios_api.repository.RegionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
+/**
+ * Las lecturas se sirven desde un snapshot en memoria (el catálogo casi no cambia);
+ * solo save() va a la BD y reemplaza el snapshot al confirmar.
+ */
 @Service
-@Transactional
 public class RegionService {
 
     @Autowired
     private RegionRepository regionRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final CatalogoCache<Region> cache = new CatalogoCache<>(
+            () -> regionRepository.findAll(), Region::getId, this::serializar);
+
+    @PostConstruct
+    void cargar() {
+        cache.recargar();
+    }
+
     public List<Region> findAll() {
-        return regionRepository.findAll();
+        return cache.snapshot().todos();
     }
 
     public Region findById(Integer id) {
-        return regionRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Región no encontrada"));
+        Region region = cache.snapshot().buscar(id);
+        if (region == null) {
+            throw new RuntimeException("Región no encontrada");
+        }
+        return region;
     }
 
+    /** Catálogo completo con su JSON y ETag, para servirlo con caché HTTP. */
+    public CatalogoSnapshot<Region> snapshot() {
+        return cache.snapshot();
+    }
+
+    public boolean existe(Integer id) {
+        return cache.snapshot().contiene(id);
+    }
+
+    @Transactional
     public Region save(Region region) {
-        return regionRepository.save(region);
+        Region guardado = regionRepository.save(region);
+        cache.recargarTrasCommit();
+        return guardado;
+    }
+
+    private byte[] serializar(List<Region> lista) {
+        try {
+            return objectMapper.writeValueAsBytes(lista);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("No se pudo serializar el catálogo", e);
+        }
     }
 }
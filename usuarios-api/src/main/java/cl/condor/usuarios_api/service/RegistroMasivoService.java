@@ -0,0 +1,233 @@
+package cl.condor.usuarios_api.service;
+
+import cl.condor.usuarios_api.cache.FiltroCorreos;
+import cl.condor.usuarios_api.dto.RegistroMasivoDTO;
+import cl.condor.usuarios_api.dto.ResultadoRegistroDTO;
+import cl.condor.usuarios_api.model.Usuario;
+import cl.condor.usuarios_api.repository.UsuarioRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Alta masiva de usuarios (importación de clubes).
+ *
+ * - Validación con las mismas reglas que el alta individual; región y rol contra
+ *   el catálogo en memoria y los correos ya registrados con un solo IN por cada
+ *   1000 correos, en vez de consultas por fila.
+ * - Hash de contraseñas en paralelo en el pool de BCrypt.
+ * - INSERT con batch JDBC (con rewriteBatchedStatements=true el driver de MySQL
+ *   lo envía como INSERT multi-fila) recuperando los ids autogenerados.
+ *
+ * No es transaccional como un todo: el hash puede tardar minutos y no debe
+ * retener una conexión. Cada lote de inserción es su propia transacción.
+ */
+@Slf4j
+@Service
+public class RegistroMasivoService {
+
+    static final String SQL_INSERT = """
+            INSERT INTO usuario (nombre, correo, contrasena, rutas_recorridas, km_recorridos,
+                pregunta_seguridad1, respuesta_seguridad1, pregunta_seguridad2, respuesta_seguridad2,
+                id_rol, id_region, id_estado)
+            VALUES (?, ?, ?, 0, 0, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final int TAMANO_LOTE = 500;
+    private static final int TAMANO_IN = 1000;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PasswordHashingService passwordHasher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private FiltroCorreos filtroCorreos;
+
+    @Value("${usuarios.registro-masivo.max-items:5000}")
+    private int maxItems = 5000;
+
+    public RegistroMasivoDTO registrar(List<Usuario> usuarios) {
+        if (usuarios == null || usuarios.isEmpty()) {
+            throw new RuntimeException("La lista de usuarios está vacía");
+        }
+        if (usuarios.size() > maxItems) {
+            throw new RuntimeException("Máximo " + maxItems + " usuarios por solicitud");
+        }
+
+        ResultadoRegistroDTO[] resultados = new ResultadoRegistroDTO[usuarios.size()];
+        List<Integer> validos = validar(usuarios, resultados);
+        descartarCorreosExistentes(usuarios, validos, resultados);
+
+        // Contraseña y las dos respuestas de cada usuario: 3 hashes por fila, todos en el pool
+        List<String> secretos = new ArrayList<>(validos.size() * 3);
+        for (int i : validos) {
+            Usuario u = usuarios.get(i);
+            secretos.add(u.getContrasena());
+            secretos.add(u.getRespuestaSeguridad1());
+            secretos.add(u.getRespuestaSeguridad2());
+        }
+        List<String> hashes = passwordHasher.encodeTodos(secretos);
+        for (int k = 0; k < validos.size(); k++) {
+            Usuario u = usuarios.get(validos.get(k));
+            u.setContrasena(hashes.get(3 * k));
+            u.setRespuestaSeguridad1(hashes.get(3 * k + 1));
+            u.setRespuestaSeguridad2(hashes.get(3 * k + 2));
+        }
+
+        for (int inicio = 0; inicio < validos.size(); inicio += TAMANO_LOTE) {
+            insertarLote(usuarios, validos.subList(inicio, Math.min(inicio + TAMANO_LOTE, validos.size())), resultados);
+        }
+
+        int creados = 0;
+        for (ResultadoRegistroDTO r : resultados) {
+            if (r.getId() != null) creados++;
+        }
+        return RegistroMasivoDTO.builder()
+                .creados(creados)
+                .rechazados(resultados.length - creados)
+                .resultados(List.of(resultados))
+                .build();
+    }
+
+    // Reglas por fila y correos repetidos dentro de la misma solicitud
+    private List<Integer> validar(List<Usuario> usuarios, ResultadoRegistroDTO[] resultados) {
+        List<Integer> validos = new ArrayList<>(usuarios.size());
+        Set<String> vistos = new HashSet<>();
+        for (int i = 0; i < usuarios.size(); i++) {
+            Usuario usuario = usuarios.get(i);
+            try {
+                if (usuario == null) throw new RuntimeException("Elemento vacío");
+                usuarioService.validarRegistro(usuario);
+                if (!vistos.add(usuario.getCorreo())) {
+                    throw new RuntimeException("Correo repetido en la solicitud");
+                }
+                validos.add(i);
+            } catch (RuntimeException e) {
+                resultados[i] = rechazado(i, usuario, e.getMessage());
+            }
+        }
+        return validos;
+    }
+
+    private void descartarCorreosExistentes(List<Usuario> usuarios, List<Integer> validos,
+                                            ResultadoRegistroDTO[] resultados) {
+        List<String> correos = new ArrayList<>(validos.size());
+        for (int i : validos) {
+            correos.add(usuarios.get(i).getCorreo());
+        }
+        Set<String> existentes = new HashSet<>();
+        for (int inicio = 0; inicio < correos.size(); inicio += TAMANO_IN) {
+            existentes.addAll(usuarioRepository.findCorreosExistentes(
+                    correos.subList(inicio, Math.min(inicio + TAMANO_IN, correos.size()))));
+        }
+        if (existentes.isEmpty()) return;
+
+        validos.removeIf(i -> {
+            if (!existentes.contains(usuarios.get(i).getCorreo())) return false;
+            resultados[i] = rechazado(i, usuarios.get(i), "El correo ya está registrado");
+            return true;
+        });
+    }
+
+    private void insertarLote(List<Usuario> usuarios, List<Integer> lote, ResultadoRegistroDTO[] resultados) {
+        for (int i : lote) {
+            filtroCorreos.agregar(usuarios.get(i).getCorreo());
+        }
+        try {
+            List<Integer> ids = transactionTemplate.execute(status -> insertar(usuarios, lote));
+            for (int k = 0; k < lote.size(); k++) {
+                int i = lote.get(k);
+                resultados[i] = creado(i, usuarios.get(i), ids.get(k));
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Otro proceso registró alguno de estos correos entre la validación y el INSERT:
+            // se reintenta fila a fila para identificar cuáles fallan. Otra violación
+            // (NOT NULL, clave foránea) no es un conflicto de correo y se propaga.
+            if (!UsuarioService.esCorreoDuplicado(e)) throw e;
+            log.debug("Lote con conflicto, se inserta fila a fila: {}", e.getMessage());
+            for (int i : lote) {
+                try {
+                    resultados[i] = creado(i, usuarios.get(i), insertar(usuarios, List.of(i)).get(0));
+                } catch (DataIntegrityViolationException fila) {
+                    if (!UsuarioService.esCorreoDuplicado(fila)) throw fila;
+                    resultados[i] = rechazado(i, usuarios.get(i), "El correo ya está registrado");
+                }
+            }
+        }
+    }
+
+    private List<Integer> insertar(List<Usuario> usuarios, List<Integer> lote) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int k) throws SQLException {
+                        Usuario u = usuarios.get(lote.get(k));
+                        ps.setString(1, u.getNombre());
+                        ps.setString(2, u.getCorreo());
+                        ps.setString(3, u.getContrasena());
+                        ps.setString(4, u.getPreguntaSeguridad1());
+                        ps.setString(5, u.getRespuestaSeguridad1());
+                        ps.setString(6, u.getPreguntaSeguridad2());
+                        ps.setString(7, u.getRespuestaSeguridad2());
+                        ps.setObject(8, u.getIdRol(), Types.INTEGER);
+                        ps.setObject(9, u.getIdRegion(), Types.INTEGER);
+                        ps.setObject(10, u.getIdEstado(), Types.INTEGER);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return lote.size();
+                    }
+                },
+                keys);
+
+        // MySQL devuelve la clave como GENERATED_KEY y otros drivers con el nombre de columna
+        List<Integer> ids = new ArrayList<>(lote.size());
+        for (Map<String, Object> fila : keys.getKeyList()) {
+            ids.add(((Number) fila.values().iterator().next()).intValue());
+        }
+        return ids;
+    }
+
+    private static ResultadoRegistroDTO creado(int indice, Usuario usuario, Integer id) {
+        return ResultadoRegistroDTO.builder().indice(indice).correo(usuario.getCorreo()).id(id).build();
+    }
+
+    private static ResultadoRegistroDTO rechazado(int indice, Usuario usuario, String error) {
+        return ResultadoRegistroDTO.builder()
+                .indice(indice)
+                .correo(usuario != null ? usuario.getCorreo() : null)
+                .error(error)
+                .build();
+    }
+}
@@ -1,7 +1,12 @@
 package cl.condor.usuarios_api.service;
 
+import cl.condor.usuarios_api.cache.CatalogoCache;
+import cl.condor.usuarios_api.cache.CatalogoSnapshot;
 import cl.condor.usuarios_api.model.Rol;
 import cl.condor.usuarios_api.repository.RolRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -9,22 +14,55 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 @Service
-@Transactional
 public class RolService {
 
     @Autowired
     private RolRepository rolRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final CatalogoCache<Rol> cache = new CatalogoCache<>(
+            () -> rolRepository.findAll(), Rol::getId, this::serializar);
+
+    @PostConstruct
+    void cargar() {
+        cache.recargar();
+    }
+
     public List<Rol> findAll() {
-        return rolRepository.findAll();
+        return cache.snapshot().todos();
     }
 
     public Rol findById(Integer id) {
-        return rolRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Rol no encontrado"));
+        Rol rol = cache.snapshot().buscar(id);
+        if (rol == null) {
+            throw new RuntimeException("Rol no encontrado");
+        }
+        return rol;
     }
 
+    /** Catálogo completo con su JSON y ETag, para servirlo con caché HTTP. */
+    public CatalogoSnapshot<Rol> snapshot() {
+        return cache.snapshot();
+    }
+
+    public boolean existe(Integer id) {
+        return cache.snapshot().contiene(id);
+    }
+
+    @Transactional
     public Rol save(Rol rol) {
-        return rolRepository.save(rol);
+        Rol guardado = rolRepository.save(rol);
+        cache.recargarTrasCommit();
+        return guardado;
+    }
+
+    private byte[] serializar(List<Rol> lista) {
+        try {
+            return objectMapper.writeValueAsBytes(lista);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("No se pudo serializar el catálogo", e);
+        }
     }
 }
@@ -0,0 +1,57 @@
+package cl.condor.usuarios_api.service;
+
+import cl.condor.usuarios_api.dto.UsuarioResumenDTO;
+import cl.condor.usuarios_api.repository.UsuarioRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class UsuarioExportService {
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Escribe los usuarios (sin foto ni datos de seguridad) como NDJSON:
+     * un objeto JSON por línea. Se recorre un Stream de la BD fila a fila,
+     * por lo que la memoria usada no depende del tamaño de la tabla.
+     * Los filtros son opcionales (null = sin filtro).
+     *
+     * @return cantidad de usuarios exportados
+     */
+    @Transactional(readOnly = true)
+    public long exportar(Integer idRegion, Integer idRol, Integer idEstado, OutputStream out) throws IOException {
+        long total = 0;
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // El stream de salida lo cierra el contenedor, no Jackson
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Sin separador entre objetos raíz: el salto de línea lo ponemos nosotros
+        generator.setRootValueSeparator(null);
+
+        try (Stream<UsuarioResumenDTO> usuarios = usuarioRepository.streamResumen(idRegion, idRol, idEstado)) {
+            Iterator<UsuarioResumenDTO> it = usuarios.iterator();
+            while (it.hasNext()) {
+                generator.writeObject(it.next());
+                generator.writeRaw('\n');
+                total++;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            generator.close();
+        }
+        return total;
+    }
+}
@@ -1,28 +1,65 @@
 package cl.condor.usuarios_api.service;
 
+import cl.condor.usuarios_api.cache.FiltroCorreos;
+import cl.condor.usuarios_api.cache.PerfilCache;
+import cl.condor.usuarios_api.dto.FotoProcesada;
 import cl.condor.usuarios_api.dto.LoginDTO;
+import cl.condor.usuarios_api.dto.LookupDTO;
+import cl.condor.usuarios_api.dto.LookupResultadoDTO;
+import cl.condor.usuarios_api.dto.PaginaUsuariosDTO;
 import cl.condor.usuarios_api.dto.PreguntasResponseDTO; 
 import cl.condor.usuarios_api.dto.RecuperacionDTO;    
+import cl.condor.usuarios_api.dto.TokenDTO;
 import cl.condor.usuarios_api.dto.UsuarioDTO;
+import cl.condor.usuarios_api.dto.UsuarioResumenDTO;
+import cl.condor.usuarios_api.exception.ServicioSaturadoException;
 import cl.condor.usuarios_api.model.Usuario;
 import cl.condor.usuarios_api.repository.EstadoRepository;
-import cl.condor.usuarios_api.repository.RegionRepository;
-import cl.condor.usuarios_api.repository.RolRepository;
 import cl.condor.usuarios_api.repository.UsuarioRepository;
+import cl.condor.usuarios_api.security.TokenClaims;
+import cl.condor.usuarios_api.security.TokenService;
 import jakarta.persistence.*;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+@Slf4j
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class UsuarioService {
 
+    // Límites del listado paginado
+    public static final int PAGINA_SIZE_DEFECTO = 50;
+    public static final int PAGINA_SIZE_MAXIMO = 200;
+
+    // Índice único de usuario.correo (V3__indices_usuario.sql)
+    static final String INDICE_CORREO = "ux_usuario_correo";
+
+    // Máximo de ids + correos por búsqueda masiva (mantiene acotado el IN)
+    @Value("${usuarios.lookup.max-items:500}")
+    private int lookupMaxItems = 500;
+
     @Autowired
     private UsuarioRepository usuarioRepository;
 
@@ -30,20 +67,70 @@ public class UsuarioService {
     private EstadoRepository estadoRepository;
 
     @Autowired
-    private RegionRepository regionRepository;
+    private RegionService regionService;
+
+    @Autowired
+    private RolService rolService;
+
+    @Autowired
+    private FotoPerfilService fotoPerfilService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private AcumuladorRecorridos acumuladorRecorridos;
+
+    @Autowired
+    private PerfilCache perfilCache;
+
+    @Autowired
+    private FiltroCorreos filtroCorreos;
 
+    // Latencia por operación y resultado (/actuator/prometheus)
     @Autowired
-    private RolRepository rolRepository;
+    private MetricasUsuarios metricas;
 
-    // Inyección del encoder de contraseñas
-    private final PasswordEncoder encoder;
+    // Hash y verificación de contraseñas (pool acotado, fuera de los hilos de Tomcat)
+    private final PasswordHashingService passwordHasher;
+
+    /**
+     * Forma canónica del correo (sin espacios y en minúsculas), la misma que guarda
+     * la migración V3; todas las búsquedas por correo pasan por aquí para usar el índice único.
+     */
+    public static String normalizarCorreo(String correo) {
+        return correo == null ? null : correo.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * true si la violación de integridad es la del índice único ux_usuario_correo
+     * (MySQL 1062 / SQLState 23505 sobre ese índice). Cualquier otra (NOT NULL, claves
+     * foráneas, otro índice) no es un correo duplicado y se debe propagar.
+     */
+    public static boolean esCorreoDuplicado(DataIntegrityViolationException e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof SQLException sql
+                    && (sql.getErrorCode() == 1062 || "23505".equals(sql.getSQLState()))
+                    && sql.getMessage() != null
+                    && sql.getMessage().toLowerCase(Locale.ROOT).contains(INDICE_CORREO)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Forma en que se guardan (hasheadas) y se comparan las respuestas de seguridad
+    public static String normalizarRespuesta(String respuesta) {
+        return respuesta == null ? "" : respuesta.trim().toLowerCase();
+    }
 
     public UsuarioDTO mapToDTO(Usuario usuario) {
         return UsuarioDTO.builder()
                 .id(usuario.getId())
                 .nombre(usuario.getNombre())
                 .correo(usuario.getCorreo())
-                .fotoPerfil(usuario.getFotoPerfil())
+                .fotoUrl(usuario.getFotoHash() != null ? "/api/v1/usuarios/" + usuario.getId() + "/foto" : null)
+                .fotoHash(usuario.getFotoHash())
                 .rutasRecorridas(usuario.getRutasRecorridas())
                 .kmRecorridos(usuario.getKmRecorridos())
                 .idRol(usuario.getIdRol())
@@ -52,13 +139,119 @@ public class UsuarioService {
                 .build();
     }
 
-    public List<Usuario> findAll() {
-        return usuarioRepository.findAll();
+    /**
+     * Listado paginado por cursor (keyset sobre id_usuario).
+     * Se pide un registro extra para saber si existe una página siguiente
+     * sin tener que hacer un COUNT(*).
+     */
+    @Transactional(readOnly = true)
+    public PaginaUsuariosDTO findPagina(Integer cursor, Integer size) {
+        int desde = (cursor == null || cursor < 0) ? 0 : cursor;
+        int limite = (size == null || size <= 0) ? PAGINA_SIZE_DEFECTO : Math.min(size, PAGINA_SIZE_MAXIMO);
+
+        List<UsuarioResumenDTO> filas = usuarioRepository.findResumenDesde(desde, PageRequest.of(0, limite + 1));
+
+        Integer next = null;
+        if (filas.size() > limite) {
+            filas = filas.subList(0, limite);
+            next = filas.get(limite - 1).getId();
+        }
+
+        return PaginaUsuariosDTO.builder()
+                .usuarios(filas)
+                .size(filas.size())
+                .next(next)
+                .build();
     }
 
     public Usuario findById(Integer id) {
-        return usuarioRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        return metricas.medir("findById", () -> usuarioRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado")));
+    }
+
+    // ---------------------------------------------------------
+    // PERFILES (GET /{id} y GET /buscar) a través de PerfilCache.
+    // SUPPORTS: un acierto de caché no abre transacción ni pide conexión al pool.
+    // ---------------------------------------------------------
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public UsuarioDTO findPerfilById(Integer id) {
+        return metricas.medir("findPerfilById", () -> perfilPorId(id));
+    }
+
+    private UsuarioDTO perfilPorId(Integer id) {
+        UsuarioDTO perfil = perfilCache.porId(id,
+                clave -> usuarioRepository.findById(clave).map(this::mapToDTO).orElse(null));
+        if (perfil == null) {
+            throw new RuntimeException("Usuario no encontrado");
+        }
+        return perfil;
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public UsuarioDTO findPerfilByCorreo(String correo) {
+        return metricas.medir("findPerfilByCorreo", () -> perfilPorCorreo(correo));
+    }
+
+    private UsuarioDTO perfilPorCorreo(String correo) {
+        String normalizado = normalizarCorreo(correo);
+        if (!filtroCorreos.puedeExistir(normalizado)) {
+            throw new RuntimeException("Usuario no encontrado con correo: " + correo);
+        }
+        UsuarioDTO perfil = perfilCache.porCorreo(normalizado,
+                clave -> usuarioRepository.findByCorreo(clave).map(this::mapToDTO).orElse(null));
+        if (perfil == null) {
+            throw new RuntimeException("Usuario no encontrado con correo: " + correo);
+        }
+        return perfil;
+    }
+
+    /**
+     * Búsqueda masiva para otros microservicios: resuelve todos los ids y correos con una
+     * sola consulta IN sobre la proyección liviana. Los que no existen se informan en la
+     * respuesta en vez de fallar la llamada.
+     */
+    @Transactional(readOnly = true)
+    public LookupResultadoDTO buscarVarios(LookupDTO solicitud) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        if (solicitud.getIds() != null) {
+            for (Integer id : solicitud.getIds()) {
+                if (id != null) ids.add(id);
+            }
+        }
+        Set<String> correos = new LinkedHashSet<>();
+        if (solicitud.getCorreos() != null) {
+            for (String correo : solicitud.getCorreos()) {
+                if (correo != null && !correo.isBlank()) correos.add(normalizarCorreo(correo));
+            }
+        }
+        if (ids.size() + correos.size() > lookupMaxItems) {
+            throw new RuntimeException("Máximo " + lookupMaxItems + " ids y correos por solicitud");
+        }
+
+        List<UsuarioResumenDTO> filas;
+        if (ids.isEmpty() && correos.isEmpty()) {
+            filas = List.of();
+        } else if (correos.isEmpty()) {
+            filas = usuarioRepository.findResumenPorIds(ids);
+        } else if (ids.isEmpty()) {
+            filas = usuarioRepository.findResumenPorCorreos(correos);
+        } else {
+            filas = usuarioRepository.findResumenPorIdsOCorreos(ids, correos);
+        }
+
+        Map<Integer, UsuarioResumenDTO> usuarios = new LinkedHashMap<>();
+        Set<String> correosEncontrados = new HashSet<>();
+        for (UsuarioResumenDTO fila : filas) {
+            usuarios.put(fila.getId(), fila);
+            correosEncontrados.add(fila.getCorreo());
+        }
+
+        return LookupResultadoDTO.builder()
+                .usuarios(usuarios)
+                .idsNoEncontrados(ids.stream().filter(id -> !usuarios.containsKey(id)).toList())
+                .correosNoEncontrados(correos.stream().filter(c -> !correosEncontrados.contains(c)).toList())
+                .build();
     }
 
     // ---------------------------------------------------------
@@ -66,11 +259,48 @@ public class UsuarioService {
     // ---------------------------------------------------------
     @Transactional
     public Usuario save(Usuario usuario) {
-        // Validaciones de claves foráneas
-        if (usuario.getIdRegion() == null || !regionRepository.existsById(usuario.getIdRegion())) {
+        return metricas.medir("save", () -> registrar(usuario));
+    }
+
+    private Usuario registrar(Usuario usuario) {
+        validarRegistro(usuario);
+        // Contraseña y respuestas de seguridad se hashean a la vez en el pool
+        List<String> hashes = passwordHasher.encodeTodos(List.of(
+                usuario.getContrasena(), usuario.getRespuestaSeguridad1(), usuario.getRespuestaSeguridad2()));
+        usuario.setContrasena(hashes.get(0));
+        usuario.setRespuestaSeguridad1(hashes.get(1));
+        usuario.setRespuestaSeguridad2(hashes.get(2));
+        // Antes del INSERT: un login inmediatamente posterior no debe descartarse en el filtro
+        filtroCorreos.agregar(usuario.getCorreo());
+        Usuario guardado;
+        try {
+            guardado = usuarioRepository.save(usuario);
+        } catch (DataIntegrityViolationException e) {
+            // Lo garantiza el índice único ux_usuario_correo, sin SELECT previo
+            if (esCorreoDuplicado(e)) throw new RuntimeException("El correo ya está registrado");
+            throw e;
+        }
+        perfilCache.invalidar(guardado.getId());
+        return guardado;
+    }
+
+    /**
+     * Reglas de registro compartidas por el alta individual y la masiva.
+     * Normaliza correo y respuestas sobre el mismo objeto (el hash lo hace quien
+     * llama); no toca la BD.
+     */
+    public void validarRegistro(Usuario usuario) {
+        if (usuario.getCorreo() == null || usuario.getCorreo().isBlank()) {
+            throw new RuntimeException("El correo es obligatorio");
+        }
+        if (usuario.getContrasena() == null || usuario.getContrasena().isEmpty()) {
+            throw new RuntimeException("La contraseña es obligatoria");
+        }
+        // Validaciones de claves foráneas (contra el catálogo en memoria, sin ir a la BD)
+        if (!regionService.existe(usuario.getIdRegion())) {
             throw new RuntimeException("La región es obligatoria, no se puede guardar el Usuario");
         }
-        if (usuario.getIdRol() == null || !rolRepository.existsById(usuario.getIdRol())) {
+        if (!rolService.existe(usuario.getIdRol())) {
             throw new RuntimeException("Rol no encontrado, no se puede guardar el Usuario");
         }
 
@@ -89,90 +319,178 @@ public class UsuarioService {
             throw new RuntimeException("Por favor seleccione dos preguntas diferentes.");
         }
 
-        // NORMALIZACIÓN: Guardamos respuestas en minúsculas y sin espacios extra
-        usuario.setRespuestaSeguridad1(usuario.getRespuestaSeguridad1().trim().toLowerCase());
-        usuario.setRespuestaSeguridad2(usuario.getRespuestaSeguridad2().trim().toLowerCase());
+        // NORMALIZACIÓN: respuestas en minúsculas y sin espacios extra (así se hashean)
+        usuario.setRespuestaSeguridad1(normalizarRespuesta(usuario.getRespuestaSeguridad1()));
+        usuario.setRespuestaSeguridad2(normalizarRespuesta(usuario.getRespuestaSeguridad2()));
         // Las preguntas se guardan tal cual vienen del ComboBox
         // ----------------------------------------
 
-        usuario.setContrasena(encoder.encode(usuario.getContrasena()));
-        return usuarioRepository.save(usuario);
+        usuario.setCorreo(normalizarCorreo(usuario.getCorreo()));
     }
 
     // ---------------------------------------------------------
-    // MÉTODOS DE ACTUALIZACIÓN EXISTENTES (Sin cambios)
+    // ACTUALIZACIONES PARCIALES (PATCH)
+    // Un UPDATE por campo, sin cargar la entidad. Si no se afectó
+    // ninguna fila es porque el usuario no existe.
     // ---------------------------------------------------------
 
     @Transactional
-    public Usuario updateNombre(Integer id, String nuevoNombre) {
-        Usuario usuario = usuarioRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        usuario.setNombre(nuevoNombre);
-        return usuarioRepository.save(usuario);
+    public void updateNombre(Integer id, String nuevoNombre) {
+        verificarActualizado(usuarioRepository.actualizarNombre(id, nuevoNombre));
+        perfilCache.invalidar(id);
     }
 
-
     @Transactional
-    public Usuario updateCorreo(Integer id, String nuevoCorreo) {
-        Usuario usuario = usuarioRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        usuario.setCorreo(nuevoCorreo);
-        return usuarioRepository.save(usuario);
+    public void updateCorreo(Integer id, String nuevoCorreo) {
+        String normalizado = normalizarCorreo(nuevoCorreo);
+        filtroCorreos.agregar(normalizado);
+        int filas;
+        try {
+            filas = usuarioRepository.actualizarCorreo(id, normalizado);
+        } catch (DataIntegrityViolationException e) {
+            if (esCorreoDuplicado(e)) throw new RuntimeException("El correo ya está registrado");
+            throw e;
+        }
+        verificarActualizado(filas);
+        perfilCache.invalidar(id);
     }
 
     @Transactional
-    public Usuario updateRegion(Integer id, Integer nuevaRegion) {
-        Usuario usuario = usuarioRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        usuario.setIdRegion(nuevaRegion);
-        return usuarioRepository.save(usuario);
+    public void updateRegion(Integer id, Integer nuevaRegion) {
+        if (!regionService.existe(nuevaRegion)) {
+            throw new RuntimeException("Región no encontrada");
+        }
+        verificarActualizado(usuarioRepository.actualizarRegion(id, nuevaRegion));
+        perfilCache.invalidar(id);
     }
 
     @Transactional
-    public Usuario updateRutasRecorridas(Integer id, Integer nuevasRutas) {
-        Usuario usuario = usuarioRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        usuario.setRutasRecorridas(nuevasRutas);
-        return usuarioRepository.save(usuario);
+    public void updateRutasRecorridas(Integer id, Integer nuevasRutas) {
+        verificarActualizado(usuarioRepository.actualizarRutasRecorridas(id, nuevasRutas));
+        perfilCache.invalidar(id);
     }
 
-    public void login(LoginDTO loginDTO) {
-        Usuario usuario = usuarioRepository.findByCorreo(loginDTO.getCorreo())
-                .orElseThrow(() -> new RuntimeException("Credenciales invalidas"));
+    /**
+     * Suma rutas y km al usuario con un UPDATE atómico (columna = columna + ?).
+     * Con usuarios.recorridos.write-behind=true el incremento se acumula en memoria
+     * y se escribe en el siguiente flush; en ese caso no se puede informar si el
+     * usuario existe.
+     * @return true si ya quedó escrito en la BD, false si quedó pendiente en el acumulador
+     */
+    @Transactional
+    public boolean registrarRecorrido(Integer id, Integer rutas, BigDecimal km) {
+        int sumaRutas = rutas == null ? 0 : rutas;
+        BigDecimal sumaKm = (km == null ? BigDecimal.ZERO : km).setScale(2, RoundingMode.HALF_UP);
+        if (sumaRutas < 0 || sumaKm.signum() < 0 || (sumaRutas == 0 && sumaKm.signum() == 0)) {
+            throw new RuntimeException("Incremento inválido");
+        }
 
-        if (!encoder.matches(loginDTO.getPassword(), usuario.getContrasena())){
-            throw new RuntimeException("Credenciales invalidas");
+        if (acumuladorRecorridos.acumular(id, sumaRutas, sumaKm)) {
+            return false;
         }
+        verificarActualizado(usuarioRepository.incrementarRecorridos(id, sumaRutas, sumaKm));
+        perfilCache.invalidar(id);
+        return true;
     }
-    
-    public Usuario findByCorreo(String correo) {
-        return usuarioRepository.findByCorreo(correo)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con correo: " + correo));
+
+    private static void verificarActualizado(int filas) {
+        if (filas == 0) {
+            throw new RuntimeException("Usuario no encontrado");
+        }
     }
-    
-    @Transactional
-    public Usuario updateFoto(Integer id, String fotoBase64) {
-        Usuario usuario = usuarioRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        if (fotoBase64 == null || fotoBase64.trim().isEmpty()) {
-            throw new RuntimeException("La foto no puede estar vacía");
+    /**
+     * La búsqueda en BD se hace en el hilo actual; la verificación BCrypt se
+     * delega al pool de hashing y el resultado llega en el CompletableFuture,
+     * así el hilo de Tomcat queda libre mientras se verifica.
+     * Si las credenciales son válidas se emiten los tokens de acceso y refresco,
+     * para que el cliente no tenga que volver a enviar la contraseña.
+     */
+    public CompletableFuture<TokenDTO> login(LoginDTO loginDTO) {
+        return metricas.medirAsync("login", () -> autenticar(loginDTO));
+    }
+
+    private CompletableFuture<TokenDTO> autenticar(LoginDTO loginDTO) {
+        String correo = normalizarCorreo(loginDTO.getCorreo());
+        Usuario usuario = metricas.medirFase("busqueda", () -> filtroCorreos.puedeExistir(correo)
+                ? usuarioRepository.findByCorreo(correo).orElse(null)
+                : null);
+        if (usuario == null) {
+            // Misma verificación BCrypt que un login real: el tiempo de respuesta no revela si el correo existe
+            return metricas.medirFaseAsync("verificacion", passwordHasher.verificarFicticio(loginDTO.getPassword()))
+                    .thenApply(coincide -> {
+                        throw new RuntimeException("Credenciales invalidas");
+                    });
         }
 
-        try {
-            String cleanBase64 = fotoBase64;
-            if (fotoBase64.contains(",")) {
-                cleanBase64 = fotoBase64.split(",")[1]; 
-            }
-            cleanBase64 = cleanBase64.replaceAll("\\s", "");
-            byte[] fotoBytes = java.util.Base64.getDecoder().decode(cleanBase64);
-            usuario.setFotoPerfil(fotoBytes);
-            return usuarioRepository.save(usuario);
+        String hashActual = usuario.getContrasena();
+        return metricas.medirFaseAsync("verificacion", passwordHasher.matchesAsync(loginDTO.getPassword(), hashActual))
+                .thenApply(coincide -> {
+                    if (!coincide) {
+                        throw new RuntimeException("Credenciales invalidas");
+                    }
+                    if (passwordHasher.necesitaRehash(hashActual)) {
+                        rehashEnSegundoPlano(usuario.getId(), loginDTO.getPassword(), hashActual);
+                    }
+                    return tokenService.emitir(usuario);
+                });
+    }
+
+    /**
+     * Canjea un refresh token vigente por un nuevo par de tokens.
+     * Se relee el usuario (por PK) para no renovar tokens de usuarios eliminados.
+     */
+    public TokenDTO refrescarToken(String refreshToken) {
+        TokenClaims claims = tokenService.validar(refreshToken, TokenService.TIPO_REFRESCO);
+        Usuario usuario = usuarioRepository.findById(claims.getIdUsuario())
+                .orElseThrow(() -> new RuntimeException("Token invalido"));
+        return tokenService.emitir(usuario);
+    }
 
-        } catch (IllegalArgumentException e) {
-            throw new RuntimeException("El string enviado no es un Base64 válido: " + e.getMessage());
+    // El hash se actualiza al algoritmo/coste vigente sin demorar la respuesta del login.
+    // Si falla (o el pool está saturado) se reintentará en el próximo login.
+    private void rehashEnSegundoPlano(Integer id, String password, String hashAnterior) {
+        try {
+            passwordHasher.encodeAsync(password)
+                    .thenAccept(nuevo -> usuarioRepository.actualizarContrasena(id, hashAnterior, nuevo))
+                    .exceptionally(e -> {
+                        log.warn("No se pudo actualizar el hash del usuario {}: {}", id, e.getMessage());
+                        return null;
+                    });
+        } catch (ServicioSaturadoException e) {
+            log.debug("Re-hash del usuario {} postergado: pool saturado", id);
         }
     }
+    
+    public Usuario findByCorreo(String correo) {
+        return metricas.medir("findByCorreo", () -> {
+            String normalizado = normalizarCorreo(correo);
+            if (!filtroCorreos.puedeExistir(normalizado)) {
+                throw new RuntimeException("Usuario no encontrado con correo: " + correo);
+            }
+            return usuarioRepository.findByCorreo(normalizado)
+                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado con correo: " + correo));
+        });
+    }
+    
+    /**
+     * Guarda la foto ya procesada (leída, validada y con miniaturas) fuera de la transacción
+     * por ProcesadorFotos. Aquí solo se escribe en la BD.
+     */
+    @Transactional
+    public UsuarioDTO updateFoto(Integer id, FotoProcesada foto) {
+        return metricas.medir("updateFoto", () -> {
+            // En la fila del usuario solo queda el hash: UPDATE de esa columna, como los demás PATCH.
+            // Va primero para no escribir la foto de un usuario inexistente
+            verificarActualizado(usuarioRepository.actualizarFotoHash(id, foto.getHash()));
+            fotoPerfilService.guardar(id, foto);
+            perfilCache.invalidar(id);
+            metricas.registrarTamanoFoto(foto.getContenido().length);
+            // La respuesta es el perfil completo: lectura por PK de la fila, que ya no lleva el blob
+            return usuarioRepository.findById(id).map(this::mapToDTO)
+                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        });
+    }
 
     // ========================================================================
     //  NUEVAS FUNCIONALIDADES DE RECUPERACIÓN DE CONTRASEÑA
@@ -183,7 +501,11 @@ public class UsuarioService {
      * El frontend llamará a esto cuando el usuario ponga su correo en "Recuperar Clave".
      */
     public PreguntasResponseDTO obtenerPreguntasSeguridad(String correo) {
-        Usuario usuario = usuarioRepository.findByCorreo(correo)
+        String normalizado = normalizarCorreo(correo);
+        if (!filtroCorreos.puedeExistir(normalizado)) {
+            throw new RuntimeException("Usuario no encontrado con ese correo.");
+        }
+        Usuario usuario = usuarioRepository.findByCorreo(normalizado)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ese correo."));
 
         // Verificamos si tiene las preguntas configuradas
@@ -201,11 +523,22 @@ public class UsuarioService {
     /**
      * PASO 2: Validar respuestas y cambiar contraseña.
      * Recibe el DTO con correo, respuestas del usuario y nueva pass.
+     * Las dos respuestas se verifican a la vez en el pool de hashing (fuera del hilo de
+     * la petición) y se combinan sin cortocircuito, así el tiempo de respuesta no revela
+     * cuál falló. Si ambas coinciden se hashea y guarda la nueva contraseña.
      */
-    @Transactional
-    public void recuperarContrasena(RecuperacionDTO dto) {
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CompletableFuture<Void> recuperarContrasena(RecuperacionDTO dto) {
+        return metricas.medirAsync("recuperarContrasena", () -> recuperar(dto));
+    }
+
+    private CompletableFuture<Void> recuperar(RecuperacionDTO dto) {
         // 1. Buscar Usuario
-        Usuario usuario = usuarioRepository.findByCorreo(dto.getCorreo())
+        String correo = normalizarCorreo(dto.getCorreo());
+        if (!filtroCorreos.puedeExistir(correo)) {
+            throw new RuntimeException("Usuario no encontrado.");
+        }
+        Usuario usuario = usuarioRepository.findByCorreo(correo)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado."));
 
         // 2. Verificar que existan datos guardados en BD
@@ -213,29 +546,40 @@ public class UsuarioService {
             throw new RuntimeException("Error de integridad: Usuario sin respuestas configuradas.");
         }
 
-        // 3. Preparar respuestas enviadas por el usuario (limpiar y minúsculas)
-        String respuestaEnviada1 = dto.getRespuestaSeguridad1() != null ? dto.getRespuestaSeguridad1().trim().toLowerCase() : "";
-        String respuestaEnviada2 = dto.getRespuestaSeguridad2() != null ? dto.getRespuestaSeguridad2().trim().toLowerCase() : "";
-
-        // 4. Recuperar respuestas reales de la BD (ya están en minúsculas desde el save)
-        String respuestaReal1 = usuario.getRespuestaSeguridad1();
-        String respuestaReal2 = usuario.getRespuestaSeguridad2();
-
-        // 5. COMPARACIÓN EXACTA
-        boolean respuesta1Correcta = respuestaReal1.equals(respuestaEnviada1);
-        boolean respuesta2Correcta = respuestaReal2.equals(respuestaEnviada2);
-
-        if (!respuesta1Correcta || !respuesta2Correcta) {
-            throw new RuntimeException("Una o ambas respuestas de seguridad son incorrectas.");
-        }
-
-        // 6. Validar la nueva contraseña
+        // 3. Validar la nueva contraseña (antes de gastar BCrypt en las respuestas)
         if (dto.getNuevaPassword() == null || dto.getNuevaPassword().length() < 4) {
              throw new RuntimeException("La nueva contraseña debe tener al menos 4 caracteres.");
         }
 
-        // 7. Todo OK -> Hashear y guardar nueva contraseña
-        usuario.setContrasena(encoder.encode(dto.getNuevaPassword()));
-        usuarioRepository.save(usuario);
+        // 4. Verificar ambas respuestas en paralelo; '&' evalúa las dos siempre
+        CompletableFuture<Boolean> respuesta1 = verificarRespuesta(dto.getRespuestaSeguridad1(), usuario.getRespuestaSeguridad1());
+        CompletableFuture<Boolean> respuesta2 = verificarRespuesta(dto.getRespuestaSeguridad2(), usuario.getRespuestaSeguridad2());
+
+        // 5. Todo OK -> Hashear y guardar la nueva contraseña (solo si no cambió entretanto)
+        Integer id = usuario.getId();
+        String hashAnterior = usuario.getContrasena();
+        return respuesta1.thenCombine(respuesta2, (ok1, ok2) -> ok1 & ok2)
+                .thenCompose(correctas -> {
+                    if (!correctas) {
+                        throw new RuntimeException("Una o ambas respuestas de seguridad son incorrectas.");
+                    }
+                    return passwordHasher.encodeAsync(dto.getNuevaPassword());
+                })
+                .thenAccept(nuevoHash -> {
+                    if (usuarioRepository.actualizarContrasena(id, hashAnterior, nuevoHash) == 0) {
+                        throw new RuntimeException("La contraseña cambió durante la recuperación, intente nuevamente.");
+                    }
+                    perfilCache.invalidar(id);
+                });
+    }
+
+    private CompletableFuture<Boolean> verificarRespuesta(String enviada, String guardada) {
+        String normalizada = normalizarRespuesta(enviada);
+        if (PasswordHashingService.esHash(guardada)) {
+            return passwordHasher.matchesAsync(normalizada, guardada);
+        }
+        // Fila aún no migrada por MigracionRespuestasSeguridad: texto plano, comparación en tiempo constante
+        return CompletableFuture.completedFuture(MessageDigest.isEqual(
+                normalizada.getBytes(StandardCharsets.UTF_8), guardada.getBytes(StandardCharsets.UTF_8)));
     }
 }
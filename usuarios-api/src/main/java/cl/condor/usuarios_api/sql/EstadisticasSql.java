@@ -0,0 +1,200 @@
+package cl.condor.usuarios_api.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener de datasource-proxy (ver ProxyDataSourceConfig): acumula por petición HTTP
+ * las sentencias ejecutadas y el tiempo en JDBC, en un ThreadLocal que abre y cierra
+ * EstadisticasSqlFilter.
+ *
+ * - Las filas leídas solo se cuentan con usuarios.sql.contar-filas=true: exige envolver
+ *   cada ResultSet e interceptar cada llamada JDBC, un costo que no se paga por defecto.
+ *   Sin ella no se publica usuarios.sql.filas ni va "filas" en la cabecera.
+ *
+ * - Las sentencias que superan usuarios.sql.lenta (en cualquier hilo) se registran en
+ *   el log con su duración; reemplaza a show-sql, que escribía todas.
+ * - Si un mismo SELECT se repite usuarios.sql.n-mas-uno.repeticiones veces o más en una
+ *   petición, se informa como posible N+1.
+ *
+ * Solo se mide el hilo de la petición: lo que corre en el pool de BCrypt o en tareas
+ * programadas cuenta para el log de lentas, no para la petición.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "usuarios.sql.estadisticas.habilitado", havingValue = "true", matchIfMissing = true)
+public class EstadisticasSql implements QueryExecutionListener, MethodExecutionListener {
+
+    /** Contadores de una petición; solo los toca el hilo que la atiende. */
+    @Getter
+    public static class Peticion {
+        private int sentencias;
+        private long tiempoNanos;
+        private long filas;
+        private final Map<String, Integer> selectsRepetidos = new HashMap<>();
+    }
+
+    // Clave en ExecutionInfo del System.nanoTime() tomado en beforeQuery
+    static final String INICIO = "estadisticas.inicio";
+
+    private final ThreadLocal<Peticion> actual = new ThreadLocal<>();
+    private final long umbralLentaMs;
+    private final int repeticionesNMasUno;
+    private final boolean contarFilas;
+
+    private final DistributionSummary sentenciasPorPeticion;
+    private final Timer tiempoPorPeticion;
+    // null si no se cuentan filas
+    private final DistributionSummary filasPorPeticion;
+    private final Counter lentas;
+    private final Counter nMasUno;
+
+    @Autowired
+    public EstadisticasSql(@Value("${usuarios.sql.lenta:200ms}") Duration umbralLenta,
+                           @Value("${usuarios.sql.n-mas-uno.repeticiones:10}") int repeticionesNMasUno,
+                           @Value("${usuarios.sql.contar-filas:false}") boolean contarFilas,
+                           MeterRegistry registry) {
+        this.umbralLentaMs = umbralLenta.toMillis();
+        this.repeticionesNMasUno = repeticionesNMasUno;
+        this.contarFilas = contarFilas;
+        this.sentenciasPorPeticion = DistributionSummary.builder("usuarios.sql.sentencias")
+                .description("Sentencias SQL por petición HTTP")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(1000.0)
+                .register(registry);
+        this.tiempoPorPeticion = Timer.builder("usuarios.sql.tiempo")
+                .description("Tiempo total en JDBC por petición HTTP")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.filasPorPeticion = contarFilas ? DistributionSummary.builder("usuarios.sql.filas")
+                .description("Filas leídas por petición HTTP")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(100_000.0)
+                .register(registry) : null;
+        this.lentas = Counter.builder("usuarios.sql.lentas")
+                .description("Sentencias que superaron usuarios.sql.lenta")
+                .register(registry);
+        this.nMasUno = Counter.builder("usuarios.sql.n-mas-uno")
+                .description("Peticiones con un mismo SELECT repetido (posible N+1)")
+                .register(registry);
+    }
+
+    /** Empieza a acumular para la petición del hilo actual. */
+    public void iniciar() {
+        actual.set(new Peticion());
+    }
+
+    /**
+     * Deja de acumular, publica las métricas y avisa de posibles N+1.
+     * @param descripcion método y ruta, para el log
+     */
+    public Peticion terminar(String descripcion) {
+        Peticion peticion = actual.get();
+        actual.remove();
+        if (peticion == null) return null;
+
+        sentenciasPorPeticion.record(peticion.sentencias);
+        tiempoPorPeticion.record(peticion.tiempoNanos, TimeUnit.NANOSECONDS);
+        if (filasPorPeticion != null) filasPorPeticion.record(peticion.filas);
+        boolean sospechosa = false;
+        for (Map.Entry<String, Integer> entrada : peticion.selectsRepetidos.entrySet()) {
+            if (entrada.getValue() >= repeticionesNMasUno) {
+                sospechosa = true;
+                log.warn("Posible N+1 en {}: {} ejecuciones de {}", descripcion, entrada.getValue(), entrada.getKey());
+            }
+        }
+        if (sospechosa) nMasUno.increment();
+        return peticion;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(INICIO, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // getElapsedTime() viene en ms enteros: una búsqueda por PK de 0,3 ms sumaría 0
+        Long inicio = execInfo.getCustomValue(INICIO, Long.class);
+        long nanos = inicio != null
+                ? System.nanoTime() - inicio
+                : TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+        long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (ms >= umbralLentaMs) {
+            lentas.increment();
+            log.warn("SQL lenta ({} ms{}): {}", ms,
+                    execInfo.isBatch() ? ", batch de " + execInfo.getBatchSize() : "", sql(queryInfoList));
+        }
+
+        Peticion peticion = actual.get();
+        if (peticion == null) return;
+        peticion.sentencias++;
+        peticion.tiempoNanos += nanos;
+        if (!execInfo.isBatch() && queryInfoList.size() == 1) {
+            String sql = queryInfoList.get(0).getQuery();
+            // Sentencia preparada: el texto ya viene con '?', misma consulta = mismo texto
+            if (sql.regionMatches(true, 0, "select", 0, 6)) {
+                peticion.selectsRepetidos.merge(sql, 1, Integer::sum);
+            }
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        // Filas leídas = llamadas a ResultSet.next() que devolvieron true
+        if (executionContext.getTarget() instanceof ResultSet
+                && Boolean.TRUE.equals(executionContext.getResult())
+                && "next".equals(executionContext.getMethod().getName())) {
+            Peticion peticion = actual.get();
+            if (peticion != null) peticion.filas++;
+        }
+    }
+
+    private static String sql(List<QueryInfo> queryInfoList) {
+        return queryInfoList.size() == 1
+                ? queryInfoList.get(0).getQuery()
+                : String.join("; ", queryInfoList.stream().map(QueryInfo::getQuery).toList());
+    }
+
+    /** true si ProxyDataSourceConfig debe envolver los ResultSet para contar filas. */
+    public boolean isContarFilas() {
+        return contarFilas;
+    }
+
+    /** Resumen para la cabecera X-SQL-Stats. */
+    String cabecera(Peticion peticion) {
+        String resumen = String.format(Locale.ROOT, "sentencias=%d;tiempo-ms=%.3f",
+                peticion.sentencias, peticion.tiempoNanos / 1e6);
+        return contarFilas ? resumen + ";filas=" + peticion.filas : resumen;
+    }
+
+    /** Contadores acumulados hasta ahora en el hilo actual (null fuera de una petición). */
+    Peticion enCurso() {
+        return actual.get();
+    }
+}
@@ -0,0 +1,117 @@
+package cl.condor.usuarios_api.sql;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Delimita la petición para EstadisticasSql. Con usuarios.sql.cabecera=true (perfil dev)
+ * agrega X-SQL-Stats: sentencias=N;tiempo-ms=T.ttt[;filas=F] con lo ejecutado
+ * hasta que la respuesta empieza a escribirse (después ya no se pueden agregar cabeceras).
+ * En login/recuperación, lo que corre en el pool de BCrypt no se cuenta.
+ */
+@Component
+@ConditionalOnProperty(name = "usuarios.sql.estadisticas.habilitado", havingValue = "true", matchIfMissing = true)
+public class EstadisticasSqlFilter extends OncePerRequestFilter {
+
+    public static final String CABECERA = "X-SQL-Stats";
+
+    private final EstadisticasSql estadisticas;
+    private final boolean cabecera;
+
+    @Autowired
+    public EstadisticasSqlFilter(EstadisticasSql estadisticas,
+                                 @Value("${usuarios.sql.cabecera:false}") boolean cabecera) {
+        this.estadisticas = estadisticas;
+        this.cabecera = cabecera;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        return ruta.startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        estadisticas.iniciar();
+        try {
+            if (!cabecera) {
+                chain.doFilter(request, response);
+                return;
+            }
+            ConCabecera conCabecera = new ConCabecera(response);
+            chain.doFilter(request, conCabecera);
+            // Respuestas sin cuerpo: el contenedor las confirma después del filtro
+            if (!request.isAsyncStarted()) conCabecera.escribirCabecera();
+        } finally {
+            estadisticas.terminar(request.getMethod() + " " + request.getRequestURI());
+        }
+    }
+
+    /** Escribe la cabecera justo antes de que la respuesta se confirme. */
+    private final class ConCabecera extends HttpServletResponseWrapper {
+
+        private boolean escrita;
+
+        ConCabecera(HttpServletResponse response) {
+            super(response);
+        }
+
+        private void escribirCabecera() {
+            if (escrita || isCommitted()) return;
+            escrita = true;
+            EstadisticasSql.Peticion peticion = estadisticas.enCurso();
+            if (peticion != null) setHeader(CABECERA, estadisticas.cabecera(peticion));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            escribirCabecera();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            escribirCabecera();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            escribirCabecera();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            // 204/304 no escriben cuerpo: la cabecera va con el estado
+            if (sc == SC_NO_CONTENT || sc == SC_NOT_MODIFIED) escribirCabecera();
+            super.setStatus(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            escribirCabecera();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            escribirCabecera();
+            super.sendError(sc);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package cl.condor.usuarios_api.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Envuelve el DataSource (Hikari) con datasource-proxy para que EstadisticasSql vea
+ * cada sentencia. El pool sigue siendo el mismo: unwrap() llega a Hikari, así que sus
+ * métricas y el health check no cambian.
+ * Los ResultSet solo se envuelven con usuarios.sql.contar-filas=true: el listener de
+ * métodos intercepta cada llamada JDBC (next(), getString(), ...) y no va por defecto.
+ * Se desactiva del todo con usuarios.sql.estadisticas.habilitado=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "usuarios.sql.estadisticas.habilitado", havingValue = "true", matchIfMissing = true)
+public class ProxyDataSourceConfig {
+
+    // static y con ObjectProvider: el post-procesador se crea antes que el resto de los
+    // beans y no debe adelantar la creación del listener (ni del MeterRegistry)
+    @Bean
+    static BeanPostProcessor proxyDataSourcePostProcessor(ObjectProvider<EstadisticasSql> estadisticas) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    EstadisticasSql listener = estadisticas.getObject();
+                    ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(listener);
+                    if (listener.isContarFilas()) {
+                        builder.methodListener(listener).proxyResultSet();
+                    }
+                    return builder.build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,15 @@
+-- Tabla propia para las fotos de perfil (con miniaturas) y hash de la foto en la fila
+-- del usuario. Corre antes de V2, que mueve ahí las fotos guardadas en usuario.foto_perfil.
+
+CREATE TABLE foto_perfil (
+    id_usuario     INT NOT NULL,
+    contenido      LONGBLOB NOT NULL,
+    tipo_contenido VARCHAR(50) NOT NULL,
+    hash           VARCHAR(64) NOT NULL,
+    tamano         INT NOT NULL,
+    miniatura_64   MEDIUMBLOB,
+    miniatura_256  MEDIUMBLOB,
+    PRIMARY KEY (id_usuario)
+) ENGINE = InnoDB;
+
+ALTER TABLE usuario ADD COLUMN foto_hash VARCHAR(64);
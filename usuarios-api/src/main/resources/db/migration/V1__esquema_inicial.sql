@@ -0,0 +1,40 @@
+-- Esquema tal como lo generaba ddl-auto=update antes de usar Flyway.
+-- En bases existentes esta versión no se ejecuta: queda como baseline
+-- (spring.flyway.baseline-on-migrate) y solo corren V1_1 en adelante. Debe quedar
+-- idéntica al esquema desplegado antes de Flyway (fotos aún en usuario.foto_perfil).
+
+CREATE TABLE region (
+    id_region INT NOT NULL AUTO_INCREMENT,
+    nombre    VARCHAR(100) NOT NULL,
+    PRIMARY KEY (id_region)
+) ENGINE = InnoDB;
+
+CREATE TABLE rol (
+    id_rol INT NOT NULL AUTO_INCREMENT,
+    nombre VARCHAR(100) NOT NULL,
+    PRIMARY KEY (id_rol)
+) ENGINE = InnoDB;
+
+CREATE TABLE estado (
+    id_estado INT NOT NULL AUTO_INCREMENT,
+    nombre    VARCHAR(100) NOT NULL,
+    PRIMARY KEY (id_estado)
+) ENGINE = InnoDB;
+
+CREATE TABLE usuario (
+    id_usuario           INT NOT NULL AUTO_INCREMENT,
+    nombre               VARCHAR(100) NOT NULL,
+    correo               VARCHAR(150) NOT NULL,
+    contrasena           VARCHAR(255) NOT NULL,
+    foto_perfil          LONGBLOB,
+    rutas_recorridas     INT NOT NULL,
+    km_recorridos        DECIMAL(10, 2) NOT NULL,
+    pregunta_seguridad1  VARCHAR(255),
+    respuesta_seguridad1 VARCHAR(255),
+    pregunta_seguridad2  VARCHAR(255),
+    respuesta_seguridad2 VARCHAR(255),
+    id_rol               INT,
+    id_region            INT,
+    id_estado            INT,
+    PRIMARY KEY (id_usuario)
+) ENGINE = InnoDB;
@@ -0,0 +1,25 @@
+-- Las fotos subidas antes de la tabla foto_perfil quedaron en usuario.foto_perfil.
+-- Se copian (sin miniaturas: GET /foto?tamano=... entrega el original), se
+-- completa foto_hash y se elimina la columna antigua.
+
+INSERT INTO foto_perfil (id_usuario, contenido, tipo_contenido, hash, tamano)
+SELECT u.id_usuario,
+       u.foto_perfil,
+       CASE
+           WHEN HEX(LEFT(u.foto_perfil, 3)) = 'FFD8FF' THEN 'image/jpeg'
+           WHEN HEX(LEFT(u.foto_perfil, 8)) = '89504E470D0A1A0A' THEN 'image/png'
+           WHEN HEX(LEFT(u.foto_perfil, 4)) = '47494638' THEN 'image/gif'
+           ELSE 'application/octet-stream'
+       END,
+       SHA2(u.foto_perfil, 256),
+       LENGTH(u.foto_perfil)
+FROM usuario u
+WHERE u.foto_perfil IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM foto_perfil f WHERE f.id_usuario = u.id_usuario);
+
+UPDATE usuario u
+    JOIN foto_perfil f ON f.id_usuario = u.id_usuario
+SET u.foto_hash = f.hash
+WHERE u.foto_hash IS NULL;
+
+ALTER TABLE usuario DROP COLUMN foto_perfil;
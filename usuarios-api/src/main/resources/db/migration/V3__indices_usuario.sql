@@ -0,0 +1,13 @@
+-- correo se guarda normalizado (trim + minúsculas) y es único: login y
+-- recuperación de contraseña buscan por índice en lugar de recorrer la tabla.
+--
+-- Si el índice único falla por duplicados previos, revisarlos con:
+--   SELECT LOWER(TRIM(correo)), COUNT(*) FROM usuario GROUP BY 1 HAVING COUNT(*) > 1;
+-- y resolverlos a mano antes de volver a arrancar.
+
+UPDATE usuario SET correo = LOWER(TRIM(correo));
+
+CREATE UNIQUE INDEX ux_usuario_correo ON usuario (correo);
+CREATE INDEX ix_usuario_region ON usuario (id_region);
+CREATE INDEX ix_usuario_rol ON usuario (id_rol);
+CREATE INDEX ix_usuario_estado ON usuario (id_estado);
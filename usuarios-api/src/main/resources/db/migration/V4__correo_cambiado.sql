@@ -0,0 +1,10 @@
+-- Momento del último cambio de correo, con el reloj de MySQL (TIMESTAMP se guarda en UTC,
+-- igual para todas las instancias). Lo escribe UsuarioRepository.actualizarCorreo y lo lee
+-- FiltroCorreos en cada refresco para ver los correos cambiados en otras instancias.
+-- NULL = el correo no cambió desde el alta (las altas se detectan por id_usuario).
+-- Columna aparte y no ON UPDATE de toda la fila: los contadores de recorridos se
+-- actualizan sin parar y harían releer medio padrón en cada refresco.
+
+ALTER TABLE usuario ADD COLUMN correo_cambiado TIMESTAMP(6) NULL;
+
+CREATE INDEX ix_usuario_correo_cambiado ON usuario (correo_cambiado);
@@ -0,0 +1,95 @@
+package cl.condor.usuarios_api;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Migraciones contra un MySQL real: una BD con el esquema desplegado antes de Flyway
+ * (fotos en usuario.foto_perfil, sin foto_hash ni tabla foto_perfil) debe quedar
+ * migrada con baseline-on-migrate, igual que una BD vacía. Requiere Docker; sin él
+ * la prueba se omite.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MigracionesFlywayTest {
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    // Tablas tal como las creaba ddl-auto=update con las entidades previas a Flyway
+    private static final List<String> ESQUEMA_PREVIO = List.of(
+            "CREATE TABLE region (id_region INT NOT NULL AUTO_INCREMENT, nombre VARCHAR(100) NOT NULL, PRIMARY KEY (id_region))",
+            "CREATE TABLE rol (id_rol INT NOT NULL AUTO_INCREMENT, nombre VARCHAR(100) NOT NULL, PRIMARY KEY (id_rol))",
+            "CREATE TABLE estado (id_estado INT NOT NULL AUTO_INCREMENT, nombre VARCHAR(100) NOT NULL, PRIMARY KEY (id_estado))",
+            """
+            CREATE TABLE usuario (id_usuario INT NOT NULL AUTO_INCREMENT, nombre VARCHAR(100) NOT NULL,
+                correo VARCHAR(150) NOT NULL, contrasena VARCHAR(255) NOT NULL, foto_perfil LONGBLOB,
+                rutas_recorridas INT NOT NULL, km_recorridos DECIMAL(10,2) NOT NULL,
+                pregunta_seguridad1 VARCHAR(255), respuesta_seguridad1 VARCHAR(255),
+                pregunta_seguridad2 VARCHAR(255), respuesta_seguridad2 VARCHAR(255),
+                id_rol INT, id_region INT, id_estado INT, PRIMARY KEY (id_usuario))
+            """);
+
+    private JdbcTemplate jdbc;
+    private DriverManagerDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(MYSQL.getJdbcUrl(), "root", MYSQL.getPassword());
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP DATABASE IF EXISTS prueba");
+        jdbc.execute("CREATE DATABASE prueba");
+        dataSource.setUrl(MYSQL.getJdbcUrl().replace("/" + MYSQL.getDatabaseName(), "/prueba"));
+    }
+
+    private void migrar() {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+    }
+
+    @Test
+    void esquemaPrevio_migraFotosAFotoPerfil() {
+        ESQUEMA_PREVIO.forEach(jdbc::execute);
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0x10, 0x20};
+        jdbc.update("INSERT INTO usuario (nombre, correo, contrasena, foto_perfil, rutas_recorridas, km_recorridos) "
+                + "VALUES ('Ana', ' Ana@Condor.cl', 'x', ?, 0, 0)", (Object) jpeg);
+        jdbc.update("INSERT INTO usuario (nombre, correo, contrasena, rutas_recorridas, km_recorridos) "
+                + "VALUES ('Beto', 'beto@condor.cl', 'x', 0, 0)");
+
+        migrar();
+
+        assertEquals("image/jpeg", jdbc.queryForObject("SELECT tipo_contenido FROM foto_perfil WHERE id_usuario = 1", String.class));
+        String hash = jdbc.queryForObject("SELECT hash FROM foto_perfil WHERE id_usuario = 1", String.class);
+        assertEquals(hash, jdbc.queryForObject("SELECT foto_hash FROM usuario WHERE id_usuario = 1", String.class));
+        assertNull(jdbc.queryForObject("SELECT foto_hash FROM usuario WHERE id_usuario = 2", String.class));
+        assertEquals("ana@condor.cl", jdbc.queryForObject("SELECT correo FROM usuario WHERE id_usuario = 1", String.class));
+        assertEquals(0, columnas("usuario", "foto_perfil"));
+    }
+
+    @Test
+    void bdVacia_migraDesdeV1() {
+        migrar();
+
+        assertEquals(1, columnas("usuario", "foto_hash"));
+        assertEquals(0, columnas("usuario", "foto_perfil"));
+        assertEquals(1, columnas("foto_perfil", "miniatura_256"));
+    }
+
+    private int columnas(String tabla, String columna) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM information_schema.columns "
+                + "WHERE table_schema = 'prueba' AND table_name = ? AND column_name = ?", Integer.class, tabla, columna);
+    }
+}
@@ -0,0 +1,41 @@
+package cl.condor.usuarios_api.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FiltroBloomTest {
+
+    @Test
+    void agregados_siempreSeEncuentran() {
+        FiltroBloom filtro = FiltroBloom.para(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar("usuario" + i + "@test.com");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filtro.puedeContener("usuario" + i + "@test.com"));
+        }
+    }
+
+    @Test
+    void falsosPositivos_cercaDeLaProbabilidadPedida() {
+        FiltroBloom filtro = FiltroBloom.para(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar("usuario" + i + "@test.com");
+        }
+
+        int falsos = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filtro.puedeContener("otro" + i + "@test.com")) falsos++;
+        }
+
+        // 1% esperado; margen amplio para no depender del hash exacto
+        assertTrue(falsos < 2_000, "falsos positivos: " + falsos);
+    }
+
+    @Test
+    void dimensionado_unMillonAlUnoPorCiento_ocupaMenosDeUnMegaYMedio() {
+        assertTrue(FiltroBloom.para(1_000_000, 0.01).tamanoBytes() < 1_500_000);
+    }
+}
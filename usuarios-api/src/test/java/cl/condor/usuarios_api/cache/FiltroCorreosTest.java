@@ -0,0 +1,187 @@
+package cl.condor.usuarios_api.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class FiltroCorreosTest {
+
+    private static final int SOLAPAMIENTO_IDS = 5;
+    private static final Duration SOLAPAMIENTO = Duration.ofMinutes(2);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry registry;
+    private FiltroCorreos filtro;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        registry = new SimpleMeterRegistry();
+        filtro = new FiltroCorreos(jdbcTemplate, true, 1000, 0.01, Duration.ZERO, Duration.ZERO,
+                SOLAPAMIENTO_IDS, SOLAPAMIENTO, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        filtro.cerrar();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void tablaConCorreos(List<FiltroCorreos.Fila> primera, List<FiltroCorreos.Fila> segunda) {
+        when(jdbcTemplate.queryForObject(FiltroCorreos.SQL_CONTAR, Long.class))
+                .thenReturn((long) (primera.size() + segunda.size()));
+        when(jdbcTemplate.query(eq(FiltroCorreos.SQL_PAGINA), any(RowMapper.class), eq(0), eq(FiltroCorreos.TAMANO_PAGINA)))
+                .thenReturn(primera);
+        if (!primera.isEmpty()) {
+            int ultimo = primera.get(primera.size() - 1).id();
+            when(jdbcTemplate.query(eq(FiltroCorreos.SQL_PAGINA), any(RowMapper.class), eq(ultimo), eq(FiltroCorreos.TAMANO_PAGINA)))
+                    .thenReturn(segunda);
+        }
+    }
+
+    @Test
+    void sinConstruir_dejaPasarTodo() {
+        assertTrue(filtro.puedeExistir("cualquiera@test.com"));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void reconstruir_leePorPaginasYDescartaInexistentes() {
+        // Una página completa obliga a pedir la siguiente a partir del último id
+        List<FiltroCorreos.Fila> primera = new ArrayList<>();
+        for (int i = 1; i <= FiltroCorreos.TAMANO_PAGINA; i++) {
+            primera.add(new FiltroCorreos.Fila(i, "u" + i + "@test.com"));
+        }
+        tablaConCorreos(primera, List.of(new FiltroCorreos.Fila(20_000, "ultimo@test.com")));
+
+        filtro.reconstruir();
+
+        assertTrue(filtro.puedeExistir("u1@test.com"));
+        assertTrue(filtro.puedeExistir("u10000@test.com"));
+        assertTrue(filtro.puedeExistir("ultimo@test.com"));
+        assertFalse(filtro.puedeExistir("bot@test.com"));
+        assertEquals(1.0, registry.get("usuarios.filtro-correos.descartes").counter().count());
+    }
+
+    @Test
+    void agregar_correoNuevoDejaDeDescartarse() {
+        tablaConCorreos(List.of(new FiltroCorreos.Fila(1, "a@test.com")), List.of());
+        filtro.reconstruir();
+        assertFalse(filtro.puedeExistir("nuevo@test.com"));
+
+        filtro.agregar("nuevo@test.com");
+
+        assertTrue(filtro.puedeExistir("nuevo@test.com"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refrescar_incorporaFilasNuevasDeOtrasInstancias() {
+        tablaConCorreos(List.of(new FiltroCorreos.Fila(10, "a@test.com")), List.of());
+        filtro.reconstruir();
+        // Otra instancia registró el id 11: se lee desde el último conocido menos el solapamiento
+        when(jdbcTemplate.query(eq(FiltroCorreos.SQL_PAGINA), any(RowMapper.class), eq(5), eq(FiltroCorreos.TAMANO_PAGINA)))
+                .thenReturn(List.of(new FiltroCorreos.Fila(10, "a@test.com"), new FiltroCorreos.Fila(11, "otra@test.com")));
+
+        filtro.refrescar();
+
+        assertTrue(filtro.puedeExistir("otra@test.com"));
+        when(jdbcTemplate.query(eq(FiltroCorreos.SQL_PAGINA), any(RowMapper.class), eq(6), eq(FiltroCorreos.TAMANO_PAGINA)))
+                .thenReturn(List.of());
+        filtro.refrescar();
+        verify(jdbcTemplate).query(eq(FiltroCorreos.SQL_PAGINA), any(RowMapper.class), eq(6), eq(FiltroCorreos.TAMANO_PAGINA));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refrescar_idMenorAlUltimoConocidoConCommitTardio_seIncorpora() {
+        // El id 9 es de un lote que aún no hacía commit cuando se leyó el 10
+        tablaConCorreos(List.of(new FiltroCorreos.Fila(8, "a@test.com"), new FiltroCorreos.Fila(10, "b@test.com")), List.of());
+        filtro.reconstruir();
+        assertFalse(filtro.puedeExistir("tarde@test.com"));
+        when(jdbcTemplate.query(eq(FiltroCorreos.SQL_PAGINA), any(RowMapper.class), eq(5), eq(FiltroCorreos.TAMANO_PAGINA)))
+                .thenReturn(List.of(new FiltroCorreos.Fila(8, "a@test.com"), new FiltroCorreos.Fila(9, "tarde@test.com"),
+                        new FiltroCorreos.Fila(10, "b@test.com")));
+
+        filtro.refrescar();
+
+        assertTrue(filtro.puedeExistir("tarde@test.com"));
+        // El último conocido no retrocede: el siguiente refresco relee la misma ventana
+        filtro.refrescar();
+        verify(jdbcTemplate, times(2)).query(eq(FiltroCorreos.SQL_PAGINA), any(RowMapper.class), eq(5), eq(FiltroCorreos.TAMANO_PAGINA));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refrescar_cambioDeCorreoEnOtraInstancia_seIncorpora() {
+        Timestamp marca = Timestamp.valueOf("2026-10-17 12:00:00");
+        Timestamp cambio = Timestamp.valueOf("2026-10-17 12:00:03");
+        when(jdbcTemplate.queryForObject(FiltroCorreos.SQL_MARCA, Timestamp.class)).thenReturn(marca);
+        tablaConCorreos(List.of(new FiltroCorreos.Fila(1, "viejo@test.com")), List.of());
+        filtro.reconstruir();
+        // Se relee desde la marca de la reconstrucción menos el solapamiento
+        when(jdbcTemplate.query(eq(FiltroCorreos.SQL_CAMBIOS), any(RowMapper.class),
+                eq(Timestamp.valueOf("2026-10-17 11:58:00")), eq(0), eq(FiltroCorreos.TAMANO_PAGINA)))
+                .thenReturn(List.of(new FiltroCorreos.Cambio(1, "nuevo@test.com", cambio)));
+
+        filtro.refrescar();
+
+        assertTrue(filtro.puedeExistir("nuevo@test.com"));
+        // La marca avanza al cambio más reciente visto
+        filtro.refrescar();
+        verify(jdbcTemplate).query(eq(FiltroCorreos.SQL_CAMBIOS), any(RowMapper.class),
+                eq(Timestamp.valueOf("2026-10-17 11:58:03")), eq(0), eq(FiltroCorreos.TAMANO_PAGINA));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refrescar_sinCambiosDeCorreo_consultaDesdeElInicio() {
+        tablaConCorreos(List.of(new FiltroCorreos.Fila(1, "a@test.com")), List.of());
+        filtro.reconstruir();
+
+        filtro.refrescar();
+
+        verify(jdbcTemplate).query(eq(FiltroCorreos.SQL_CAMBIOS), any(RowMapper.class),
+                eq(FiltroCorreos.SIN_MARCA), eq(0), eq(FiltroCorreos.TAMANO_PAGINA));
+    }
+
+    @Test
+    void agregarAntesDeReconstruir_seConservaAunqueLaTablaNoLoTenga() {
+        // El INSERT aún no había hecho commit cuando la reconstrucción leyó la tabla
+        filtro.agregar("en-vuelo@test.com");
+        tablaConCorreos(List.of(new FiltroCorreos.Fila(1, "a@test.com")), List.of());
+
+        filtro.reconstruir();
+
+        assertTrue(filtro.puedeExistir("en-vuelo@test.com"));
+    }
+
+    @Test
+    void deshabilitado_noConstruyeNiDescarta() {
+        FiltroCorreos apagado = new FiltroCorreos(jdbcTemplate, false, 1000, 0.01, Duration.ZERO, Duration.ZERO,
+                SOLAPAMIENTO_IDS, SOLAPAMIENTO, registry);
+
+        apagado.iniciar();
+        apagado.agregar("a@test.com");
+
+        assertTrue(apagado.puedeExistir("bot@test.com"));
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,111 @@
+package cl.condor.usuarios_api.cache;
+
+import cl.condor.usuarios_api.dto.UsuarioDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerfilCacheTest {
+
+    private SimpleMeterRegistry registry;
+    private PerfilCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new PerfilCache(100, Duration.ofMinutes(5), registry);
+    }
+
+    private static UsuarioDTO perfil(Integer id, String correo) {
+        return UsuarioDTO.builder().id(id).nombre("n" + id).correo(correo).build();
+    }
+
+    @Test
+    void porCorreo_trasCambioDeCorreo_noDevuelvePerfilPorLaDireccionAntigua() {
+        cache.porCorreo("viejo@test.com", c -> perfil(1, "viejo@test.com"));
+
+        // El perfil se recarga con el correo nuevo (por ejemplo tras updateCorreo)
+        cache.invalidar(1);
+        cache.porId(1, id -> perfil(1, "nuevo@test.com"));
+
+        assertNull(cache.porCorreo("viejo@test.com", c -> null));
+    }
+
+    @Test
+    void porCorreo_acierto_noLlamaAlCargador() {
+        AtomicInteger cargas = new AtomicInteger();
+        cache.porCorreo("a@test.com", c -> { cargas.incrementAndGet(); return perfil(1, c); });
+
+        UsuarioDTO enCache = cache.porCorreo("a@test.com", c -> { cargas.incrementAndGet(); return perfil(1, c); });
+
+        assertEquals(1, enCache.getId());
+        assertEquals(1, cargas.get());
+        // El índice por correo comparte la entrada por id
+        assertSame(enCache, cache.porId(1, id -> fail("no debería cargar")));
+    }
+
+    @Test
+    void cargaIniciadaAntesDeUnaInvalidacion_noSeGuarda() {
+        // Mientras se lee la BD llega una escritura que invalida el perfil
+        cache.porId(1, id -> {
+            cache.invalidar(1);
+            return perfil(1, "viejo@test.com");
+        });
+
+        UsuarioDTO recargado = cache.porId(1, id -> perfil(1, "nuevo@test.com"));
+
+        assertEquals("nuevo@test.com", recargado.getCorreo());
+    }
+
+    @Test
+    void invalidarOtroIdDuranteLaCarga_noImpideGuardar() {
+        // Mientras se carga el id 2 se invalidan otros usuarios (PATCH, flush de recorridos)
+        cache.porId(2, id -> {
+            cache.invalidar(1);
+            cache.invalidarTodos(List.of(3, 4, 5));
+            return perfil(2, "b@test.com");
+        });
+
+        assertEquals("b@test.com", cache.porId(2, id -> fail("debería estar en caché")).getCorreo());
+    }
+
+    @Test
+    void porCorreo_invalidacionDelMismoIdDuranteLaCarga_noGuardaNiIndexa() {
+        cache.porCorreo("a@test.com", c -> {
+            cache.invalidar(1);
+            return perfil(1, c);
+        });
+
+        AtomicInteger cargas = new AtomicInteger();
+        cache.porCorreo("a@test.com", c -> { cargas.incrementAndGet(); return perfil(1, c); });
+        assertEquals(1, cargas.get());
+    }
+
+    @Test
+    void invalidarTodos_descartaCadaId() {
+        cache.porId(1, id -> perfil(1, "a@test.com"));
+        cache.porId(2, id -> perfil(2, "b@test.com"));
+
+        cache.invalidarTodos(List.of(1, 2));
+
+        assertNull(cache.porId(1, id -> null));
+        assertNull(cache.porId(2, id -> null));
+    }
+
+    @Test
+    void metricas_registranAciertosYFallos() {
+        cache.porId(1, id -> perfil(1, "a@test.com"));
+        cache.porId(1, id -> perfil(1, "a@test.com"));
+
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "usuarios.perfiles").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "usuarios.perfiles").tag("result", "miss")
+                .functionCounter().count());
+    }
+}
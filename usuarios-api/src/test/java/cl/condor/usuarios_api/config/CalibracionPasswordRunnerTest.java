@@ -0,0 +1,27 @@
+package cl.condor.usuarios_api.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalibracionPasswordRunnerTest {
+
+    @Test
+    void calibrar_objetivoMuyBajo_sugiereCosteMinimo() {
+        CalibracionPasswordRunner runner = new CalibracionPasswordRunner();
+        ReflectionTestUtils.setField(runner, "objetivoMs", 0L);
+
+        assertEquals(4, runner.calibrar());
+    }
+
+    @Test
+    void calibrar_sugiereCosteDentroDelRango() {
+        CalibracionPasswordRunner runner = new CalibracionPasswordRunner();
+        ReflectionTestUtils.setField(runner, "objetivoMs", 20L);
+
+        int coste = runner.calibrar();
+
+        assertTrue(coste >= 4 && coste <= 16);
+    }
+}
@@ -0,0 +1,56 @@
+package cl.condor.usuarios_api.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordConfigTest {
+
+    // Coste bajo para que el test sea rápido
+    private final int COSTE = 5;
+
+    private PasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        encoder = new PasswordConfig().passwordEncoder("bcrypt", COSTE);
+    }
+
+    @Test
+    void encode_agregaPrefijoDelAlgoritmo() {
+        String hash = encoder.encode("clave");
+
+        assertTrue(hash.startsWith("{bcrypt}"));
+        assertTrue(encoder.matches("clave", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+
+    @Test
+    void hashAntiguoSinPrefijo_seVerificaYRequiereRehash() {
+        String antiguo = new BCryptPasswordEncoder(COSTE).encode("clave");
+
+        assertTrue(encoder.matches("clave", antiguo));
+        assertTrue(encoder.upgradeEncoding(antiguo));
+    }
+
+    @Test
+    void hashConCosteMenor_requiereRehash() {
+        String costeBajo = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("clave");
+
+        assertTrue(encoder.matches("clave", costeBajo));
+        assertTrue(encoder.upgradeEncoding(costeBajo));
+    }
+
+    @Test
+    void cambioDeAlgoritmo_hashesBcryptRequierenRehash() {
+        String bcrypt = encoder.encode("clave");
+        PasswordEncoder pbkdf2 = new PasswordConfig().passwordEncoder("pbkdf2", COSTE);
+
+        assertTrue(pbkdf2.matches("clave", bcrypt));
+        assertTrue(pbkdf2.upgradeEncoding(bcrypt));
+        assertTrue(pbkdf2.encode("clave").startsWith("{pbkdf2}"));
+    }
+}
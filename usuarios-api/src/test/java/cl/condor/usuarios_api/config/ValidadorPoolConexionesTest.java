@@ -0,0 +1,64 @@
+package cl.condor.usuarios_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ValidadorPoolConexionesTest {
+
+    private ValidadorPoolConexiones validador;
+
+    @BeforeEach
+    void setUp() {
+        validador = new ValidadorPoolConexiones();
+    }
+
+    @Test
+    void poolMenorQueHilosTomcat_avisa() {
+        String aviso = validador.validar(10);
+
+        assertNotNull(aviso);
+        assertTrue(aviso.contains("(10)") && aviso.contains("200 peticiones"), aviso);
+    }
+
+    @Test
+    void conPeticionesPorConexion_poolSuficiente_noAvisa() {
+        ReflectionTestUtils.setField(validador, "hilosTomcat", 80);
+        ReflectionTestUtils.setField(validador, "peticionesPorConexion", 4.0);
+
+        assertNull(validador.validar(20));
+        assertNotNull(validador.validar(19));
+    }
+
+    @Test
+    void topeDePeticiones_reemplazaHilosTomcat() {
+        ReflectionTestUtils.setField(validador, "maxPeticiones", 200);
+        ReflectionTestUtils.setField(validador, "hilosVirtuales", true);
+        ReflectionTestUtils.setField(validador, "peticionesPorConexion", 10.0);
+
+        assertNull(validador.validar(20));
+    }
+
+    @Test
+    void hilosVirtualesSinTope_avisa() {
+        ReflectionTestUtils.setField(validador, "hilosVirtuales", true);
+
+        assertTrue(validador.validar(100).contains("sin tope"));
+    }
+
+    @Test
+    void validar_dataSourceNoHikari_noFalla() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.isWrapperFor(HikariDataSource.class)).thenReturn(false);
+        ReflectionTestUtils.setField(validador, "dataSource", dataSource);
+
+        assertDoesNotThrow(() -> validador.validar());
+        verify(dataSource, never()).unwrap(any());
+    }
+}
@@ -1,5 +1,6 @@
 package cl.condor.usuarios_api.controller;
 
+import cl.condor.usuarios_api.cache.CatalogoSnapshot;
 import cl.condor.usuarios_api.model.Estado;
 import cl.condor.usuarios_api.service.EstadoService;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,7 +10,10 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -31,27 +35,47 @@ public class EstadoControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(estadoController, "maxAge", Duration.ofHours(1));
         estadoEjemplo = new Estado();
         estadoEjemplo.setId(1);
         estadoEjemplo.setNombre("Activo");
     }
 
+    private static CatalogoSnapshot<Estado> snapshotDe(List<Estado> lista) {
+        return CatalogoSnapshot.de(lista, Estado::getId, 1L, l -> "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8));
+    }
+
     @Test
-    void getAll_retornaListaYOK() {
-        when(estadoService.findAll()).thenReturn(Arrays.asList(estadoEjemplo));
+    void getAll_retornaJsonConEtagYCacheControl() {
+        CatalogoSnapshot<Estado> snapshot = snapshotDe(Arrays.asList(estadoEjemplo));
+        when(estadoService.snapshot()).thenReturn(snapshot);
 
-        ResponseEntity<List<Estado>> response = estadoController.getAll();
+        ResponseEntity<byte[]> response = estadoController.getAll(null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertNotNull(response.getBody());
-        assertFalse(response.getBody().isEmpty());
+        assertArrayEquals(snapshot.getJson(), response.getBody());
+        assertEquals(snapshot.getEtag(), response.getHeaders().getETag());
+        assertEquals("max-age=3600, public", response.getHeaders().getCacheControl());
+        verify(estadoService, times(1)).snapshot();
+    }
+
+    @Test
+    void getAll_etagVigente_retornaNotModified() {
+        CatalogoSnapshot<Estado> snapshot = snapshotDe(Arrays.asList(estadoEjemplo));
+        when(estadoService.snapshot()).thenReturn(snapshot);
+
+        ResponseEntity<byte[]> response = estadoController.getAll("W/" + snapshot.getEtag());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(snapshot.getEtag(), response.getHeaders().getETag());
     }
 
     @Test
     void getAll_retornaNoContentSiVacio() {
-        when(estadoService.findAll()).thenReturn(Collections.emptyList());
+        when(estadoService.snapshot()).thenReturn(snapshotDe(Collections.emptyList()));
 
-        ResponseEntity<List<Estado>> response = estadoController.getAll();
+        ResponseEntity<byte[]> response = estadoController.getAll(null);
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
     }
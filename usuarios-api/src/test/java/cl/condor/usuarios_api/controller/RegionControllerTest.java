@@ -1,5 +1,6 @@
 package cl.condor.usuarios_api.controller;
 
+import cl.condor.usuarios_api.cache.CatalogoSnapshot;
 import cl.condor.usuarios_api.model.Region;
 import cl.condor.usuarios_api.service.RegionService;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,7 +10,10 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -31,31 +35,50 @@ public class RegionControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(regionController, "maxAge", Duration.ofHours(1));
 
         regionEjemplo = new Region();
         regionEjemplo.setId(VALID_ID);
         regionEjemplo.setNombre("Región Metropolitana");
     }
 
+    private static CatalogoSnapshot<Region> snapshotDe(List<Region> lista) {
+        return CatalogoSnapshot.de(lista, Region::getId, 1L, l -> "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8));
+    }
+
     @Test
-    void getAll_retornaListaYOK() {
-        when(regionService.findAll()).thenReturn(Arrays.asList(regionEjemplo));
+    void getAll_retornaJsonConEtagYCacheControl() {
+        CatalogoSnapshot<Region> snapshot = snapshotDe(Arrays.asList(regionEjemplo));
+        when(regionService.snapshot()).thenReturn(snapshot);
 
-        ResponseEntity<List<Region>> response = regionController.getAll();
+        ResponseEntity<byte[]> response = regionController.getAll(null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertFalse(response.getBody().isEmpty());
-        verify(regionService, times(1)).findAll();
+        assertArrayEquals(snapshot.getJson(), response.getBody());
+        assertEquals(snapshot.getEtag(), response.getHeaders().getETag());
+        assertEquals("max-age=3600, public", response.getHeaders().getCacheControl());
+        verify(regionService, times(1)).snapshot();
+    }
+
+    @Test
+    void getAll_etagVigente_retornaNotModified() {
+        CatalogoSnapshot<Region> snapshot = snapshotDe(Arrays.asList(regionEjemplo));
+        when(regionService.snapshot()).thenReturn(snapshot);
+
+        ResponseEntity<byte[]> response = regionController.getAll("W/" + snapshot.getEtag());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(snapshot.getEtag(), response.getHeaders().getETag());
     }
 
     @Test
     void getAll_retornaNoContentSiVacio() {
-        when(regionService.findAll()).thenReturn(Collections.emptyList());
+        when(regionService.snapshot()).thenReturn(snapshotDe(Collections.emptyList()));
 
-        ResponseEntity<List<Region>> response = regionController.getAll();
+        ResponseEntity<byte[]> response = regionController.getAll(null);
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(regionService, times(1)).findAll();
     }
 
     @Test
@@ -1,5 +1,6 @@
 package cl.condor.usuarios_api.controller;
 
+import cl.condor.usuarios_api.cache.CatalogoSnapshot;
 import cl.condor.usuarios_api.model.Rol;
 import cl.condor.usuarios_api.service.RolService;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,7 +10,10 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -31,31 +35,50 @@ class RolControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(rolController, "maxAge", Duration.ofHours(1));
 
         rolEjemplo = new Rol();
         rolEjemplo.setId(VALID_ID);
         rolEjemplo.setNombre("Administrador");
     }
 
+    private static CatalogoSnapshot<Rol> snapshotDe(List<Rol> lista) {
+        return CatalogoSnapshot.de(lista, Rol::getId, 1L, l -> "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8));
+    }
+
     @Test
-    void getAll_retornaListaYOK() {
-        when(rolService.findAll()).thenReturn(Arrays.asList(rolEjemplo));
+    void getAll_retornaJsonConEtagYCacheControl() {
+        CatalogoSnapshot<Rol> snapshot = snapshotDe(Arrays.asList(rolEjemplo));
+        when(rolService.snapshot()).thenReturn(snapshot);
 
-        ResponseEntity<List<Rol>> response = rolController.getAll();
+        ResponseEntity<byte[]> response = rolController.getAll(null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertFalse(response.getBody().isEmpty());
-        verify(rolService, times(1)).findAll();
+        assertArrayEquals(snapshot.getJson(), response.getBody());
+        assertEquals(snapshot.getEtag(), response.getHeaders().getETag());
+        assertEquals("max-age=3600, public", response.getHeaders().getCacheControl());
+        verify(rolService, times(1)).snapshot();
+    }
+
+    @Test
+    void getAll_etagVigente_retornaNotModified() {
+        CatalogoSnapshot<Rol> snapshot = snapshotDe(Arrays.asList(rolEjemplo));
+        when(rolService.snapshot()).thenReturn(snapshot);
+
+        ResponseEntity<byte[]> response = rolController.getAll("W/" + snapshot.getEtag());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(snapshot.getEtag(), response.getHeaders().getETag());
     }
 
     @Test
     void getAll_retornaNoContentSiVacio() {
-        when(rolService.findAll()).thenReturn(Collections.emptyList());
+        when(rolService.snapshot()).thenReturn(snapshotDe(Collections.emptyList()));
 
-        ResponseEntity<List<Rol>> response = rolController.getAll();
+        ResponseEntity<byte[]> response = rolController.getAll(null);
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(rolService, times(1)).findAll();
     }
 
     @Test
@@ -1,9 +1,24 @@
 package cl.condor.usuarios_api.controller;
 
+import cl.condor.usuarios_api.dto.FotoProcesada;
 import cl.condor.usuarios_api.dto.LoginDTO;
+import cl.condor.usuarios_api.dto.LookupDTO;
+import cl.condor.usuarios_api.dto.LookupResultadoDTO;
+import cl.condor.usuarios_api.dto.PaginaUsuariosDTO;
 import cl.condor.usuarios_api.dto.RecuperacionDTO;
+import cl.condor.usuarios_api.dto.RefreshDTO;
+import cl.condor.usuarios_api.dto.RegistroMasivoDTO;
+import cl.condor.usuarios_api.dto.TokenDTO;
 import cl.condor.usuarios_api.dto.UsuarioDTO;
+import cl.condor.usuarios_api.dto.UsuarioResumenDTO;
+import cl.condor.usuarios_api.exception.DemasiadosIntentosException;
+import cl.condor.usuarios_api.exception.ServicioSaturadoException;
+import cl.condor.usuarios_api.model.FotoPerfil;
 import cl.condor.usuarios_api.model.Usuario;
+import cl.condor.usuarios_api.security.LimitadorIntentos;
+import cl.condor.usuarios_api.service.FotoPerfilService;
+import cl.condor.usuarios_api.service.ProcesadorFotos;
+import cl.condor.usuarios_api.service.RegistroMasivoService;
 import cl.condor.usuarios_api.service.UsuarioService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,14 +26,27 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class UsuarioControllerTest {
@@ -29,6 +57,20 @@ class UsuarioControllerTest {
     @Mock
     private UsuarioService usuarioService;
 
+    @Mock
+    private FotoPerfilService fotoPerfilService;
+
+    @Mock
+    private ProcesadorFotos procesadorFotos;
+
+    @Mock
+    private RegistroMasivoService registroMasivoService;
+
+    @Mock
+    private LimitadorIntentos limitadorIntentos;
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
     private Usuario usuarioEjemplo;
     private UsuarioDTO usuarioDTOEjemplo;
     private final Integer VALID_ID = 1;
@@ -55,48 +97,67 @@ class UsuarioControllerTest {
     }
 
     @Test
-    void getAll_retornaListaYOK() {
-        when(usuarioService.findAll()).thenReturn(Arrays.asList(usuarioEjemplo));
+    void getAll_retornaPaginaYOK() {
+        PaginaUsuariosDTO pagina = PaginaUsuariosDTO.builder()
+                .usuarios(Arrays.asList(UsuarioResumenDTO.builder().id(VALID_ID).nombre("Usuario Test").build()))
+                .size(1)
+                .next(VALID_ID)
+                .build();
+        when(usuarioService.findPagina(null, null)).thenReturn(pagina);
 
-        ResponseEntity<List<Usuario>> response = usuarioController.getAll();
+        ResponseEntity<PaginaUsuariosDTO> response = usuarioController.getAll(null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertFalse(response.getBody().isEmpty());
-        assertEquals(1, response.getBody().size());
-        verify(usuarioService, times(1)).findAll();
+        assertFalse(response.getBody().getUsuarios().isEmpty());
+        assertEquals(1, response.getBody().getUsuarios().size());
+        assertEquals(VALID_ID, response.getBody().getNext());
+        verify(usuarioService, times(1)).findPagina(null, null);
     }
 
     @Test
     void getAll_retornaNoContentSiVacio() {
-        when(usuarioService.findAll()).thenReturn(Collections.emptyList());
+        PaginaUsuariosDTO pagina = PaginaUsuariosDTO.builder()
+                .usuarios(Collections.emptyList())
+                .size(0)
+                .build();
+        when(usuarioService.findPagina(100, 20)).thenReturn(pagina);
 
-        ResponseEntity<List<Usuario>> response = usuarioController.getAll();
+        ResponseEntity<PaginaUsuariosDTO> response = usuarioController.getAll(100, 20);
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(usuarioService, times(1)).findAll();
+        verify(usuarioService, times(1)).findPagina(100, 20);
     }
 
     @Test
     void getById_retornaUsuarioYOK() {
-        when(usuarioService.findById(VALID_ID)).thenReturn(usuarioEjemplo);
-        when(usuarioService.mapToDTO(usuarioEjemplo)).thenReturn(usuarioDTOEjemplo);
+        when(usuarioService.findPerfilById(VALID_ID)).thenReturn(usuarioDTOEjemplo);
 
         ResponseEntity<UsuarioDTO> response = usuarioController.getById(VALID_ID);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(VALID_ID, response.getBody().getId());
-        verify(usuarioService, times(1)).findById(VALID_ID);
+        verify(usuarioService, times(1)).findPerfilById(VALID_ID);
     }
 
     @Test
     void getById_retornaNotFoundSiNoExiste() {
-        when(usuarioService.findById(VALID_ID)).thenThrow(new RuntimeException("Usuario no encontrado"));
+        when(usuarioService.findPerfilById(VALID_ID)).thenThrow(new RuntimeException("Usuario no encontrado"));
 
         ResponseEntity<UsuarioDTO> response = usuarioController.getById(VALID_ID);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(usuarioService, times(1)).findById(VALID_ID);
+        verify(usuarioService, times(1)).findPerfilById(VALID_ID);
+    }
+
+    @Test
+    void getByCorreo_retornaUsuarioYOK() {
+        when(usuarioService.findPerfilByCorreo("test@test.com")).thenReturn(usuarioDTOEjemplo);
+
+        ResponseEntity<UsuarioDTO> response = usuarioController.getByCorreo("test@test.com");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(usuarioDTOEjemplo, response.getBody());
     }
 
     @Test
@@ -121,47 +182,344 @@ class UsuarioControllerTest {
     }
 
     @Test
-    void updateNombre_retornaUsuarioYOK() {
-        when(usuarioService.updateNombre(VALID_ID, "Nuevo Nombre")).thenReturn(usuarioEjemplo);
+    void createLote_retornaResultadosYOK() {
+        RegistroMasivoDTO resultado = RegistroMasivoDTO.builder().creados(1).rechazados(0).resultados(List.of()).build();
+        when(registroMasivoService.registrar(anyList())).thenReturn(resultado);
 
-        ResponseEntity<Usuario> response = usuarioController.updateNombre(VALID_ID, "Nuevo Nombre");
+        ResponseEntity<?> response = usuarioController.createLote(List.of(usuarioEjemplo));
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertNotNull(response.getBody());
+        assertSame(resultado, response.getBody());
+    }
+
+    @Test
+    void createLote_poolSaturado_retornaServiceUnavailable() {
+        when(registroMasivoService.registrar(anyList()))
+                .thenThrow(new ServicioSaturadoException("Servicio saturado, intente nuevamente", 1));
+
+        ResponseEntity<?> response = usuarioController.createLote(List.of(usuarioEjemplo));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
+    @Test
+    void lookup_retornaResultadoYOK() {
+        LookupDTO solicitud = new LookupDTO(List.of(1, 99), null);
+        LookupResultadoDTO resultado = LookupResultadoDTO.builder().idsNoEncontrados(List.of(99)).build();
+        when(usuarioService.buscarVarios(solicitud)).thenReturn(resultado);
+
+        ResponseEntity<?> response = usuarioController.lookup(solicitud);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(resultado, response.getBody());
+    }
+
+    @Test
+    void lookup_excedeMaximo_retornaBadRequest() {
+        when(usuarioService.buscarVarios(any())).thenThrow(new RuntimeException("Máximo 500 ids y correos por solicitud"));
+
+        ResponseEntity<?> response = usuarioController.lookup(new LookupDTO());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void updateNombre_retornaNoContent() {
+        ResponseEntity<Void> response = usuarioController.updateNombre(VALID_ID, "Nuevo Nombre");
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        assertNull(response.getBody());
         verify(usuarioService, times(1)).updateNombre(VALID_ID, "Nuevo Nombre");
     }
 
+    @Test
+    void updateNombre_usuarioNoExiste_retornaNotFound() {
+        doThrow(new RuntimeException("Usuario no encontrado")).when(usuarioService).updateNombre(VALID_ID, "X");
+
+        ResponseEntity<Void> response = usuarioController.updateNombre(VALID_ID, "X");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void updateCorreo_duplicado_retornaConflict() {
+        doThrow(new RuntimeException("El correo ya está registrado")).when(usuarioService).updateCorreo(VALID_ID, "a@b.cl");
+
+        ResponseEntity<Void> response = usuarioController.updateCorreo(VALID_ID, "a@b.cl");
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void updateRegion_regionInexistente_retornaBadRequest() {
+        doThrow(new RuntimeException("Región no encontrada")).when(usuarioService).updateRegion(VALID_ID, 99);
+
+        ResponseEntity<Void> response = usuarioController.updateRegion(VALID_ID, 99);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void registrarRecorrido_escrito_retornaNoContent() {
+        when(usuarioService.registrarRecorrido(VALID_ID, 1, new BigDecimal("5.5"))).thenReturn(true);
+
+        ResponseEntity<String> response = usuarioController.registrarRecorrido(VALID_ID, 1, new BigDecimal("5.5"));
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+    }
+
+    @Test
+    void registrarRecorrido_encolado_retornaAccepted() {
+        when(usuarioService.registrarRecorrido(VALID_ID, 1, null)).thenReturn(false);
+
+        ResponseEntity<String> response = usuarioController.registrarRecorrido(VALID_ID, 1, null);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+    }
+
+    @Test
+    void registrarRecorrido_usuarioNoExiste_retornaNotFound() {
+        when(usuarioService.registrarRecorrido(VALID_ID, 1, null)).thenThrow(new RuntimeException("Usuario no encontrado"));
+
+        ResponseEntity<String> response = usuarioController.registrarRecorrido(VALID_ID, 1, null);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void registrarRecorrido_incrementoInvalido_retornaBadRequest() {
+        when(usuarioService.registrarRecorrido(VALID_ID, -1, null)).thenThrow(new RuntimeException("Incremento inválido"));
+
+        ResponseEntity<String> response = usuarioController.registrarRecorrido(VALID_ID, -1, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Incremento inválido", response.getBody());
+    }
+
     @Test
     void login_retornaOK() {
         LoginDTO loginDTO = new LoginDTO();
-        doNothing().when(usuarioService).login(any(LoginDTO.class));
+        TokenDTO tokens = TokenDTO.builder().accessToken("a").refreshToken("r").tipo("Bearer").expiraEn(900L).build();
+        when(usuarioService.login(any(LoginDTO.class))).thenReturn(CompletableFuture.completedFuture(tokens));
 
-        ResponseEntity<Void> response = usuarioController.login(loginDTO);
+        ResponseEntity<TokenDTO> response = usuarioController.login(loginDTO, request).join();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(tokens, response.getBody());
         verify(usuarioService, times(1)).login(any(LoginDTO.class));
     }
 
     @Test
     void login_retornaUnauthorized() {
         LoginDTO loginDTO = new LoginDTO();
-        doThrow(new RuntimeException("Credenciales invalidas"))
-                .when(usuarioService).login(any(LoginDTO.class));
+        when(usuarioService.login(any(LoginDTO.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Credenciales invalidas")));
 
-        ResponseEntity<Void> response = usuarioController.login(loginDTO);
+        ResponseEntity<TokenDTO> response = usuarioController.login(loginDTO, request).join();
 
         assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
         verify(usuarioService, times(1)).login(any(LoginDTO.class));
     }
 
+    @Test
+    void login_poolSaturado_retornaServiceUnavailableConRetryAfter() {
+        LoginDTO loginDTO = new LoginDTO();
+        when(usuarioService.login(any(LoginDTO.class)))
+                .thenThrow(new ServicioSaturadoException("Servicio saturado, intente nuevamente", 2));
+
+        ResponseEntity<TokenDTO> response = usuarioController.login(loginDTO, request).join();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst("Retry-After"));
+    }
+
+    @Test
+    void login_limiteExcedido_retornaTooManyRequestsSinVerificar() {
+        LoginDTO loginDTO = new LoginDTO("a@test.com", "x");
+        request.setRemoteAddr("10.0.0.1");
+        doThrow(new DemasiadosIntentosException("Demasiados intentos, intente más tarde", 30))
+                .when(limitadorIntentos).verificarLogin("10.0.0.1", "a@test.com");
+
+        ResponseEntity<TokenDTO> response = usuarioController.login(loginDTO, request).join();
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("30", response.getHeaders().getFirst("Retry-After"));
+        verify(usuarioService, never()).login(any());
+    }
+
+    @Test
+    void obtenerPreguntas_limiteExcedido_retornaTooManyRequests() {
+        doThrow(new DemasiadosIntentosException("Demasiados intentos, intente más tarde", 5))
+                .when(limitadorIntentos).verificarRecuperacion(any(), eq("a@test.com"));
+
+        ResponseEntity<?> response = usuarioController.obtenerPreguntas("a@test.com", request);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        verify(usuarioService, never()).obtenerPreguntasSeguridad(anyString());
+    }
+
+    @Test
+    void refresh_tokenValido_retornaOK() {
+        TokenDTO tokens = TokenDTO.builder().accessToken("a2").refreshToken("r2").build();
+        when(usuarioService.refrescarToken("r1")).thenReturn(tokens);
+
+        ResponseEntity<TokenDTO> response = usuarioController.refresh(new RefreshDTO("r1"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(tokens, response.getBody());
+    }
+
+    @Test
+    void refresh_tokenInvalido_retornaUnauthorized() {
+        when(usuarioService.refrescarToken("x")).thenThrow(new RuntimeException("Token invalido"));
+
+        ResponseEntity<TokenDTO> response = usuarioController.refresh(new RefreshDTO("x"));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    }
+
     @Test
     void recuperarContrasena_retornaOK() {
         RecuperacionDTO recuperacionDTO = new RecuperacionDTO();
-        doNothing().when(usuarioService).recuperarContrasena(any(RecuperacionDTO.class));
+        when(usuarioService.recuperarContrasena(any(RecuperacionDTO.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
 
-        ResponseEntity<?> response = usuarioController.recuperarContrasena(recuperacionDTO);
+        ResponseEntity<?> response = usuarioController.recuperarContrasena(recuperacionDTO, request).join();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(usuarioService, times(1)).recuperarContrasena(any(RecuperacionDTO.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void recuperarContrasena_respuestasIncorrectas_retornaBadRequest() {
+        RecuperacionDTO recuperacionDTO = new RecuperacionDTO();
+        when(usuarioService.recuperarContrasena(any(RecuperacionDTO.class))).thenReturn(CompletableFuture.failedFuture(
+                new RuntimeException("Una o ambas respuestas de seguridad son incorrectas.")));
+
+        ResponseEntity<?> response = usuarioController.recuperarContrasena(recuperacionDTO, request).join();
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Una o ambas respuestas de seguridad son incorrectas.", response.getBody());
+    }
+
+    @Test
+    void recuperarContrasena_poolSaturado_retornaServiceUnavailable() {
+        RecuperacionDTO recuperacionDTO = new RecuperacionDTO();
+        when(usuarioService.recuperarContrasena(any(RecuperacionDTO.class))).thenReturn(CompletableFuture.failedFuture(
+                new CompletionException(new ServicioSaturadoException("Servicio saturado, intente nuevamente", 1))));
+
+        ResponseEntity<?> response = usuarioController.recuperarContrasena(recuperacionDTO, request).join();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
+    @Test
+    void recuperarContrasena_limiteExcedido_retornaTooManyRequests() {
+        RecuperacionDTO recuperacionDTO = new RecuperacionDTO();
+        doThrow(new DemasiadosIntentosException("Demasiados intentos, intente más tarde", 60))
+                .when(limitadorIntentos).verificarRecuperacion(any(), any());
+
+        ResponseEntity<?> response = usuarioController.recuperarContrasena(recuperacionDTO, request).join();
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("60", response.getHeaders().getFirst("Retry-After"));
+        verify(usuarioService, never()).recuperarContrasena(any());
+    }
+
+    @Test
+    void getFoto_retornaBytesConEtag() {
+        FotoPerfil foto = FotoPerfil.builder()
+                .idUsuario(VALID_ID)
+                .contenido(new byte[]{1, 2, 3})
+                .tipoContenido("image/png")
+                .hash("abc")
+                .tamano(3)
+                .build();
+        when(fotoPerfilService.obtenerHash(VALID_ID)).thenReturn(Optional.of("abc"));
+        when(fotoPerfilService.obtener(VALID_ID)).thenReturn(foto);
+
+        ResponseEntity<byte[]> response = usuarioController.getFoto(VALID_ID, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
+        assertEquals("image/png", response.getHeaders().getContentType().toString());
+        assertArrayEquals(new byte[]{1, 2, 3}, response.getBody());
+    }
+
+    @Test
+    void getFoto_etagVigente_retornaNotModifiedSinLeerBlob() {
+        when(fotoPerfilService.obtenerHash(VALID_ID)).thenReturn(Optional.of("abc"));
+
+        ResponseEntity<byte[]> response = usuarioController.getFoto(VALID_ID, null, "W/\"otro\", \"abc\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        verify(fotoPerfilService, never()).obtener(any());
+    }
+
+    @Test
+    void getFoto_sinFoto_retornaNotFound() {
+        when(fotoPerfilService.obtenerHash(VALID_ID)).thenReturn(Optional.empty());
+
+        ResponseEntity<byte[]> response = usuarioController.getFoto(VALID_ID, null, null);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void getFoto_conTamano_retornaMiniaturaJpeg() {
+        when(fotoPerfilService.obtenerHash(VALID_ID)).thenReturn(Optional.of("abc"));
+        when(fotoPerfilService.obtenerMiniatura(VALID_ID, 64)).thenReturn(Optional.of(new byte[]{7}));
+
+        ResponseEntity<byte[]> response = usuarioController.getFoto(VALID_ID, 64, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"abc-64\"", response.getHeaders().getETag());
+        assertEquals(MediaType.IMAGE_JPEG, response.getHeaders().getContentType());
+        verify(fotoPerfilService, never()).obtener(any());
+    }
+
+    @Test
+    void getFoto_tamanoInvalido_retornaBadRequest() {
+        ResponseEntity<byte[]> response = usuarioController.getFoto(VALID_ID, 100, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(fotoPerfilService);
+    }
+
+    @Test
+    void updateFotoPerfil_base64_procesaYRetornaDTO() {
+        InputStream cuerpo = new ByteArrayInputStream("AQID".getBytes(StandardCharsets.US_ASCII));
+        FotoProcesada foto = FotoProcesada.builder().hash("abc").build();
+        when(procesadorFotos.procesarBase64(cuerpo)).thenReturn(foto);
+        when(usuarioService.updateFoto(VALID_ID, foto)).thenReturn(usuarioDTOEjemplo);
+
+        ResponseEntity<UsuarioDTO> response = usuarioController.updateFotoPerfil(VALID_ID, cuerpo);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(usuarioService, times(1)).updateFoto(VALID_ID, foto);
+    }
+
+    @Test
+    void subirFotoBinaria_usuarioNoExiste_retornaNotFound() {
+        InputStream cuerpo = new ByteArrayInputStream(new byte[]{1});
+        FotoProcesada foto = FotoProcesada.builder().hash("abc").build();
+        when(procesadorFotos.procesarBinario(cuerpo)).thenReturn(foto);
+        when(usuarioService.updateFoto(VALID_ID, foto)).thenThrow(new RuntimeException("Usuario no encontrado"));
+
+        ResponseEntity<UsuarioDTO> response = usuarioController.subirFotoBinaria(VALID_ID, cuerpo);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void subirFotoMultipart_fotoInvalida_retornaBadRequest() {
+        MockMultipartFile archivo = new MockMultipartFile("foto", "foto.png", "image/png", new byte[]{1});
+        when(procesadorFotos.procesarBinario(any())).thenThrow(new RuntimeException("La foto supera el tamaño máximo"));
+
+        ResponseEntity<UsuarioDTO> response = usuarioController.subirFotoMultipart(VALID_ID, archivo);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(usuarioService, never()).updateFoto(any(), any());
+    }
+}
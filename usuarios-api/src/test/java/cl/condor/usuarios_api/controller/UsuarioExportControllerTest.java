@@ -0,0 +1,45 @@
+package cl.condor.usuarios_api.controller;
+
+import cl.condor.usuarios_api.service.UsuarioExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UsuarioExportControllerTest {
+
+    @InjectMocks
+    private UsuarioExportController usuarioExportController;
+
+    @Mock
+    private UsuarioExportService usuarioExportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void exportar_retornaNdjsonYDelegaAlServicio() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = usuarioExportController.exportar(5, null, 1);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(UsuarioExportController.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertNotNull(response.getBody());
+
+        // El servicio recién se invoca cuando el contenedor escribe el cuerpo
+        verify(usuarioExportService, never()).exportar(any(), any(), any(), any());
+        response.getBody().writeTo(new ByteArrayOutputStream());
+        verify(usuarioExportService, times(1)).exportar(eq(5), isNull(), eq(1), any());
+    }
+}
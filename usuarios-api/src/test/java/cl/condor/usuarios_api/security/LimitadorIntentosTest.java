@@ -0,0 +1,58 @@
+package cl.condor.usuarios_api.security;
+
+import cl.condor.usuarios_api.exception.DemasiadosIntentosException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimitadorIntentosTest {
+
+    private static LimitadorIntentos limitador(boolean habilitado) {
+        Duration minuto = Duration.ofMinutes(1);
+        return new LimitadorIntentos(habilitado, 1000, 3, minuto, 2, minuto, 3, minuto, 1, minuto,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void verificarLogin_limitePorCorreo_ignoraMayusculasYEspacios() {
+        LimitadorIntentos limitador = limitador(true);
+        limitador.verificarLogin("10.0.0.1", "victima@test.com");
+        limitador.verificarLogin("10.0.0.2", " Victima@Test.com");
+
+        DemasiadosIntentosException e = assertThrows(DemasiadosIntentosException.class,
+                () -> limitador.verificarLogin("10.0.0.3", "VICTIMA@test.com"));
+        assertEquals(30, e.getRetryAfterSegundos());
+    }
+
+    @Test
+    void verificarLogin_limitePorIp_aunqueCambieElCorreo() {
+        LimitadorIntentos limitador = limitador(true);
+        limitador.verificarLogin("10.0.0.1", "a@test.com");
+        limitador.verificarLogin("10.0.0.1", "b@test.com");
+        limitador.verificarLogin("10.0.0.1", "c@test.com");
+
+        assertThrows(DemasiadosIntentosException.class, () -> limitador.verificarLogin("10.0.0.1", "d@test.com"));
+    }
+
+    @Test
+    void verificarRecuperacion_esIndependienteDelLogin() {
+        LimitadorIntentos limitador = limitador(true);
+        limitador.verificarLogin("10.0.0.1", "a@test.com");
+        limitador.verificarLogin("10.0.0.1", "a@test.com");
+
+        assertDoesNotThrow(() -> limitador.verificarRecuperacion("10.0.0.1", "a@test.com"));
+        assertThrows(DemasiadosIntentosException.class, () -> limitador.verificarRecuperacion("10.0.0.9", "a@test.com"));
+    }
+
+    @Test
+    void deshabilitado_nuncaRechaza() {
+        LimitadorIntentos limitador = limitador(false);
+
+        for (int i = 0; i < 10; i++) {
+            assertDoesNotThrow(() -> limitador.verificarLogin("10.0.0.1", "a@test.com"));
+        }
+    }
+}
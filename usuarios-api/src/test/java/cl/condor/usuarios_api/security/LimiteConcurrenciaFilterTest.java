@@ -0,0 +1,104 @@
+package cl.condor.usuarios_api.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LimiteConcurrenciaFilterTest {
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    private LimiteConcurrenciaFilter filtro(int maxPeticiones) {
+        return new LimiteConcurrenciaFilter(maxPeticiones, Duration.ofMillis(50), 1, registry);
+    }
+
+    @Test
+    void sinTope_dejaPasarTodo() throws Exception {
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/usuarios/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filtro(0).doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    void topeOcupado_retornaServiceUnavailableConRetryAfter() throws Exception {
+        LimiteConcurrenciaFilter filtro = filtro(1);
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch salir = new CountDownLatch(1);
+        // La primera petición ocupa el único lugar hasta que se le indique salir
+        CompletableFuture<Void> primera = CompletableFuture.runAsync(() -> {
+            try {
+                filtro.doFilter(new MockHttpServletRequest("GET", "/api/v1/usuarios/1"), new MockHttpServletResponse(),
+                        (req, res) -> {
+                            dentro.countDown();
+                            try {
+                                salir.await(5, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(new MockHttpServletRequest("GET", "/api/v1/usuarios/2"), response, chain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        verify(chain, never()).doFilter(any(), any());
+        assertEquals(1.0, registry.get("usuarios.concurrencia.rechazos").counter().count());
+        assertEquals(1.0, registry.get("usuarios.concurrencia.en-curso").gauge().value());
+
+        salir.countDown();
+        primera.get(5, TimeUnit.SECONDS);
+        assertEquals(0.0, registry.get("usuarios.concurrencia.en-curso").gauge().value());
+    }
+
+    @Test
+    void lugarLiberado_aunqueLaCadenaFalle() throws Exception {
+        LimiteConcurrenciaFilter filtro = filtro(1);
+        FilterChain falla = (req, res) -> {
+            throw new IllegalStateException("error");
+        };
+
+        assertThrows(IllegalStateException.class, () -> filtro.doFilter(
+                new MockHttpServletRequest("GET", "/api/v1/usuarios/1"), new MockHttpServletResponse(), falla));
+
+        FilterChain chain = mock(FilterChain.class);
+        filtro.doFilter(new MockHttpServletRequest("GET", "/api/v1/usuarios/1"), new MockHttpServletResponse(), chain);
+        verify(chain).doFilter(any(), any());
+    }
+
+    @Test
+    void actuator_noSeLimita() throws Exception {
+        LimiteConcurrenciaFilter filtro = filtro(1);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+        request.setRequestURI("/actuator/health");
+
+        assertTrue(filtro.shouldNotFilter(request));
+    }
+}
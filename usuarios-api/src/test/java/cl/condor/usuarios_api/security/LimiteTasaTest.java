@@ -0,0 +1,82 @@
+package cl.condor.usuarios_api.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteTasaTest {
+
+    private final AtomicLong reloj = new AtomicLong(1_000_000_000L);
+    private SimpleMeterRegistry registry;
+    private LimiteTasa limite;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        // 5 intentos por minuto: ráfaga de 5 y luego uno cada 12 s
+        limite = new LimiteTasa("prueba", 5, Duration.ofMinutes(1), 1000, reloj::get, registry);
+    }
+
+    @Test
+    void rafagaHastaElLimite_luegoRechazaConEspera() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limite.consumir("1.2.3.4"));
+        }
+
+        long espera = limite.consumir("1.2.3.4");
+
+        assertEquals(TimeUnit.SECONDS.toNanos(12), espera);
+        assertEquals(1.0, registry.get("usuarios.limites.rechazos").tag("limite", "prueba").counter().count());
+    }
+
+    @Test
+    void trasEsperarElIntervalo_vuelveAHaberCupo() {
+        for (int i = 0; i < 5; i++) limite.consumir("1.2.3.4");
+        assertTrue(limite.consumir("1.2.3.4") > 0);
+
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(12));
+
+        assertEquals(0, limite.consumir("1.2.3.4"));
+        assertTrue(limite.consumir("1.2.3.4") > 0);
+    }
+
+    @Test
+    void clavesIndependientes() {
+        for (int i = 0; i < 5; i++) limite.consumir("a@test.com");
+
+        assertTrue(limite.consumir("a@test.com") > 0);
+        assertEquals(0, limite.consumir("b@test.com"));
+    }
+
+    @Test
+    void concurrente_noPermiteMasQueElLimite() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch inicio = new CountDownLatch(1);
+        AtomicInteger permitidos = new AtomicInteger();
+        for (int i = 0; i < 200; i++) {
+            pool.execute(() -> {
+                try {
+                    inicio.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (limite.consumir("misma-ip") == 0) permitidos.incrementAndGet();
+            });
+        }
+        inicio.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(5, permitidos.get());
+    }
+}
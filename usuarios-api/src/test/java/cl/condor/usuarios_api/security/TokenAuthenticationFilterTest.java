@@ -0,0 +1,101 @@
+package cl.condor.usuarios_api.security;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenAuthenticationFilterTest {
+
+    @InjectMocks
+    private TokenAuthenticationFilter filtro;
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private FilterChain chain;
+
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void tokenValido_continuaConAtributos() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/usuarios/1");
+        request.addHeader("Authorization", "Bearer abc");
+        when(tokenService.validar("abc", TokenService.TIPO_ACCESO))
+                .thenReturn(new TokenClaims(1, "test@test.com", 2, TokenService.TIPO_ACCESO, 0L));
+
+        filtro.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        assertEquals(1, request.getAttribute(TokenAuthenticationFilter.ATRIBUTO_ID_USUARIO));
+        assertEquals("test@test.com", request.getAttribute(TokenAuthenticationFilter.ATRIBUTO_CORREO));
+    }
+
+    @Test
+    void tokenInvalido_retornaUnauthorized() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/usuarios/1");
+        request.addHeader("Authorization", "Bearer malo");
+        when(tokenService.validar("malo", TokenService.TIPO_ACCESO)).thenThrow(new RuntimeException("Token invalido"));
+
+        filtro.doFilter(request, response, chain);
+
+        assertEquals(401, response.getStatus());
+        assertEquals("Bearer", response.getHeader("WWW-Authenticate"));
+        verify(chain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    void sinToken_noRequerido_continua() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/usuarios/1");
+
+        filtro.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        verifyNoInteractions(tokenService);
+    }
+
+    @Test
+    void sinToken_requerido_rutaPrivada_retornaUnauthorized() throws Exception {
+        ReflectionTestUtils.setField(filtro, "requerido", true);
+        MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/api/v1/usuarios/1/nombre");
+
+        filtro.doFilter(request, response, chain);
+
+        assertEquals(401, response.getStatus());
+        verify(chain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    void sinToken_requerido_rutaPublica_continua() throws Exception {
+        ReflectionTestUtils.setField(filtro, "requerido", true);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/usuarios/login");
+
+        filtro.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    void esPublica_distingueMetodo() {
+        assertTrue(TokenAuthenticationFilter.esPublica(new MockHttpServletRequest("POST", "/api/v1/usuarios")));
+        assertFalse(TokenAuthenticationFilter.esPublica(new MockHttpServletRequest("GET", "/api/v1/usuarios")));
+        assertTrue(TokenAuthenticationFilter.esPublica(new MockHttpServletRequest("GET", "/api/v1/regiones/3")));
+        assertTrue(TokenAuthenticationFilter.esPublica(new MockHttpServletRequest("GET", "/doc/swagger-ui.html")));
+    }
+}
@@ -0,0 +1,106 @@
+package cl.condor.usuarios_api.security;
+
+import cl.condor.usuarios_api.dto.TokenDTO;
+import cl.condor.usuarios_api.model.Usuario;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTest {
+
+    private static final String SECRETO = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final Instant AHORA = Instant.parse("2025-01-01T00:00:00Z");
+
+    private TokenService tokenService;
+    private Usuario usuario;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = conReloj(AHORA);
+        usuario = Usuario.builder().id(7).correo("test@test.com").idRol(2).build();
+    }
+
+    private static TokenService conReloj(Instant instante) {
+        return new TokenService(new ObjectMapper(), SECRETO, Duration.ofMinutes(15), Duration.ofDays(7),
+                Clock.fixed(instante, ZoneOffset.UTC));
+    }
+
+    @Test
+    void emitir_validar_retornaClaims() {
+        TokenDTO tokens = tokenService.emitir(usuario);
+
+        TokenClaims claims = tokenService.validar(tokens.getAccessToken(), TokenService.TIPO_ACCESO);
+
+        assertEquals("Bearer", tokens.getTipo());
+        assertEquals(900L, tokens.getExpiraEn());
+        assertEquals(7, claims.getIdUsuario());
+        assertEquals("test@test.com", claims.getCorreo());
+        assertEquals(2, claims.getIdRol());
+        assertEquals(AHORA.plusSeconds(900).getEpochSecond(), claims.getExpiraEpochSegundos());
+    }
+
+    @Test
+    void validar_tipoIncorrecto_lanzaExcepcion() {
+        TokenDTO tokens = tokenService.emitir(usuario);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> tokenService.validar(tokens.getRefreshToken(), TokenService.TIPO_ACCESO));
+        assertEquals("Token invalido", e.getMessage());
+    }
+
+    @Test
+    void validar_firmaAlterada_lanzaExcepcion() {
+        String token = tokenService.emitir(usuario).getAccessToken();
+        String[] partes = token.split("\\.");
+        String payloadAjeno = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "{\"sub\":\"1\",\"typ\":\"access\",\"exp\":9999999999}".getBytes());
+        String alterado = partes[0] + "." + payloadAjeno + "." + partes[2];
+
+        assertThrows(RuntimeException.class, () -> tokenService.validar(alterado, TokenService.TIPO_ACCESO));
+    }
+
+    @Test
+    void validar_otraClave_lanzaExcepcion() {
+        byte[] otra = new byte[32];
+        otra[0] = 1;
+        TokenService otroServicio = new TokenService(new ObjectMapper(), Base64.getEncoder().encodeToString(otra),
+                Duration.ofMinutes(15), Duration.ofDays(7), Clock.fixed(AHORA, ZoneOffset.UTC));
+        String token = otroServicio.emitir(usuario).getAccessToken();
+
+        assertThrows(RuntimeException.class, () -> tokenService.validar(token, TokenService.TIPO_ACCESO));
+    }
+
+    @Test
+    void validar_tokenExpirado_lanzaExcepcion() {
+        String token = tokenService.emitir(usuario).getAccessToken();
+        TokenService despues = conReloj(AHORA.plus(Duration.ofMinutes(16)));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> despues.validar(token, TokenService.TIPO_ACCESO));
+        assertEquals("Token expirado", e.getMessage());
+    }
+
+    @Test
+    void validar_formatoInvalido_lanzaExcepcion() {
+        assertThrows(RuntimeException.class, () -> tokenService.validar(null, TokenService.TIPO_ACCESO));
+        assertThrows(RuntimeException.class, () -> tokenService.validar("abc", TokenService.TIPO_ACCESO));
+        assertThrows(RuntimeException.class, () -> tokenService.validar("a.b.c.d", TokenService.TIPO_ACCESO));
+        assertThrows(RuntimeException.class, () -> tokenService.validar("a.b.%%%", TokenService.TIPO_ACCESO));
+    }
+
+    @Test
+    void constructor_secretoCorto_lanzaExcepcion() {
+        String corto = Base64.getEncoder().encodeToString(new byte[16]);
+
+        assertThrows(IllegalStateException.class, () -> new TokenService(new ObjectMapper(), corto,
+                Duration.ofMinutes(15), Duration.ofDays(7)));
+    }
+}
@@ -0,0 +1,130 @@
+package cl.condor.usuarios_api.service;
+
+import cl.condor.usuarios_api.cache.PerfilCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AcumuladorRecorridosTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private PerfilCache perfilCache;
+
+    private AcumuladorRecorridos acumulador;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // Intervalo largo: los tests llaman a flush() directamente
+        acumulador = new AcumuladorRecorridos(jdbcTemplate, transactionManager, true, 60_000, 2,
+                perfilCache, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        // cerrar() escribe lo pendiente: se deja la BD respondiendo bien para que el
+        // flush final termine limpio (sin el WARN de flush fallido) y vacíe la cola
+        reset(jdbcTemplate);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenAnswer(inv -> filasActualizadas(inv.<List<Object[]>>getArgument(1).size()));
+        acumulador.cerrar();
+        assertEquals(0, acumulador.cantidadPendientes());
+    }
+
+    private static int[] filasActualizadas(int n) {
+        int[] filas = new int[n];
+        Arrays.fill(filas, 1);
+        return filas;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_sumaIncrementosPorUsuarioYOrdenaPorId() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 1});
+
+        acumulador.acumular(5, 1, new BigDecimal("3.50"));
+        acumulador.acumular(2, 1, new BigDecimal("1.00"));
+        acumulador.acumular(5, 2, new BigDecimal("0.25"));
+        acumulador.flush();
+
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(AcumuladorRecorridos.SQL_INCREMENTO), captor.capture());
+        List<Object[]> filas = captor.getValue();
+        assertEquals(2, filas.size());
+        assertArrayEquals(new Object[]{1, new BigDecimal("1.00"), 2}, filas.get(0));
+        assertArrayEquals(new Object[]{3, new BigDecimal("3.75"), 5}, filas.get(1));
+        assertEquals(0, acumulador.cantidadPendientes());
+        verify(perfilCache).invalidarTodos(Set.of(2, 5));
+    }
+
+    @Test
+    void flush_sinPendientes_noEjecutaNada() {
+        acumulador.flush();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void flush_falla_devuelveIncrementosALaCola() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("timeout"));
+        acumulador.acumular(1, 1, BigDecimal.ONE);
+
+        assertThrows(QueryTimeoutException.class, () -> acumulador.flush());
+        acumulador.acumular(1, 1, BigDecimal.ONE);
+
+        assertEquals(1, acumulador.cantidadPendientes());
+        verifyNoInteractions(perfilCache);
+    }
+
+    @Test
+    void flush_batchSinConteos_noFalla() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(null);
+        acumulador.acumular(1, 1, BigDecimal.ONE);
+
+        assertDoesNotThrow(() -> acumulador.flush());
+        assertEquals(0, acumulador.cantidadPendientes());
+    }
+
+    @Test
+    void acumular_superaMaxPendientes_retornaFalse() {
+        assertTrue(acumulador.acumular(1, 1, BigDecimal.ONE));
+        assertTrue(acumulador.acumular(2, 1, BigDecimal.ONE));
+
+        assertFalse(acumulador.acumular(3, 1, BigDecimal.ONE));
+        // Un usuario ya pendiente sigue sumando
+        assertTrue(acumulador.acumular(1, 1, BigDecimal.ONE));
+    }
+
+    @Test
+    void acumular_deshabilitado_retornaFalse() {
+        AcumuladorRecorridos deshabilitado = new AcumuladorRecorridos(jdbcTemplate, transactionManager, false,
+                250, 100, perfilCache, new SimpleMeterRegistry());
+
+        assertFalse(deshabilitado.acumular(1, 1, BigDecimal.ONE));
+        assertEquals(0, deshabilitado.cantidadPendientes());
+    }
+}
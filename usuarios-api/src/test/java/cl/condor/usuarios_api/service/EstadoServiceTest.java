@@ -1,17 +1,20 @@
 package cl.condor.usuarios_api.service;
 
+import cl.condor.usuarios_api.cache.CatalogoSnapshot;
 import cl.condor.usuarios_api.model.Estado;
 import cl.condor.usuarios_api.repository.EstadoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,6 +27,9 @@ public class EstadoServiceTest {
     @Mock
     private EstadoRepository estadoRepository;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     private Estado estadoEjemplo;
     private final Integer VALID_ID = 1;
     private final String ESTADO_NOT_FOUND_MSG = "Estado no encontrado";
@@ -67,7 +73,7 @@ public class EstadoServiceTest {
     @Test
     void findById_existe_retornaEstado() {
         // Arrange
-        when(estadoRepository.findById(VALID_ID)).thenReturn(Optional.of(estadoEjemplo));
+        when(estadoRepository.findAll()).thenReturn(Arrays.asList(estadoEjemplo));
 
         // Act
         Estado resultado = estadoService.findById(VALID_ID);
@@ -75,20 +81,18 @@ public class EstadoServiceTest {
         // Assert
         assertNotNull(resultado);
         assertEquals(VALID_ID, resultado.getId());
-        verify(estadoRepository, times(1)).findById(VALID_ID);
     }
 
     @Test
     void findById_noExiste_lanzaExcepcion() {
         // Arrange
-        when(estadoRepository.findById(VALID_ID)).thenReturn(Optional.empty());
+        when(estadoRepository.findAll()).thenReturn(Collections.emptyList());
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             estadoService.findById(VALID_ID);
         });
         assertEquals(ESTADO_NOT_FOUND_MSG, exception.getMessage());
-        verify(estadoRepository, times(1)).findById(VALID_ID);
     }
 
     @Test
@@ -105,4 +109,45 @@ public class EstadoServiceTest {
         assertEquals(estadoEjemplo.getNombre(), resultado.getNombre());
         verify(estadoRepository, times(1)).save(estadoEjemplo);
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAll_segundaLlamada_usaSnapshotSinIrALaBD() {
+        when(estadoRepository.findAll()).thenReturn(Arrays.asList(estadoEjemplo));
+
+        estadoService.findAll();
+        estadoService.findById(VALID_ID);
+        estadoService.findAll();
+
+        verify(estadoRepository, times(1)).findAll();
+    }
+
+    @Test
+    void save_recargaSnapshot() {
+        Estado nuevo = new Estado(2, "Nuevo");
+        when(estadoRepository.findAll())
+                .thenReturn(Arrays.asList(estadoEjemplo))
+                .thenReturn(Arrays.asList(estadoEjemplo, nuevo));
+        when(estadoRepository.save(any(Estado.class))).thenReturn(nuevo);
+        assertFalse(estadoService.existe(2));
+
+        estadoService.save(nuevo);
+
+        assertTrue(estadoService.existe(2));
+        assertEquals(2, estadoService.findAll().size());
+    }
+
+    @Test
+    void snapshot_incluyeJsonYCambiaVersionTrasSave() {
+        when(estadoRepository.findAll()).thenReturn(Arrays.asList(estadoEjemplo));
+        when(estadoRepository.save(any(Estado.class))).thenReturn(estadoEjemplo);
+
+        CatalogoSnapshot<Estado> antes = estadoService.snapshot();
+        estadoService.save(estadoEjemplo);
+        CatalogoSnapshot<Estado> despues = estadoService.snapshot();
+
+        assertTrue(new String(antes.getJson(), StandardCharsets.UTF_8).contains("\"id\":1"));
+        assertEquals(antes.getVersion() + 1, despues.getVersion());
+        // Mismo contenido, mismo ETag
+        assertEquals(antes.getEtag(), despues.getEtag());
+    }
+}
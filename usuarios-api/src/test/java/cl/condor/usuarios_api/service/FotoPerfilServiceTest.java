@@ -0,0 +1,74 @@
+package cl.condor.usuarios_api.service;
+
+import cl.condor.usuarios_api.dto.FotoProcesada;
+import cl.condor.usuarios_api.repository.FotoPerfilRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class FotoPerfilServiceTest {
+
+    @InjectMocks
+    private FotoPerfilService fotoPerfilService;
+
+    @Mock
+    private FotoPerfilRepository fotoPerfilRepository;
+
+    private final Integer VALID_ID = 1;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void guardar_persisteFotoYMiniaturas() {
+        FotoProcesada foto = FotoProcesada.builder()
+                .contenido(new byte[]{1, 2, 3})
+                .tipoContenido("image/png")
+                .hash("abc")
+                .miniatura64(new byte[]{4})
+                .miniatura256(new byte[]{5})
+                .build();
+
+        String hash = fotoPerfilService.guardar(VALID_ID, foto);
+
+        assertEquals("abc", hash);
+        verify(fotoPerfilRepository).guardar(VALID_ID, foto.getContenido(), "image/png", "abc", 3,
+                foto.getMiniatura64(), foto.getMiniatura256());
+        // Upsert directo: sin save()/merge(), que leería antes los blobs de la foto anterior
+        verify(fotoPerfilRepository, never()).save(any());
+        verify(fotoPerfilRepository, never()).findById(any());
+    }
+
+    @Test
+    void obtenerMiniatura_leeSoloLaColumnaPedida() {
+        when(fotoPerfilRepository.findMiniatura64ByIdUsuario(VALID_ID)).thenReturn(Optional.of(new byte[]{9}));
+
+        Optional<byte[]> miniatura = fotoPerfilService.obtenerMiniatura(VALID_ID, 64);
+
+        assertTrue(miniatura.isPresent());
+        verify(fotoPerfilRepository, never()).findMiniatura256ByIdUsuario(any());
+        verify(fotoPerfilRepository, never()).findById(any());
+    }
+
+    @Test
+    void obtenerMiniatura_tamanoNoSoportado_lanzaExcepcion() {
+        assertThrows(RuntimeException.class, () -> fotoPerfilService.obtenerMiniatura(VALID_ID, 100));
+    }
+
+    @Test
+    void obtener_noExiste_lanzaExcepcion() {
+        when(fotoPerfilRepository.findById(VALID_ID)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> fotoPerfilService.obtener(VALID_ID));
+    }
+}
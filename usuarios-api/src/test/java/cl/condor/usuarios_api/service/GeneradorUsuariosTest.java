@@ -0,0 +1,141 @@
+package cl.condor.usuarios_api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GeneradorUsuariosTest {
+
+    @InjectMocks
+    private GeneradorUsuarios generador;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private PasswordHashingService passwordHasher;
+
+    // Real: los avatares pasan por el mismo procesamiento que una subida
+    private final ProcesadorFotos procesadorFotos = new ProcesadorFotos();
+
+    private final List<Object[]> usuarios = new ArrayList<>();
+    private final List<Object[]> fotos = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(generador, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(generador, "procesadorFotos", procesadorFotos);
+        ReflectionTestUtils.setField(generador, "hilos", 3);
+        ReflectionTestUtils.setField(generador, "lote", 100);
+
+        when(passwordHasher.encodeTodos(anyList())).thenAnswer(inv -> {
+            List<String> raws = inv.getArgument(0);
+            return raws.stream().map(r -> "{bcrypt}" + r).toList();
+        });
+        when(jdbcTemplate.queryForObject(eq("SELECT COALESCE(MAX(id_usuario), 0) FROM usuario"), eq(Integer.class)))
+                .thenReturn(500);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Integer.class))).thenReturn(1);
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt(1)).thenReturn(7);
+        when(rs.getString(2)).thenReturn("Metropolitana");
+        doAnswer(inv -> {
+            inv.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT id_region"), any(RowCallbackHandler.class));
+        when(jdbcTemplate.queryForList(startsWith("SELECT id_rol"), eq(Integer.class))).thenReturn(List.of(1, 2));
+        when(jdbcTemplate.queryForList(startsWith("SELECT id_estado"), eq(Integer.class))).thenReturn(List.of(1, 2, 3));
+        doAnswer(inv -> {
+            List<Object[]> filas = inv.getArgument(1);
+            synchronized (this) {
+                (inv.getArgument(0).equals(GeneradorUsuarios.SQL_USUARIO) ? usuarios : fotos).addAll(filas);
+            }
+            return new int[filas.size()];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void generar_insertaIdsConsecutivosYCorreosUnicos() {
+        long insertados = generador.generar(1050);
+
+        assertEquals(1050, insertados);
+        assertEquals(1050, usuarios.size());
+        // 11 lotes: 10 de 100 y uno de 50
+        verify(jdbcTemplate, times(11)).batchUpdate(eq(GeneradorUsuarios.SQL_USUARIO), anyList());
+        TreeSet<Integer> ids = new TreeSet<>();
+        Set<String> correos = new HashSet<>();
+        for (Object[] fila : usuarios) {
+            ids.add((Integer) fila[0]);
+            correos.add((String) fila[2]);
+            assertTrue(((String) fila[2]).matches("[a-z0-9.]+@[a-z.]+"), (String) fila[2]);
+            assertEquals("{bcrypt}Condor-2024", fila[3]);
+            assertNotEquals(fila[7], fila[9], "las dos preguntas deben ser distintas");
+            assertTrue(((String) fila[8]).startsWith("{bcrypt}"));
+            assertEquals(7, fila[12]);
+        }
+        assertEquals(1050, ids.size());
+        assertEquals(501, ids.first());
+        assertEquals(1550, ids.last());
+        assertEquals(1050, correos.size());
+        assertTrue(fotos.isEmpty());
+        // Contraseña + 4 preguntas x 8 respuestas, todo en una llamada
+        verify(passwordHasher).encodeTodos(argThat(l -> l.size() == 33));
+    }
+
+    @Test
+    void generar_conFotos_insertaFotoYHashEnUsuario() {
+        ReflectionTestUtils.setField(generador, "fraccionConFoto", 1.0);
+
+        generador.generar(40);
+
+        assertEquals(40, fotos.size());
+        for (Object[] foto : fotos) {
+            assertEquals("image/jpeg", foto[2]);
+            assertNotNull(foto[5]);
+            Object[] usuario = usuarios.stream().filter(u -> u[0].equals(foto[0])).findFirst().orElseThrow();
+            assertEquals(foto[3], usuario[4]);
+        }
+    }
+
+    @Test
+    void generar_catalogosVacios_losCrea() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Integer.class))).thenReturn(0);
+
+        generador.generar(10);
+
+        verify(jdbcTemplate, times(16)).update(eq("INSERT INTO region (nombre) VALUES (?)"), anyString());
+        verify(jdbcTemplate, times(3)).update(eq("INSERT INTO rol (nombre) VALUES (?)"), anyString());
+        verify(jdbcTemplate, times(3)).update(eq("INSERT INTO estado (nombre) VALUES (?)"), anyString());
+    }
+
+    @Test
+    void generar_falloEnUnLote_propagaError() {
+        doThrow(new RuntimeException("Duplicate entry")).when(jdbcTemplate)
+                .batchUpdate(eq(GeneradorUsuarios.SQL_USUARIO), anyList());
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> generador.generar(10));
+        assertTrue(ex.getMessage().contains("Duplicate entry"));
+    }
+}
@@ -0,0 +1,91 @@
+package cl.condor.usuarios_api.service;
+
+import cl.condor.usuarios_api.exception.DemasiadosIntentosException;
+import cl.condor.usuarios_api.exception.ServicioSaturadoException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricasUsuariosTest {
+
+    private SimpleMeterRegistry registry;
+    private MetricasUsuarios metricas;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metricas = new MetricasUsuarios(registry);
+    }
+
+    private Timer timer(String operacion, String resultado) {
+        return registry.get("usuarios.operacion").tags("operacion", operacion, "resultado", resultado).timer();
+    }
+
+    @Test
+    void medir_exito_registraSuccessYDevuelveValor() {
+        assertEquals("ok", metricas.medir("findById", () -> "ok"));
+        assertEquals("ok", metricas.medir("findById", () -> "ok"));
+
+        assertEquals(2, timer("findById", "success").count());
+    }
+
+    @Test
+    void medir_excepcion_registraResultadoYRelanza() {
+        assertThrows(RuntimeException.class, () -> metricas.medir("findById", () -> {
+            throw new RuntimeException("Usuario no encontrado");
+        }));
+        assertThrows(RuntimeException.class, () -> metricas.medir("save", () -> {
+            throw new RuntimeException("El correo ya está registrado");
+        }));
+
+        assertEquals(1, timer("findById", "not-found").count());
+        assertEquals(1, timer("save", "invalid").count());
+    }
+
+    @Test
+    void medirAsync_registraAlCompletarElFuture() {
+        CompletableFuture<String> pendiente = new CompletableFuture<>();
+        CompletableFuture<String> medido = metricas.medirAsync("login", () -> pendiente);
+
+        assertNull(registry.find("usuarios.operacion").timer());
+        pendiente.completeExceptionally(new CompletionException(new RuntimeException("Credenciales invalidas")));
+
+        assertThrows(CompletionException.class, medido::join);
+        assertEquals(1, timer("login", "invalid").count());
+    }
+
+    @Test
+    void medirAsync_falloAntesDelFuture_tambienSeMide() {
+        assertThrows(RuntimeException.class, () -> metricas.medirAsync("recuperarContrasena", () -> {
+            throw new RuntimeException("Usuario no encontrado.");
+        }));
+
+        assertEquals(1, timer("recuperarContrasena", "not-found").count());
+    }
+
+    @Test
+    void resultado_clasificaSaturacionYErroresInesperados() {
+        assertEquals(MetricasUsuarios.RECHAZADO, MetricasUsuarios.resultado(new ServicioSaturadoException("saturado", 1)));
+        assertEquals(MetricasUsuarios.RECHAZADO, MetricasUsuarios.resultado(
+                new CompletionException(new DemasiadosIntentosException("demasiados", 1))));
+        assertEquals(MetricasUsuarios.ERROR, MetricasUsuarios.resultado(new DataAccessResourceFailureException("sin BD")));
+    }
+
+    @Test
+    void medirFase_yTamanoFoto_seRegistran() {
+        metricas.medirFase("busqueda", () -> null);
+        metricas.medirFaseAsync("verificacion", CompletableFuture.completedFuture(true)).join();
+        metricas.registrarTamanoFoto(2048);
+
+        assertEquals(1, registry.get("usuarios.login.fase").tag("fase", "busqueda").timer().count());
+        assertEquals(1, registry.get("usuarios.login.fase").tag("fase", "verificacion").timer().count());
+        assertEquals(2048.0, registry.get("usuarios.foto.tamano").summary().totalAmount());
+    }
+}
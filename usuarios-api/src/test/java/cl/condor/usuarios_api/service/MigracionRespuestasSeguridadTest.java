@@ -0,0 +1,133 @@
+package cl.condor.usuarios_api.service;
+
+import cl.condor.usuarios_api.exception.ServicioSaturadoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MigracionRespuestasSeguridadTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PasswordHashingService passwordHasher;
+
+    private SimpleMeterRegistry registry;
+    private MigracionRespuestasSeguridad migracion;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        registry = new SimpleMeterRegistry();
+        migracion = new MigracionRespuestasSeguridad(jdbcTemplate, passwordHasher, true, 2, registry);
+        when(passwordHasher.encode(anyString())).thenAnswer(inv -> "{bcrypt}" + inv.getArgument(0));
+    }
+
+    private static MigracionRespuestasSeguridad.Pendiente fila(int id, String r1, String r2) {
+        return new MigracionRespuestasSeguridad.Pendiente(id, r1, r2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void paginas(List<MigracionRespuestasSeguridad.Pendiente>... paginas) {
+        var stub = when(jdbcTemplate.query(eq(MigracionRespuestasSeguridad.SQL_PENDIENTES), any(RowMapper.class),
+                any(), any()));
+        for (List<MigracionRespuestasSeguridad.Pendiente> p : paginas) {
+            stub = stub.thenReturn(p);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void migrar_recorrePorPaginasYActualizaCondicionalmente() throws Exception {
+        paginas(List.of(fila(1, "azul", "pizza"), fila(5, "{bcrypt}x", "rojo")), List.of(fila(9, "a", "b")));
+        when(jdbcTemplate.batchUpdate(eq(MigracionRespuestasSeguridad.SQL_ACTUALIZAR), anyList()))
+                .thenReturn(new int[]{1, 1}, new int[]{0});
+
+        int migradas = migracion.migrar();
+
+        // La fila 9 cambió entre la lectura y el UPDATE: no cuenta
+        assertEquals(2, migradas);
+        assertEquals(2.0, registry.get("usuarios.respuestas.migradas").counter().count());
+        // Keyset: la segunda página empieza después del último id de la primera
+        verify(jdbcTemplate).query(eq(MigracionRespuestasSeguridad.SQL_PENDIENTES), any(RowMapper.class), eq(0), eq(2));
+        verify(jdbcTemplate).query(eq(MigracionRespuestasSeguridad.SQL_PENDIENTES), any(RowMapper.class), eq(5), eq(2));
+
+        ArgumentCaptor<List<Object[]>> lotes = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(MigracionRespuestasSeguridad.SQL_ACTUALIZAR), lotes.capture());
+        Object[] primera = lotes.getAllValues().get(0).get(0);
+        assertArrayEquals(new Object[]{"{bcrypt}azul", "{bcrypt}pizza", 1, "azul", "pizza"}, primera);
+        // La respuesta ya hasheada se conserva tal cual
+        Object[] segunda = lotes.getAllValues().get(0).get(1);
+        assertArrayEquals(new Object[]{"{bcrypt}x", "{bcrypt}rojo", 5, "{bcrypt}x", "rojo"}, segunda);
+        verify(passwordHasher, never()).encode("{bcrypt}x");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void migrar_sinPendientes_noEscribe() throws Exception {
+        paginas(List.of());
+
+        assertEquals(0, migracion.migrar());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(passwordHasher, never()).encode(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void migrar_poolSaturado_reintentaElMismoValor() throws Exception {
+        paginas(List.of(fila(1, "azul", "pizza")));
+        when(passwordHasher.encode("azul"))
+                .thenThrow(new ServicioSaturadoException("Servicio saturado, intente nuevamente", 0))
+                .thenReturn("{bcrypt}azul");
+        when(jdbcTemplate.batchUpdate(eq(MigracionRespuestasSeguridad.SQL_ACTUALIZAR), anyList()))
+                .thenReturn(new int[]{1});
+
+        assertEquals(1, migracion.migrar());
+        verify(passwordHasher, times(2)).encode("azul");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void migrar_textoPlanoConFormaDePrefijo_seHashea() throws Exception {
+        paginas(List.of(fila(1, "{casa}azul", "$2b$12$abc")));
+        when(jdbcTemplate.batchUpdate(eq(MigracionRespuestasSeguridad.SQL_ACTUALIZAR), anyList()))
+                .thenReturn(new int[]{1});
+
+        assertEquals(1, migracion.migrar());
+        verify(passwordHasher).encode("{casa}azul");
+        verify(passwordHasher, never()).encode("$2b$12$abc");
+    }
+
+    @Test
+    void sqlPendientes_usaLosMismosPrefijosQueEsHash() {
+        String sql = MigracionRespuestasSeguridad.SQL_PENDIENTES;
+
+        for (String prefijo : PasswordHashingService.PREFIJOS_HASH) {
+            assertTrue(sql.contains("respuesta_seguridad1 LIKE '" + prefijo + "%'"), prefijo);
+            assertTrue(sql.contains("respuesta_seguridad2 LIKE '" + prefijo + "%'"), prefijo);
+        }
+        assertFalse(sql.contains("'{%'"));
+    }
+
+    @Test
+    void iniciar_deshabilitada_noConsultaLaBD() {
+        new MigracionRespuestasSeguridad(jdbcTemplate, passwordHasher, false, 2, registry).iniciar();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,119 @@
+package cl.condor.usuarios_api.service;
+
+import cl.condor.usuarios_api.exception.ServicioSaturadoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PasswordHashingServiceTest {
+
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private ThreadPoolExecutor executor;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // 1 hilo y cola de 1: la tercera tarea concurrente se rechaza
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        registry = new SimpleMeterRegistry();
+        passwordHashingService = new PasswordHashingService(passwordEncoder, executor, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void matchesAsync_ejecutaEnElPoolYRegistraTiempo() {
+        when(passwordEncoder.matches("clave", "hash")).thenReturn(true);
+
+        assertTrue(passwordHashingService.matchesAsync("clave", "hash").join());
+        assertEquals(1, registry.get("usuarios.password.hash").tag("operacion", "matches").timer().count());
+    }
+
+    @Test
+    void esHash_distingueHashesDeTextoPlano() {
+        assertTrue(PasswordHashingService.esHash("{bcrypt}$2a$12$abc"));
+        assertTrue(PasswordHashingService.esHash("{pbkdf2}abc"));
+        assertTrue(PasswordHashingService.esHash("$2a$10$abc"));
+        assertFalse(PasswordHashingService.esHash("azul"));
+        assertFalse(PasswordHashingService.esHash("{}"));
+        // Respuestas en texto plano con forma {x}y: solo cuentan los encoders registrados
+        assertFalse(PasswordHashingService.esHash("{casa}azul"));
+        assertFalse(PasswordHashingService.esHash("{noop}azul"));
+        assertFalse(PasswordHashingService.esHash("{bcrypt}"));
+        assertTrue(PasswordHashingService.esHash("$2b$12$abc"));
+        assertTrue(PasswordHashingService.esHash("$2y$12$abc"));
+        assertFalse(PasswordHashingService.esHash(null));
+    }
+
+    @Test
+    void verificarFicticio_ejecutaBCryptYSiempreFalla() {
+        when(passwordEncoder.encode(anyString())).thenReturn("hash-ficticio");
+        when(passwordEncoder.matches("clave", "hash-ficticio")).thenReturn(true);
+
+        assertFalse(passwordHashingService.verificarFicticio("clave").join());
+        assertFalse(passwordHashingService.verificarFicticio("clave").join());
+
+        // El hash ficticio se genera una sola vez; cada verificación cuesta lo mismo que un login
+        verify(passwordEncoder, times(1)).encode(anyString());
+        verify(passwordEncoder, times(2)).matches("clave", "hash-ficticio");
+        assertEquals(2, registry.get("usuarios.password.hash").tag("operacion", "matches").timer().count());
+    }
+
+    @Test
+    void encode_bloqueanteRetornaHash() {
+        when(passwordEncoder.encode("clave")).thenReturn("hash");
+
+        assertEquals("hash", passwordHashingService.encode("clave"));
+    }
+
+    @Test
+    void encodeTodos_noSaturaLaColaYConservaElOrden() {
+        // Con cola de 1, enviar 5 de golpe se rechazaría; en tandas del tamaño del pool no
+        when(passwordEncoder.encode(anyString())).thenAnswer(inv -> "h-" + inv.getArgument(0));
+
+        List<String> hashes = passwordHashingService.encodeTodos(List.of("a", "b", "c", "d", "e"));
+
+        assertEquals(List.of("h-a", "h-b", "h-c", "h-d", "h-e"), hashes);
+    }
+
+    @Test
+    void poolSaturado_lanzaServicioSaturado() throws InterruptedException {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch ocupado = new CountDownLatch(1);
+        when(passwordEncoder.encode(anyString())).thenAnswer(inv -> {
+            ocupado.countDown();
+            liberar.await();
+            return "hash";
+        });
+
+        passwordHashingService.encodeAsync("a");   // ocupa el único hilo
+        ocupado.await();
+        passwordHashingService.encodeAsync("b");   // ocupa la cola
+
+        assertThrows(ServicioSaturadoException.class, () -> passwordHashingService.encodeAsync("c"));
+        assertEquals(1.0, registry.get("usuarios.password.rechazos").counter().count());
+        liberar.countDown();
+    }
+}
@@ -0,0 +1,110 @@
+package cl.condor.usuarios_api.service;
+
+import cl.condor.usuarios_api.dto.FotoProcesada;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProcesadorFotosTest {
+
+    private ProcesadorFotos procesadorFotos;
+
+    @BeforeEach
+    void setUp() {
+        procesadorFotos = new ProcesadorFotos();
+    }
+
+    @Test
+    void procesarBinario_generaMiniaturasCuadradas() throws IOException {
+        byte[] png = pngDePrueba(300, 200);
+
+        FotoProcesada foto = procesadorFotos.procesarBinario(new ByteArrayInputStream(png));
+
+        assertArrayEquals(png, foto.getContenido());
+        assertEquals("image/png", foto.getTipoContenido());
+        assertEquals(ProcesadorFotos.calcularHash(png), foto.getHash());
+        BufferedImage mini64 = ImageIO.read(new ByteArrayInputStream(foto.getMiniatura64()));
+        BufferedImage mini256 = ImageIO.read(new ByteArrayInputStream(foto.getMiniatura256()));
+        assertEquals(64, mini64.getWidth());
+        assertEquals(64, mini64.getHeight());
+        assertEquals(256, mini256.getWidth());
+        assertEquals(256, mini256.getHeight());
+    }
+
+    @Test
+    void procesarBase64_aceptaPrefijoDataUriYSaltosDeLinea() throws IOException {
+        byte[] png = pngDePrueba(10, 10);
+        String b64 = Base64.getMimeEncoder(8, "\r\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(png);
+        String cuerpo = "data:image/png;base64," + b64;
+
+        FotoProcesada foto = procesadorFotos.procesarBase64(new ByteArrayInputStream(cuerpo.getBytes(StandardCharsets.US_ASCII)));
+
+        assertArrayEquals(png, foto.getContenido());
+    }
+
+    @Test
+    void procesarBase64_invalido_lanzaExcepcion() {
+        byte[] cuerpo = "%%no-es-base64%%".getBytes(StandardCharsets.US_ASCII);
+
+        assertThrows(RuntimeException.class, () -> procesadorFotos.procesarBase64(new ByteArrayInputStream(cuerpo)));
+    }
+
+    @Test
+    void procesarBinario_superaTamanoMaximo_lanzaExcepcion() {
+        ReflectionTestUtils.setField(procesadorFotos, "maxBytes", 10);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> procesadorFotos.procesarBinario(new ByteArrayInputStream(new byte[11])));
+        assertTrue(e.getMessage().contains("tamaño máximo"));
+    }
+
+    @Test
+    void procesarBinario_noEsImagen_seGuardaSinMiniaturas() {
+        FotoProcesada foto = procesadorFotos.procesarBinario(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+
+        assertEquals(ProcesadorFotos.TIPO_DESCONOCIDO, foto.getTipoContenido());
+        assertNull(foto.getMiniatura64());
+        assertNull(foto.getMiniatura256());
+    }
+
+    @Test
+    void procesarBinario_vacia_lanzaExcepcion() {
+        assertThrows(RuntimeException.class, () -> procesadorFotos.procesarBinario(new ByteArrayInputStream(new byte[0])));
+    }
+
+    @Test
+    void detectarTipo_reconoceFormatosComunes() {
+        assertEquals("image/jpeg", ProcesadorFotos.detectarTipo(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0}));
+        assertEquals("image/gif", ProcesadorFotos.detectarTipo("GIF89a".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("image/webp", ProcesadorFotos.detectarTipo("RIFF0000WEBPVP8 ".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(ProcesadorFotos.TIPO_DESCONOCIDO, ProcesadorFotos.detectarTipo(new byte[]{1, 2}));
+    }
+
+    @Test
+    void calcularHash_esSha256Hex() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                ProcesadorFotos.calcularHash("abc".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static byte[] pngDePrueba(int ancho, int alto) throws IOException {
+        BufferedImage imagen = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < ancho; x++) {
+            for (int y = 0; y < alto; y++) {
+                imagen.setRGB(x, y, 0xFF000000 | (x * 255 / ancho) << 16 | (y * 255 / alto) << 8);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(imagen, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -1,17 +1,20 @@
 package cl.condor.usuarios_api.service;
 
+import cl.condor.usuarios_api.cache.CatalogoSnapshot;
 import cl.condor.usuarios_api.model.Region;
 import cl.condor.usuarios_api.repository.RegionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,6 +27,9 @@ public class RegionServiceTest {
     @Mock
     private RegionRepository regionRepository;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     private Region regionEjemplo;
     private final Integer VALID_ID = 1;
     private final String REGION_NOT_FOUND_MSG = "Región no encontrada";
@@ -60,24 +66,22 @@ public class RegionServiceTest {
 
     @Test
     void findById_existe_retornaRegion() {
-        when(regionRepository.findById(VALID_ID)).thenReturn(Optional.of(regionEjemplo));
+        when(regionRepository.findAll()).thenReturn(Arrays.asList(regionEjemplo));
 
         Region resultado = regionService.findById(VALID_ID);
 
         assertNotNull(resultado);
         assertEquals(VALID_ID, resultado.getId());
-        verify(regionRepository, times(1)).findById(VALID_ID);
     }
 
     @Test
     void findById_noExiste_lanzaExcepcion() {
-        when(regionRepository.findById(VALID_ID)).thenReturn(Optional.empty());
+        when(regionRepository.findAll()).thenReturn(Collections.emptyList());
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             regionService.findById(VALID_ID);
         });
         assertEquals(REGION_NOT_FOUND_MSG, exception.getMessage());
-        verify(regionRepository, times(1)).findById(VALID_ID);
     }
 
     @Test
@@ -91,4 +95,45 @@ public class RegionServiceTest {
         assertEquals(regionEjemplo.getNombre(), resultado.getNombre());
         verify(regionRepository, times(1)).save(regionEjemplo);
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAll_segundaLlamada_usaSnapshotSinIrALaBD() {
+        when(regionRepository.findAll()).thenReturn(Arrays.asList(regionEjemplo));
+
+        regionService.findAll();
+        regionService.findById(VALID_ID);
+        regionService.findAll();
+
+        verify(regionRepository, times(1)).findAll();
+    }
+
+    @Test
+    void save_recargaSnapshot() {
+        Region nuevo = new Region(2, "Nuevo");
+        when(regionRepository.findAll())
+                .thenReturn(Arrays.asList(regionEjemplo))
+                .thenReturn(Arrays.asList(regionEjemplo, nuevo));
+        when(regionRepository.save(any(Region.class))).thenReturn(nuevo);
+        assertFalse(regionService.existe(2));
+
+        regionService.save(nuevo);
+
+        assertTrue(regionService.existe(2));
+        assertEquals(2, regionService.findAll().size());
+    }
+
+    @Test
+    void snapshot_incluyeJsonYCambiaVersionTrasSave() {
+        when(regionRepository.findAll()).thenReturn(Arrays.asList(regionEjemplo));
+        when(regionRepository.save(any(Region.class))).thenReturn(regionEjemplo);
+
+        CatalogoSnapshot<Region> antes = regionService.snapshot();
+        regionService.save(regionEjemplo);
+        CatalogoSnapshot<Region> despues = regionService.snapshot();
+
+        assertTrue(new String(antes.getJson(), StandardCharsets.UTF_8).contains("\"id\":1"));
+        assertEquals(antes.getVersion() + 1, despues.getVersion());
+        // Mismo contenido, mismo ETag
+        assertEquals(antes.getEtag(), despues.getEtag());
+    }
+}
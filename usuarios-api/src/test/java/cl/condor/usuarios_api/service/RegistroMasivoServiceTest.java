@@ -0,0 +1,173 @@
+package cl.condor.usuarios_api.service;
+
+import cl.condor.usuarios_api.cache.FiltroCorreos;
+import cl.condor.usuarios_api.dto.RegistroMasivoDTO;
+import cl.condor.usuarios_api.model.Usuario;
+import cl.condor.usuarios_api.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class RegistroMasivoServiceTest {
+
+    @InjectMocks
+    private RegistroMasivoService registroMasivoService;
+
+    @Mock
+    private UsuarioService usuarioService;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private PasswordHashingService passwordHasher;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private FiltroCorreos filtroCorreos;
+
+    private final AtomicInteger secuencia = new AtomicInteger(100);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(registroMasivoService, "transactionTemplate",
+                new TransactionTemplate(transactionManager));
+
+        when(passwordHasher.encodeTodos(anyList())).thenAnswer(inv -> {
+            List<String> raws = inv.getArgument(0);
+            return raws.stream().map(r -> "hash-" + r).toList();
+        });
+        // Simula el driver: un id autogenerado por fila del batch
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class))).thenAnswer(inv -> {
+            BatchPreparedStatementSetter setter = inv.getArgument(1);
+            KeyHolder keys = inv.getArgument(2);
+            for (int k = 0; k < setter.getBatchSize(); k++) {
+                keys.getKeyList().add(Map.of("GENERATED_KEY", (long) secuencia.getAndIncrement()));
+            }
+            return new int[setter.getBatchSize()];
+        });
+    }
+
+    private static Usuario usuario(String correo) {
+        return Usuario.builder().nombre("N").correo(correo).contrasena("clave-" + correo)
+                .respuestaSeguridad1("azul").respuestaSeguridad2("pizza").idRegion(1).idRol(1).build();
+    }
+
+    @Test
+    void registrar_todosValidos_creaEnUnSoloBatch() {
+        List<Usuario> usuarios = new ArrayList<>(List.of(usuario("a@a.cl"), usuario("b@a.cl")));
+        when(usuarioRepository.findCorreosExistentes(anyList())).thenReturn(List.of());
+
+        RegistroMasivoDTO resultado = registroMasivoService.registrar(usuarios);
+
+        assertEquals(2, resultado.getCreados());
+        assertEquals(0, resultado.getRechazados());
+        assertEquals(100, resultado.getResultados().get(0).getId());
+        assertEquals(101, resultado.getResultados().get(1).getId());
+        assertEquals("hash-clave-a@a.cl", usuarios.get(0).getContrasena());
+        assertEquals("hash-azul", usuarios.get(0).getRespuestaSeguridad1());
+        assertEquals("hash-pizza", usuarios.get(1).getRespuestaSeguridad2());
+        verify(jdbcTemplate, times(1)).batchUpdate(any(PreparedStatementCreator.class),
+                any(BatchPreparedStatementSetter.class), any(KeyHolder.class));
+        verify(usuarioRepository, times(1)).findCorreosExistentes(anyList());
+        verify(filtroCorreos).agregar("a@a.cl");
+        verify(filtroCorreos).agregar("b@a.cl");
+    }
+
+    @Test
+    void registrar_rechazaInvalidosRepetidosYExistentes() {
+        Usuario invalido = usuario("x@a.cl");
+        doThrow(new RuntimeException("Rol no encontrado, no se puede guardar el Usuario"))
+                .when(usuarioService).validarRegistro(invalido);
+        List<Usuario> usuarios = List.of(usuario("a@a.cl"), invalido, usuario("a@a.cl"), usuario("ya@a.cl"));
+        when(usuarioRepository.findCorreosExistentes(anyList())).thenReturn(List.of("ya@a.cl"));
+
+        RegistroMasivoDTO resultado = registroMasivoService.registrar(usuarios);
+
+        assertEquals(1, resultado.getCreados());
+        assertEquals(3, resultado.getRechazados());
+        assertNotNull(resultado.getResultados().get(0).getId());
+        assertEquals("Rol no encontrado, no se puede guardar el Usuario", resultado.getResultados().get(1).getError());
+        assertEquals("Correo repetido en la solicitud", resultado.getResultados().get(2).getError());
+        assertEquals("El correo ya está registrado", resultado.getResultados().get(3).getError());
+        // Solo se hashea lo que se va a insertar
+        verify(passwordHasher).encodeTodos(List.of("clave-a@a.cl", "azul", "pizza"));
+    }
+
+    @Test
+    void registrar_conflictoEnElLote_reintentaFilaAFila() {
+        List<Usuario> usuarios = List.of(usuario("a@a.cl"), usuario("b@a.cl"));
+        when(usuarioRepository.findCorreosExistentes(anyList())).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class)))
+                .thenThrow(UsuarioServiceTest.correoDuplicado())
+                .thenAnswer(inv -> {
+                    ((KeyHolder) inv.getArgument(2)).getKeyList().add(Map.of("GENERATED_KEY", 7L));
+                    return new int[]{1};
+                })
+                .thenThrow(UsuarioServiceTest.correoDuplicado());
+
+        RegistroMasivoDTO resultado = registroMasivoService.registrar(usuarios);
+
+        assertEquals(1, resultado.getCreados());
+        assertEquals(7, resultado.getResultados().get(0).getId());
+        assertEquals("El correo ya está registrado", resultado.getResultados().get(1).getError());
+    }
+
+    @Test
+    void registrar_violacionQueNoEsDeCorreo_sePropaga() {
+        List<Usuario> usuarios = List.of(usuario("a@a.cl"));
+        when(usuarioRepository.findCorreosExistentes(anyList())).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class)))
+                .thenThrow(new DataIntegrityViolationException("fk", new SQLIntegrityConstraintViolationException(
+                        "Cannot add or update a child row: a foreign key constraint fails", "23000", 1452)));
+
+        assertThrows(DataIntegrityViolationException.class, () -> registroMasivoService.registrar(usuarios));
+        verify(jdbcTemplate, times(1)).batchUpdate(any(PreparedStatementCreator.class),
+                any(BatchPreparedStatementSetter.class), any(KeyHolder.class));
+    }
+
+    @Test
+    void registrar_listaVacia_lanzaExcepcion() {
+        assertThrows(RuntimeException.class, () -> registroMasivoService.registrar(List.of()));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void registrar_superaMaximo_lanzaExcepcion() {
+        ReflectionTestUtils.setField(registroMasivoService, "maxItems", 1);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> registroMasivoService.registrar(List.of(usuario("a@a.cl"), usuario("b@a.cl"))));
+        assertEquals("Máximo 1 usuarios por solicitud", e.getMessage());
+    }
+}
@@ -1,17 +1,20 @@
 package cl.condor.usuarios_api.service;
 
+import cl.condor.usuarios_api.cache.CatalogoSnapshot;
 import cl.condor.usuarios_api.model.Rol;
 import cl.condor.usuarios_api.repository.RolRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,6 +27,9 @@ public class RolServiceTest {
     @Mock
     private RolRepository rolRepository;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     private Rol rolEjemplo;
     private final Integer VALID_ID = 1;
     private final String ROL_NOT_FOUND_MSG = "Rol no encontrado";
@@ -60,24 +66,22 @@ public class RolServiceTest {
 
     @Test
     void findById_existe_retornaRol() {
-        when(rolRepository.findById(VALID_ID)).thenReturn(Optional.of(rolEjemplo));
+        when(rolRepository.findAll()).thenReturn(Arrays.asList(rolEjemplo));
 
         Rol resultado = rolService.findById(VALID_ID);
 
         assertNotNull(resultado);
         assertEquals(VALID_ID, resultado.getId());
-        verify(rolRepository, times(1)).findById(VALID_ID);
     }
 
     @Test
     void findById_noExiste_lanzaExcepcion() {
-        when(rolRepository.findById(VALID_ID)).thenReturn(Optional.empty());
+        when(rolRepository.findAll()).thenReturn(Collections.emptyList());
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             rolService.findById(VALID_ID);
         });
         assertEquals(ROL_NOT_FOUND_MSG, exception.getMessage());
-        verify(rolRepository, times(1)).findById(VALID_ID);
     }
 
     @Test
@@ -91,4 +95,45 @@ public class RolServiceTest {
         assertEquals(rolEjemplo.getNombre(), resultado.getNombre());
         verify(rolRepository, times(1)).save(rolEjemplo);
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAll_segundaLlamada_usaSnapshotSinIrALaBD() {
+        when(rolRepository.findAll()).thenReturn(Arrays.asList(rolEjemplo));
+
+        rolService.findAll();
+        rolService.findById(VALID_ID);
+        rolService.findAll();
+
+        verify(rolRepository, times(1)).findAll();
+    }
+
+    @Test
+    void save_recargaSnapshot() {
+        Rol nuevo = new Rol(2, "Nuevo");
+        when(rolRepository.findAll())
+                .thenReturn(Arrays.asList(rolEjemplo))
+                .thenReturn(Arrays.asList(rolEjemplo, nuevo));
+        when(rolRepository.save(any(Rol.class))).thenReturn(nuevo);
+        assertFalse(rolService.existe(2));
+
+        rolService.save(nuevo);
+
+        assertTrue(rolService.existe(2));
+        assertEquals(2, rolService.findAll().size());
+    }
+
+    @Test
+    void snapshot_incluyeJsonYCambiaVersionTrasSave() {
+        when(rolRepository.findAll()).thenReturn(Arrays.asList(rolEjemplo));
+        when(rolRepository.save(any(Rol.class))).thenReturn(rolEjemplo);
+
+        CatalogoSnapshot<Rol> antes = rolService.snapshot();
+        rolService.save(rolEjemplo);
+        CatalogoSnapshot<Rol> despues = rolService.snapshot();
+
+        assertTrue(new String(antes.getJson(), StandardCharsets.UTF_8).contains("\"id\":1"));
+        assertEquals(antes.getVersion() + 1, despues.getVersion());
+        // Mismo contenido, mismo ETag
+        assertEquals(antes.getEtag(), despues.getEtag());
+    }
+}
@@ -0,0 +1,68 @@
+package cl.condor.usuarios_api.service;
+
+import cl.condor.usuarios_api.dto.UsuarioResumenDTO;
+import cl.condor.usuarios_api.repository.UsuarioRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UsuarioExportServiceTest {
+
+    @InjectMocks
+    private UsuarioExportService usuarioExportService;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void exportar_escribeUnaLineaPorUsuario() throws Exception {
+        when(usuarioRepository.streamResumen(null, null, null)).thenReturn(Stream.of(
+                UsuarioResumenDTO.builder().id(1).nombre("Ana").correo("ana@test.com").kmRecorridos(BigDecimal.TEN).build(),
+                UsuarioResumenDTO.builder().id(2).nombre("Beto").correo("beto@test.com").build()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long total = usuarioExportService.exportar(null, null, null, out);
+
+        String[] lineas = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, total);
+        assertEquals(2, lineas.length);
+        JsonNode primera = objectMapper.readTree(lineas[0]);
+        assertEquals(1, primera.get("id").asInt());
+        assertFalse(primera.has("contrasena"));
+        assertFalse(primera.has("fotoPerfil"));
+        assertEquals(2, objectMapper.readTree(lineas[1]).get("id").asInt());
+    }
+
+    @Test
+    void exportar_pasaFiltrosAlRepositorio() throws Exception {
+        when(usuarioRepository.streamResumen(13, 2, 1)).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long total = usuarioExportService.exportar(13, 2, 1, out);
+
+        assertEquals(0, total);
+        assertEquals(0, out.size());
+        verify(usuarioRepository, times(1)).streamResumen(13, 2, 1);
+    }
+}
@@ -1,24 +1,47 @@
 package cl.condor.usuarios_api.service;
 
+import cl.condor.usuarios_api.cache.FiltroCorreos;
+import cl.condor.usuarios_api.cache.PerfilCache;
+import cl.condor.usuarios_api.dto.FotoProcesada;
 import cl.condor.usuarios_api.dto.LoginDTO;
+import cl.condor.usuarios_api.dto.LookupDTO;
+import cl.condor.usuarios_api.dto.LookupResultadoDTO;
+import cl.condor.usuarios_api.dto.PaginaUsuariosDTO;
 import cl.condor.usuarios_api.dto.PreguntasResponseDTO;
 import cl.condor.usuarios_api.dto.RecuperacionDTO;
+import cl.condor.usuarios_api.dto.TokenDTO;
+import cl.condor.usuarios_api.dto.UsuarioDTO;
+import cl.condor.usuarios_api.dto.UsuarioResumenDTO;
 import cl.condor.usuarios_api.model.Usuario;
 import cl.condor.usuarios_api.repository.EstadoRepository;
-import cl.condor.usuarios_api.repository.RegionRepository;
-import cl.condor.usuarios_api.repository.RolRepository;
 import cl.condor.usuarios_api.repository.UsuarioRepository;
+import cl.condor.usuarios_api.security.TokenClaims;
+import cl.condor.usuarios_api.security.TokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 // IMPORTANTE: Clase de utilidad para inyección por reflexión
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -38,14 +61,30 @@ class UsuarioServiceTest {
     private EstadoRepository estadoRepository;
 
     @Mock
-    private RegionRepository regionRepository;
+    private RegionService regionService;
 
     @Mock
-    private RolRepository rolRepository;
+    private RolService rolService;
+
+    @Mock
+    private FotoPerfilService fotoPerfilService;
 
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private AcumuladorRecorridos acumuladorRecorridos;
+
+    @Mock
+    private FiltroCorreos filtroCorreos;
+
+    private ThreadPoolExecutor passwordExecutor;
+
+    private SimpleMeterRegistry metricasRegistry;
+
     private Usuario usuarioEjemplo;
     private final Integer VALID_ID = 1;
 
@@ -54,9 +93,12 @@ class UsuarioServiceTest {
         // 1. Inicializa todos los @Mock
         MockitoAnnotations.openMocks(this);
 
-        // 2. Inicializa el servicio usando su constructor (para el PasswordEncoder final)
+        // 2. Inicializa el servicio usando su constructor (para el PasswordHashingService final,
+        //    que envuelve al PasswordEncoder mock con un pool real de 1 hilo)
+        passwordExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(10));
         try {
-            this.usuarioService = new UsuarioService(passwordEncoder);
+            this.usuarioService = new UsuarioService(
+                    new PasswordHashingService(passwordEncoder, passwordExecutor, new SimpleMeterRegistry()));
         } catch (Exception e) {
             throw new RuntimeException("Error al instanciar UsuarioService: " + e.getMessage());
         }
@@ -65,10 +107,21 @@ class UsuarioServiceTest {
         // Se usa ReflectionTestUtils para inyectar los Mocks a los campos privados.
         ReflectionTestUtils.setField(usuarioService, "usuarioRepository", usuarioRepository);
         ReflectionTestUtils.setField(usuarioService, "estadoRepository", estadoRepository);
-        ReflectionTestUtils.setField(usuarioService, "regionRepository", regionRepository);
-        ReflectionTestUtils.setField(usuarioService, "rolRepository", rolRepository);
-
-        // La inyección del 'encoder' ya fue manejada por el constructor en el paso 2.
+        ReflectionTestUtils.setField(usuarioService, "regionService", regionService);
+        ReflectionTestUtils.setField(usuarioService, "rolService", rolService);
+        ReflectionTestUtils.setField(usuarioService, "fotoPerfilService", fotoPerfilService);
+        ReflectionTestUtils.setField(usuarioService, "tokenService", tokenService);
+        ReflectionTestUtils.setField(usuarioService, "acumuladorRecorridos", acumuladorRecorridos);
+        // Caché real (no mock) para comprobar aciertos e invalidaciones
+        ReflectionTestUtils.setField(usuarioService, "perfilCache",
+                new PerfilCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(usuarioService, "filtroCorreos", filtroCorreos);
+        metricasRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(usuarioService, "metricas", new MetricasUsuarios(metricasRegistry));
+        // Por defecto el filtro deja pasar todo a la BD
+        when(filtroCorreos.puedeExistir(any())).thenReturn(true);
+
+        // La inyección del 'passwordHasher' ya fue manejada por el constructor en el paso 2.
 
         usuarioEjemplo = Usuario.builder()
                 .id(VALID_ID)
@@ -87,13 +140,82 @@ class UsuarioServiceTest {
                 .build();
     }
 
+    @AfterEach
+    void tearDown() {
+        passwordExecutor.shutdownNow();
+    }
+
     // ... (El resto de los métodos @Test se mantienen igual)
     @Test
-    void findAll_retornaListaUsuarios() {
-        when(usuarioRepository.findAll()).thenReturn(Arrays.asList(usuarioEjemplo));
+    void findPagina_conPaginaSiguiente_retornaCursorNext() {
+        // Se piden 2 y el repositorio devuelve 3 (el extra indica que hay más)
+        when(usuarioRepository.findResumenDesde(0, PageRequest.of(0, 3))).thenReturn(Arrays.asList(
+                UsuarioResumenDTO.builder().id(1).build(),
+                UsuarioResumenDTO.builder().id(2).build(),
+                UsuarioResumenDTO.builder().id(3).build()));
+
+        PaginaUsuariosDTO pagina = usuarioService.findPagina(null, 2);
+
+        assertEquals(2, pagina.getUsuarios().size());
+        assertEquals(2, pagina.getNext());
+        verify(usuarioRepository).findResumenDesde(0, PageRequest.of(0, 3));
+    }
+
+    @Test
+    void findPagina_ultimaPagina_nextEsNull() {
+        when(usuarioRepository.findResumenDesde(anyInt(), any())).thenReturn(Arrays.asList(
+                UsuarioResumenDTO.builder().id(11).build()));
+
+        PaginaUsuariosDTO pagina = usuarioService.findPagina(10, 5);
+
+        assertEquals(1, pagina.getUsuarios().size());
+        assertNull(pagina.getNext());
+    }
+
+    @Test
+    void findPagina_sizeExcesivo_seLimitaAlMaximo() {
+        when(usuarioRepository.findResumenDesde(anyInt(), any())).thenReturn(Arrays.asList());
+
+        usuarioService.findPagina(0, 100_000);
+
+        verify(usuarioRepository).findResumenDesde(0, PageRequest.of(0, UsuarioService.PAGINA_SIZE_MAXIMO + 1));
+    }
+
+    @Test
+    void buscarVarios_idsYCorreos_unaConsultaYReportaFaltantes() {
+        when(usuarioRepository.findResumenPorIdsOCorreos(any(), any())).thenReturn(List.of(
+                UsuarioResumenDTO.builder().id(1).correo("a@test.com").build(),
+                UsuarioResumenDTO.builder().id(7).correo("b@test.com").build()));
+
+        LookupResultadoDTO resultado = usuarioService.buscarVarios(
+                new LookupDTO(List.of(1, 2, 1), List.of(" B@Test.com", "c@test.com")));
+
+        assertEquals(Set.of(1, 7), resultado.getUsuarios().keySet());
+        assertEquals(List.of(2), resultado.getIdsNoEncontrados());
+        assertEquals(List.of("c@test.com"), resultado.getCorreosNoEncontrados());
+        verify(usuarioRepository).findResumenPorIdsOCorreos(Set.of(1, 2), Set.of("b@test.com", "c@test.com"));
+        verify(usuarioRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    void buscarVarios_soloIds_noEnviaListaVaciaAlIn() {
+        when(usuarioRepository.findResumenPorIds(any())).thenReturn(List.of());
 
-        assertFalse(usuarioService.findAll().isEmpty());
-        verify(usuarioRepository).findAll();
+        LookupResultadoDTO resultado = usuarioService.buscarVarios(new LookupDTO(List.of(5), null));
+
+        assertTrue(resultado.getUsuarios().isEmpty());
+        assertEquals(List.of(5), resultado.getIdsNoEncontrados());
+        verify(usuarioRepository, never()).findResumenPorIdsOCorreos(any(), any());
+        verify(usuarioRepository, never()).findResumenPorCorreos(any());
+    }
+
+    @Test
+    void buscarVarios_excedeMaximo_lanzaExcepcionSinConsultar() {
+        ReflectionTestUtils.setField(usuarioService, "lookupMaxItems", 2);
+
+        assertThrows(RuntimeException.class,
+                () -> usuarioService.buscarVarios(new LookupDTO(List.of(1, 2, 3), null)));
+        verifyNoInteractions(usuarioRepository);
     }
 
     @Test
@@ -115,40 +237,202 @@ class UsuarioServiceTest {
         verify(usuarioRepository).findById(VALID_ID);
     }
 
+    @Test
+    void findPerfilById_segundaLlamada_noConsultaBD() {
+        when(usuarioRepository.findById(VALID_ID)).thenReturn(Optional.of(usuarioEjemplo));
+
+        UsuarioDTO primero = usuarioService.findPerfilById(VALID_ID);
+        UsuarioDTO segundo = usuarioService.findPerfilById(VALID_ID);
+
+        assertEquals("Usuario Test", segundo.getNombre());
+        assertSame(primero, segundo);
+        verify(usuarioRepository, times(1)).findById(VALID_ID);
+    }
+
+    @Test
+    void findPerfilById_noExiste_lanzaExcepcionYNoSeCachea() {
+        when(usuarioRepository.findById(99)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> usuarioService.findPerfilById(99));
+        assertThrows(RuntimeException.class, () -> usuarioService.findPerfilById(99));
+        verify(usuarioRepository, times(2)).findById(99);
+    }
+
+    @Test
+    void findPerfilByCorreo_normalizaYCachea() {
+        when(usuarioRepository.findByCorreo("test@test.com")).thenReturn(Optional.of(usuarioEjemplo));
+
+        usuarioService.findPerfilByCorreo(" TEST@test.com");
+        UsuarioDTO perfil = usuarioService.findPerfilByCorreo("test@test.com");
+
+        assertEquals(VALID_ID, perfil.getId());
+        verify(usuarioRepository, times(1)).findByCorreo("test@test.com");
+    }
+
+    @Test
+    void updateNombre_invalidaPerfilEnCache() {
+        when(usuarioRepository.findById(VALID_ID)).thenReturn(Optional.of(usuarioEjemplo));
+        when(usuarioRepository.actualizarNombre(VALID_ID, "Nuevo")).thenReturn(1);
+        usuarioService.findPerfilById(VALID_ID);
+
+        usuarioService.updateNombre(VALID_ID, "Nuevo");
+        usuarioService.findPerfilById(VALID_ID);
+
+        verify(usuarioRepository, times(2)).findById(VALID_ID);
+    }
+
     @Test
     void save_guardaUsuarioCorrectamente() {
-        when(regionRepository.existsById(anyInt())).thenReturn(true);
-        when(rolRepository.existsById(anyInt())).thenReturn(true);
-        when(passwordEncoder.encode(anyString())).thenReturn("hashedPassword");
+        when(regionService.existe(anyInt())).thenReturn(true);
+        when(rolService.existe(anyInt())).thenReturn(true);
+        when(passwordEncoder.encode(anyString())).thenAnswer(inv -> "{bcrypt}" + inv.getArgument(0));
         when(usuarioRepository.save(any(Usuario.class))).thenReturn(usuarioEjemplo);
 
         Usuario resultado = usuarioService.save(usuarioEjemplo);
 
         assertNotNull(resultado);
-        verify(passwordEncoder).encode(anyString());
+        // Contraseña y ambas respuestas (ya normalizadas) se guardan hasheadas
+        verify(passwordEncoder, times(3)).encode(anyString());
+        assertEquals("{bcrypt}azul", usuarioEjemplo.getRespuestaSeguridad1());
+        assertEquals("{bcrypt}pizza", usuarioEjemplo.getRespuestaSeguridad2());
         verify(usuarioRepository).save(any(Usuario.class));
+        verify(filtroCorreos).agregar("test@test.com");
     }
 
     @Test
     void updateNombre_actualizaCorrectamente() {
-        when(usuarioRepository.findById(VALID_ID)).thenReturn(Optional.of(usuarioEjemplo));
-        when(usuarioRepository.save(any(Usuario.class))).thenReturn(usuarioEjemplo);
+        when(usuarioRepository.actualizarNombre(VALID_ID, "Nuevo Nombre")).thenReturn(1);
 
-        Usuario resultado = usuarioService.updateNombre(VALID_ID, "Nuevo Nombre");
+        assertDoesNotThrow(() -> usuarioService.updateNombre(VALID_ID, "Nuevo Nombre"));
+        verify(usuarioRepository, never()).findById(any());
+        verify(usuarioRepository, never()).save(any(Usuario.class));
+    }
 
-        assertNotNull(resultado);
-        verify(usuarioRepository).save(any(Usuario.class));
+    @Test
+    void updateNombre_usuarioNoExiste_lanzaExcepcion() {
+        when(usuarioRepository.actualizarNombre(VALID_ID, "Nuevo Nombre")).thenReturn(0);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> usuarioService.updateNombre(VALID_ID, "Nuevo Nombre"));
+        assertEquals("Usuario no encontrado", e.getMessage());
     }
 
     @Test
-    void updateCorreo_actualizaCorrectamente() {
-        when(usuarioRepository.findById(VALID_ID)).thenReturn(Optional.of(usuarioEjemplo));
-        when(usuarioRepository.save(any(Usuario.class))).thenReturn(usuarioEjemplo);
+    void updateCorreo_actualizaNormalizado() {
+        when(usuarioRepository.actualizarCorreo(VALID_ID, "nuevo@test.com")).thenReturn(1);
 
-        Usuario resultado = usuarioService.updateCorreo(VALID_ID, "nuevo@test.com");
+        usuarioService.updateCorreo(VALID_ID, " Nuevo@Test.com ");
 
-        assertNotNull(resultado);
-        verify(usuarioRepository).save(any(Usuario.class));
+        verify(usuarioRepository).actualizarCorreo(VALID_ID, "nuevo@test.com");
+        verify(filtroCorreos).agregar("nuevo@test.com");
+    }
+
+    @Test
+    void updateCorreo_duplicado_lanzaExcepcion() {
+        when(usuarioRepository.actualizarCorreo(anyInt(), anyString()))
+                .thenThrow(correoDuplicado());
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> usuarioService.updateCorreo(VALID_ID, "otro@test.com"));
+        assertEquals("El correo ya está registrado", e.getMessage());
+    }
+
+    @Test
+    void save_otraViolacionDeIntegridad_sePropaga() {
+        when(regionService.existe(anyInt())).thenReturn(true);
+        when(rolService.existe(anyInt())).thenReturn(true);
+        when(passwordEncoder.encode(anyString())).thenReturn("hashedPassword");
+        DataIntegrityViolationException notNull = new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException("Column 'nombre' cannot be null", "23000", 1048));
+        when(usuarioRepository.save(any(Usuario.class))).thenThrow(notNull);
+
+        assertSame(notNull, assertThrows(DataIntegrityViolationException.class, () -> usuarioService.save(usuarioEjemplo)));
+    }
+
+    @Test
+    void esCorreoDuplicado_soloElIndiceDeCorreo() {
+        assertTrue(UsuarioService.esCorreoDuplicado(correoDuplicado()));
+        // H2 (perfil carga): 23505 con el nombre del índice
+        assertTrue(UsuarioService.esCorreoDuplicado(new DataIntegrityViolationException("dup",
+                new SQLException("Unique index or primary key violation: \"PUBLIC.UX_USUARIO_CORREO ON ...\"", "23505"))));
+        assertFalse(UsuarioService.esCorreoDuplicado(new DataIntegrityViolationException("dup",
+                new SQLIntegrityConstraintViolationException("Duplicate entry '1' for key 'usuario.PRIMARY'", "23000", 1062))));
+        assertFalse(UsuarioService.esCorreoDuplicado(new DataIntegrityViolationException("ux_usuario_correo")));
+    }
+
+    @Test
+    void updateRegion_regionInexistente_noActualiza() {
+        when(regionService.existe(99)).thenReturn(false);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> usuarioService.updateRegion(VALID_ID, 99));
+        assertEquals("Región no encontrada", e.getMessage());
+        verify(usuarioRepository, never()).actualizarRegion(anyInt(), anyInt());
+    }
+
+    @Test
+    void updateRutasRecorridas_actualizaCorrectamente() {
+        when(usuarioRepository.actualizarRutasRecorridas(VALID_ID, 5)).thenReturn(1);
+
+        assertDoesNotThrow(() -> usuarioService.updateRutasRecorridas(VALID_ID, 5));
+    }
+
+    @Test
+    void registrarRecorrido_sinWriteBehind_incrementaEnBD() {
+        when(usuarioRepository.incrementarRecorridos(VALID_ID, 1, new BigDecimal("12.35"))).thenReturn(1);
+
+        boolean escrito = usuarioService.registrarRecorrido(VALID_ID, 1, new BigDecimal("12.345"));
+
+        assertTrue(escrito);
+        verify(usuarioRepository).incrementarRecorridos(VALID_ID, 1, new BigDecimal("12.35"));
+    }
+
+    @Test
+    void registrarRecorrido_conWriteBehind_quedaPendiente() {
+        when(acumuladorRecorridos.acumular(VALID_ID, 2, new BigDecimal("0.00"))).thenReturn(true);
+
+        boolean escrito = usuarioService.registrarRecorrido(VALID_ID, 2, null);
+
+        assertFalse(escrito);
+        verify(usuarioRepository, never()).incrementarRecorridos(anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void registrarRecorrido_usuarioNoExiste_lanzaExcepcion() {
+        when(usuarioRepository.incrementarRecorridos(anyInt(), anyInt(), any())).thenReturn(0);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> usuarioService.registrarRecorrido(VALID_ID, 1, null));
+        assertEquals("Usuario no encontrado", e.getMessage());
+    }
+
+    @Test
+    void registrarRecorrido_incrementoNegativo_lanzaExcepcion() {
+        assertThrows(RuntimeException.class, () -> usuarioService.registrarRecorrido(VALID_ID, -1, null));
+        assertThrows(RuntimeException.class, () -> usuarioService.registrarRecorrido(VALID_ID, 0, BigDecimal.ZERO));
+        verifyNoInteractions(acumuladorRecorridos);
+    }
+
+    @Test
+    void save_correoDuplicado_lanzaExcepcion() {
+        when(regionService.existe(anyInt())).thenReturn(true);
+        when(rolService.existe(anyInt())).thenReturn(true);
+        when(passwordEncoder.encode(anyString())).thenReturn("hashedPassword");
+        when(usuarioRepository.save(any(Usuario.class)))
+                .thenThrow(correoDuplicado());
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> usuarioService.save(usuarioEjemplo));
+        assertEquals("El correo ya está registrado", e.getMessage());
+    }
+
+    @Test
+    void login_correoConMayusculas_buscaNormalizado() {
+        LoginDTO loginDTO = new LoginDTO("  Test@Test.COM", "password123");
+        when(usuarioRepository.findByCorreo("test@test.com")).thenReturn(Optional.of(usuarioEjemplo));
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
+
+        usuarioService.login(loginDTO).join();
+
+        verify(usuarioRepository).findByCorreo("test@test.com");
     }
 
     @Test
@@ -157,12 +441,20 @@ class UsuarioServiceTest {
         loginDTO.setCorreo("test@test.com");
         loginDTO.setPassword("password123");
 
+        TokenDTO tokens = TokenDTO.builder().accessToken("a").refreshToken("r").tipo("Bearer").expiraEn(900L).build();
         when(usuarioRepository.findByCorreo(anyString())).thenReturn(Optional.of(usuarioEjemplo));
         when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
+        when(tokenService.emitir(usuarioEjemplo)).thenReturn(tokens);
 
-        assertDoesNotThrow(() -> usuarioService.login(loginDTO));
+        TokenDTO resultado = usuarioService.login(loginDTO).join();
+
+        assertSame(tokens, resultado);
         verify(usuarioRepository).findByCorreo(loginDTO.getCorreo());
         verify(passwordEncoder).matches(anyString(), anyString());
+        assertEquals(1, metricasRegistry.get("usuarios.operacion")
+                .tags("operacion", "login", "resultado", "success").timer().count());
+        assertEquals(1, metricasRegistry.get("usuarios.login.fase").tag("fase", "busqueda").timer().count());
+        assertEquals(1, metricasRegistry.get("usuarios.login.fase").tag("fase", "verificacion").timer().count());
     }
 
     @Test
@@ -174,9 +466,95 @@ class UsuarioServiceTest {
         when(usuarioRepository.findByCorreo(anyString())).thenReturn(Optional.of(usuarioEjemplo));
         when(passwordEncoder.matches(anyString(), anyString())).thenReturn(false);
 
-        assertThrows(RuntimeException.class, () -> usuarioService.login(loginDTO));
+        assertThrows(RuntimeException.class, () -> usuarioService.login(loginDTO).join());
         verify(usuarioRepository).findByCorreo(loginDTO.getCorreo());
         verify(passwordEncoder).matches(anyString(), anyString());
+        verify(tokenService, never()).emitir(any());
+        assertEquals(1, metricasRegistry.get("usuarios.operacion")
+                .tags("operacion", "login", "resultado", "invalid").timer().count());
+    }
+
+    @Test
+    void login_hashDesactualizado_seRehasheaEnSegundoPlano() {
+        LoginDTO loginDTO = new LoginDTO("test@test.com", "password123");
+        when(usuarioRepository.findByCorreo(anyString())).thenReturn(Optional.of(usuarioEjemplo));
+        when(passwordEncoder.matches("password123", "password123")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("password123")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("{bcrypt}nuevoHash");
+
+        usuarioService.login(loginDTO).join();
+
+        verify(usuarioRepository, timeout(1000)).actualizarContrasena(VALID_ID, "password123", "{bcrypt}nuevoHash");
+    }
+
+    @Test
+    void login_hashVigente_noSeRehashea() {
+        LoginDTO loginDTO = new LoginDTO("test@test.com", "password123");
+        when(usuarioRepository.findByCorreo(anyString())).thenReturn(Optional.of(usuarioEjemplo));
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(anyString())).thenReturn(false);
+
+        usuarioService.login(loginDTO).join();
+
+        verify(passwordEncoder, never()).encode(anyString());
+        verify(usuarioRepository, never()).actualizarContrasena(any(), any(), any());
+    }
+
+    @Test
+    void login_usuarioNoExiste_verificaHashFicticio() {
+        LoginDTO loginDTO = new LoginDTO("nadie@test.com", "password123");
+        when(usuarioRepository.findByCorreo(anyString())).thenReturn(Optional.empty());
+        when(passwordEncoder.encode(anyString())).thenReturn("hash-ficticio");
+
+        CompletableFuture<TokenDTO> resultado = usuarioService.login(loginDTO);
+
+        CompletionException e = assertThrows(CompletionException.class, resultado::join);
+        assertEquals("Credenciales invalidas", e.getCause().getMessage());
+        // Se gasta el mismo BCrypt que con un usuario real
+        verify(passwordEncoder).matches("password123", "hash-ficticio");
+    }
+
+    @Test
+    void login_correoDescartadoPorFiltro_noConsultaBDPeroVerificaHash() {
+        when(filtroCorreos.puedeExistir("bot@test.com")).thenReturn(false);
+        when(passwordEncoder.encode(anyString())).thenReturn("hash-ficticio");
+
+        CompletableFuture<TokenDTO> resultado = usuarioService.login(new LoginDTO("Bot@test.com", "x"));
+
+        CompletionException e = assertThrows(CompletionException.class, resultado::join);
+        assertEquals("Credenciales invalidas", e.getCause().getMessage());
+        verify(usuarioRepository, never()).findByCorreo(anyString());
+        verify(passwordEncoder).matches("x", "hash-ficticio");
+    }
+
+    @Test
+    void obtenerPreguntasSeguridad_correoDescartadoPorFiltro_noConsultaBD() {
+        when(filtroCorreos.puedeExistir("bot@test.com")).thenReturn(false);
+
+        assertThrows(RuntimeException.class, () -> usuarioService.obtenerPreguntasSeguridad("bot@test.com"));
+        verify(usuarioRepository, never()).findByCorreo(anyString());
+    }
+
+    @Test
+    void refrescarToken_tokenValido_emiteNuevoPar() {
+        TokenDTO tokens = TokenDTO.builder().accessToken("a2").refreshToken("r2").build();
+        when(tokenService.validar("r1", TokenService.TIPO_REFRESCO))
+                .thenReturn(new TokenClaims(VALID_ID, "test@test.com", 1, TokenService.TIPO_REFRESCO, 0L));
+        when(usuarioRepository.findById(VALID_ID)).thenReturn(Optional.of(usuarioEjemplo));
+        when(tokenService.emitir(usuarioEjemplo)).thenReturn(tokens);
+
+        assertSame(tokens, usuarioService.refrescarToken("r1"));
+    }
+
+    @Test
+    void refrescarToken_usuarioEliminado_lanzaExcepcion() {
+        when(tokenService.validar("r1", TokenService.TIPO_REFRESCO))
+                .thenReturn(new TokenClaims(VALID_ID, "test@test.com", 1, TokenService.TIPO_REFRESCO, 0L));
+        when(usuarioRepository.findById(VALID_ID)).thenReturn(Optional.empty());
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> usuarioService.refrescarToken("r1"));
+        assertEquals("Token invalido", e.getMessage());
+        verify(tokenService, never()).emitir(any());
     }
 
     @Test
@@ -201,10 +579,132 @@ class UsuarioServiceTest {
 
         when(usuarioRepository.findByCorreo(anyString())).thenReturn(Optional.of(usuarioEjemplo));
         when(passwordEncoder.encode(anyString())).thenReturn("hashedNewPassword");
+        when(usuarioRepository.actualizarContrasena(VALID_ID, "password123", "hashedNewPassword")).thenReturn(1);
 
-        assertDoesNotThrow(() -> usuarioService.recuperarContrasena(dto));
+        assertDoesNotThrow(() -> usuarioService.recuperarContrasena(dto).join());
         verify(usuarioRepository).findByCorreo(dto.getCorreo());
         verify(passwordEncoder).encode(dto.getNuevaPassword());
-        verify(usuarioRepository).save(any(Usuario.class));
+        // Respuestas aún en texto plano (sin migrar): no pasan por BCrypt
+        verify(passwordEncoder, never()).matches(anyString(), anyString());
+        verify(usuarioRepository).actualizarContrasena(VALID_ID, "password123", "hashedNewPassword");
+    }
+
+    private static RecuperacionDTO recuperacion(String respuesta1, String respuesta2, String nuevaPassword) {
+        RecuperacionDTO dto = new RecuperacionDTO();
+        dto.setCorreo("test@test.com");
+        dto.setRespuestaSeguridad1(respuesta1);
+        dto.setRespuestaSeguridad2(respuesta2);
+        dto.setNuevaPassword(nuevaPassword);
+        return dto;
+    }
+
+    @Test
+    void recuperarContrasena_respuestasHasheadas_verificaAmbasSinCortocircuito() {
+        usuarioEjemplo.setRespuestaSeguridad1("{bcrypt}r1");
+        usuarioEjemplo.setRespuestaSeguridad2("{bcrypt}r2");
+        RecuperacionDTO dto = recuperacion(" AZUL ", "mal", "newpassword123");
+        when(usuarioRepository.findByCorreo(anyString())).thenReturn(Optional.of(usuarioEjemplo));
+        when(passwordEncoder.matches("azul", "{bcrypt}r1")).thenReturn(false);
+        when(passwordEncoder.matches("mal", "{bcrypt}r2")).thenReturn(false);
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> usuarioService.recuperarContrasena(dto).join());
+
+        assertEquals("Una o ambas respuestas de seguridad son incorrectas.", e.getCause().getMessage());
+        // Aunque la primera falle, la segunda también se verifica
+        verify(passwordEncoder).matches("azul", "{bcrypt}r1");
+        verify(passwordEncoder).matches("mal", "{bcrypt}r2");
+        verify(passwordEncoder, never()).encode(anyString());
+        verify(usuarioRepository, never()).actualizarContrasena(any(), any(), any());
+    }
+
+    @Test
+    void recuperarContrasena_respuestasHasheadasCorrectas_actualizaContrasena() {
+        usuarioEjemplo.setRespuestaSeguridad1("{bcrypt}r1");
+        usuarioEjemplo.setRespuestaSeguridad2("{bcrypt}r2");
+        RecuperacionDTO dto = recuperacion("Azul", "pizza", "newpassword123");
+        when(usuarioRepository.findByCorreo(anyString())).thenReturn(Optional.of(usuarioEjemplo));
+        when(passwordEncoder.matches("azul", "{bcrypt}r1")).thenReturn(true);
+        when(passwordEncoder.matches("pizza", "{bcrypt}r2")).thenReturn(true);
+        when(passwordEncoder.encode("newpassword123")).thenReturn("hashedNewPassword");
+        when(usuarioRepository.actualizarContrasena(VALID_ID, "password123", "hashedNewPassword")).thenReturn(1);
+
+        usuarioService.recuperarContrasena(dto).join();
+
+        verify(usuarioRepository).actualizarContrasena(VALID_ID, "password123", "hashedNewPassword");
+    }
+
+    @Test
+    void recuperarContrasena_respuestaPlanaConFormaDePrefijo_seComparaComoTexto() {
+        usuarioEjemplo.setRespuestaSeguridad1("{casa}azul");
+        RecuperacionDTO dto = recuperacion("{casa}azul", "pizza", "newpassword123");
+        when(usuarioRepository.findByCorreo(anyString())).thenReturn(Optional.of(usuarioEjemplo));
+        when(passwordEncoder.encode("newpassword123")).thenReturn("hashedNewPassword");
+        when(usuarioRepository.actualizarContrasena(VALID_ID, "password123", "hashedNewPassword")).thenReturn(1);
+
+        usuarioService.recuperarContrasena(dto).join();
+
+        verify(passwordEncoder, never()).matches(anyString(), anyString());
+        verify(usuarioRepository).actualizarContrasena(VALID_ID, "password123", "hashedNewPassword");
+    }
+
+    @Test
+    void recuperarContrasena_contrasenaCambiadaEntretanto_falla() {
+        RecuperacionDTO dto = recuperacion("azul", "pizza", "newpassword123");
+        when(usuarioRepository.findByCorreo(anyString())).thenReturn(Optional.of(usuarioEjemplo));
+        when(passwordEncoder.encode(anyString())).thenReturn("hashedNewPassword");
+        when(usuarioRepository.actualizarContrasena(any(), any(), any())).thenReturn(0);
+
+        assertThrows(CompletionException.class, () -> usuarioService.recuperarContrasena(dto).join());
+    }
+
+    @Test
+    void recuperarContrasena_passwordCorta_fallaSinVerificarRespuestas() {
+        RecuperacionDTO dto = recuperacion("azul", "pizza", "abc");
+        when(usuarioRepository.findByCorreo(anyString())).thenReturn(Optional.of(usuarioEjemplo));
+
+        assertThrows(RuntimeException.class, () -> usuarioService.recuperarContrasena(dto));
+        verify(passwordEncoder, never()).matches(anyString(), anyString());
+    }
+
+    @Test
+    void updateFoto_guardaEnTablaAparteYRetornaSoloHash() {
+        FotoProcesada foto = FotoProcesada.builder()
+                .contenido(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0x01})
+                .tipoContenido("image/jpeg")
+                .hash("abc123")
+                .build();
+        when(usuarioRepository.actualizarFotoHash(VALID_ID, "abc123")).thenReturn(1);
+        when(fotoPerfilService.guardar(VALID_ID, foto)).thenReturn("abc123");
+        // Lo que devuelve la BD tras el UPDATE
+        usuarioEjemplo.setFotoHash("abc123");
+        when(usuarioRepository.findById(VALID_ID)).thenReturn(Optional.of(usuarioEjemplo));
+
+        UsuarioDTO resultado = usuarioService.updateFoto(VALID_ID, foto);
+
+        assertEquals("abc123", resultado.getFotoHash());
+        assertEquals("/api/v1/usuarios/" + VALID_ID + "/foto", resultado.getFotoUrl());
+        verify(fotoPerfilService).guardar(VALID_ID, foto);
+        // Solo la columna foto_hash: sin save() de la fila completa
+        verify(usuarioRepository).actualizarFotoHash(VALID_ID, "abc123");
+        verify(usuarioRepository, never()).save(any(Usuario.class));
+        assertEquals(4.0, metricasRegistry.get("usuarios.foto.tamano").summary().totalAmount());
+    }
+
+    @Test
+    void updateFoto_usuarioNoExiste_lanzaExcepcion() {
+        when(usuarioRepository.actualizarFotoHash(anyInt(), any())).thenReturn(0);
+
+        assertThrows(RuntimeException.class, () -> usuarioService.updateFoto(VALID_ID, FotoProcesada.builder().build()));
+        verify(fotoPerfilService, never()).guardar(anyInt(), any());
+        assertEquals(1, metricasRegistry.get("usuarios.operacion")
+                .tags("operacion", "updateFoto", "resultado", "not-found").timer().count());
+    }
+
+    // Como la reporta MySQL: DataIntegrityViolationException envolviendo el error 1062 del índice
+    static DataIntegrityViolationException correoDuplicado() {
+        return new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException(
+                        "Duplicate entry 'test@test.com' for key 'usuario.ux_usuario_correo'", "23000", 1062));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package cl.condor.usuarios_api.sql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EstadisticasSqlFilterTest {
+
+    private EstadisticasSql estadisticas;
+
+    @BeforeEach
+    void setUp() {
+        estadisticas = new EstadisticasSql(Duration.ofSeconds(1), 10, false, new SimpleMeterRegistry());
+    }
+
+    private void ejecutar(String sql) {
+        ExecutionInfo info = new ExecutionInfo();
+        info.setElapsedTime(2);
+        estadisticas.afterQuery(info, List.of(new QueryInfo(sql)));
+    }
+
+    @Test
+    void conCabecera_agregaEstadisticasAntesDelCuerpo() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new EstadisticasSqlFilter(estadisticas, true).doFilter(
+                new MockHttpServletRequest("GET", "/api/v1/usuarios/1"), response, (req, res) -> {
+                    ejecutar("select * from usuario where id_usuario=?");
+                    res.getWriter().write("{}");
+                    // Lo que se ejecuta después de empezar el cuerpo ya no llega a la cabecera
+                    ejecutar("select 1");
+                });
+
+        assertEquals("sentencias=1;tiempo-ms=2.000", response.getHeader(EstadisticasSqlFilter.CABECERA));
+        assertNull(estadisticas.enCurso());
+    }
+
+    @Test
+    void respuestaSinCuerpo_tambienLlevaCabecera() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new EstadisticasSqlFilter(estadisticas, true).doFilter(
+                new MockHttpServletRequest("PATCH", "/api/v1/usuarios/1/nombre"), response,
+                (req, res) -> ejecutar("update usuario set nombre=? where id_usuario=?"));
+
+        assertEquals("sentencias=1;tiempo-ms=2.000", response.getHeader(EstadisticasSqlFilter.CABECERA));
+    }
+
+    @Test
+    void sinCabecera_soloMide() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new EstadisticasSqlFilter(estadisticas, false).doFilter(
+                new MockHttpServletRequest("GET", "/api/v1/usuarios/1"), response,
+                (req, res) -> ejecutar("select 1"));
+
+        assertNull(response.getHeader(EstadisticasSqlFilter.CABECERA));
+        assertNull(estadisticas.enCurso());
+    }
+
+    @Test
+    void actuator_noSeMide() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/prometheus");
+
+        assertTrue(new EstadisticasSqlFilter(estadisticas, true).shouldNotFilter(request));
+    }
+}
@@ -0,0 +1,124 @@
+package cl.condor.usuarios_api.sql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class EstadisticasSqlTest {
+
+    private SimpleMeterRegistry registry;
+    private EstadisticasSql estadisticas;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        estadisticas = new EstadisticasSql(Duration.ofMillis(100), 3, true, registry);
+    }
+
+    private void ejecutar(String sql, long ms) {
+        ExecutionInfo info = new ExecutionInfo();
+        info.setElapsedTime(ms);
+        estadisticas.afterQuery(info, List.of(new QueryInfo(sql)));
+    }
+
+    private void leerFila(boolean hayFila) throws Exception {
+        MethodExecutionContext contexto = new MethodExecutionContext();
+        contexto.setTarget(mock(ResultSet.class));
+        contexto.setMethod(ResultSet.class.getMethod("next"));
+        contexto.setResult(hayFila);
+        estadisticas.afterMethod(contexto);
+    }
+
+    @Test
+    void peticion_acumulaSentenciasTiempoYFilas() throws Exception {
+        estadisticas.iniciar();
+        ejecutar("select * from usuario where id_usuario=?", 5);
+        ejecutar("update usuario set nombre=? where id_usuario=?", 7);
+        leerFila(true);
+        leerFila(true);
+        leerFila(false);
+
+        EstadisticasSql.Peticion peticion = estadisticas.terminar("GET /api/v1/usuarios/1");
+
+        assertEquals(2, peticion.getSentencias());
+        assertEquals(12_000_000, peticion.getTiempoNanos());
+        assertEquals(2, peticion.getFilas());
+        assertEquals("sentencias=2;tiempo-ms=12.000;filas=2", estadisticas.cabecera(peticion));
+        assertEquals(1, registry.get("usuarios.sql.sentencias").summary().count());
+        assertEquals(2.0, registry.get("usuarios.sql.sentencias").summary().totalAmount());
+        assertEquals(0.0, registry.get("usuarios.sql.n-mas-uno").counter().count());
+        assertNull(estadisticas.enCurso());
+    }
+
+    @Test
+    void sinContarFilas_noPublicaFilasNiLasPoneEnLaCabecera() throws Exception {
+        SimpleMeterRegistry otro = new SimpleMeterRegistry();
+        EstadisticasSql sinFilas = new EstadisticasSql(Duration.ofMillis(100), 3, false, otro);
+        sinFilas.iniciar();
+        ExecutionInfo info = new ExecutionInfo();
+        info.setElapsedTime(4);
+        sinFilas.afterQuery(info, List.of(new QueryInfo("select * from usuario")));
+
+        EstadisticasSql.Peticion peticion = sinFilas.terminar("GET /api/v1/usuarios");
+
+        assertFalse(sinFilas.isContarFilas());
+        assertEquals("sentencias=1;tiempo-ms=4.000", sinFilas.cabecera(peticion));
+        assertNull(otro.find("usuarios.sql.filas").summary());
+    }
+
+    @Test
+    void sentenciaDeMenosDeUnMilisegundo_sumaSuTiempoEnNanos() {
+        estadisticas.iniciar();
+        ExecutionInfo info = new ExecutionInfo();
+        // datasource-proxy informa 0 ms enteros; el tiempo real sale de beforeQuery
+        info.setElapsedTime(0);
+        info.addCustomValue(EstadisticasSql.INICIO, System.nanoTime() - 400_000);
+        estadisticas.afterQuery(info, List.of(new QueryInfo("select * from usuario where id_usuario=?")));
+
+        EstadisticasSql.Peticion peticion = estadisticas.terminar("GET /api/v1/usuarios/1");
+
+        assertTrue(peticion.getTiempoNanos() >= 400_000);
+        assertTrue(registry.get("usuarios.sql.tiempo").timer().totalTime(TimeUnit.NANOSECONDS) >= 400_000);
+        assertEquals(0.0, registry.get("usuarios.sql.lentas").counter().count());
+    }
+
+    @Test
+    void beforeQuery_marcaElInicio() {
+        ExecutionInfo info = new ExecutionInfo();
+
+        estadisticas.beforeQuery(info, List.of());
+
+        assertNotNull(info.getCustomValue(EstadisticasSql.INICIO, Long.class));
+    }
+
+    @Test
+    void selectRepetido_seMarcaComoNMasUno() {
+        estadisticas.iniciar();
+        for (int i = 0; i < 3; i++) {
+            ejecutar("select * from foto_perfil where id_usuario=?", 1);
+        }
+        estadisticas.terminar("GET /api/v1/usuarios");
+
+        assertEquals(1.0, registry.get("usuarios.sql.n-mas-uno").counter().count());
+    }
+
+    @Test
+    void sentenciaLenta_seCuentaAunFueraDeUnaPeticion() {
+        ejecutar("select * from usuario", 150);
+        ejecutar("select 1", 1);
+
+        assertEquals(1.0, registry.get("usuarios.sql.lentas").counter().count());
+        assertNull(estadisticas.terminar("sin peticion"));
+    }
+}
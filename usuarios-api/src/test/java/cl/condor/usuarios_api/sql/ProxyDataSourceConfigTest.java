@@ -0,0 +1,49 @@
+package cl.condor.usuarios_api.sql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProxyDataSourceConfigTest {
+
+    @SuppressWarnings("unchecked")
+    private static ResultSet consultar(boolean contarFilas) throws Exception {
+        EstadisticasSql estadisticas = new EstadisticasSql(Duration.ofSeconds(1), 10, contarFilas, new SimpleMeterRegistry());
+        ObjectProvider<EstadisticasSql> proveedor = mock(ObjectProvider.class);
+        when(proveedor.getObject()).thenReturn(estadisticas);
+
+        DataSource hikari = mock(DataSource.class);
+        Connection conexion = mock(Connection.class);
+        PreparedStatement sentencia = mock(PreparedStatement.class);
+        when(hikari.getConnection()).thenReturn(conexion);
+        when(conexion.prepareStatement(anyString())).thenReturn(sentencia);
+        when(sentencia.executeQuery()).thenReturn(mock(ResultSet.class));
+
+        DataSource envuelto = (DataSource) ProxyDataSourceConfig.proxyDataSourcePostProcessor(proveedor)
+                .postProcessAfterInitialization(hikari, "dataSource");
+        assertNotSame(hikari, envuelto);
+        return envuelto.getConnection().prepareStatement("select 1").executeQuery();
+    }
+
+    @Test
+    void porDefecto_noEnvuelveLosResultSet() throws Exception {
+        assertFalse(Proxy.isProxyClass(consultar(false).getClass()));
+    }
+
+    @Test
+    void conContarFilas_envuelveLosResultSet() throws Exception {
+        assertTrue(Proxy.isProxyClass(consultar(true).getClass()));
+    }
+}